@@ -0,0 +1,45 @@
+import java.io.File;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * This class runs the JMH benchmarks of the Dungeon game and writes the results as JSON, so that
+ * the results of different releases can be compared.
+ */
+public class BenchmarkRunner {
+  
+  /**
+   * Run the benchmarks.
+   * @param args an optional regular expression to choose the benchmarks to run, and an optional
+   *         path of the JSON file to write the results to. By default all the benchmarks are run,
+   *         and the results are written to a file named by the date and time in bench/results.
+   * @throws RunnerException if the benchmarks cannot be run.
+   */
+  public static void main(String[] args) throws RunnerException {
+    String include = args.length > 0 ? args[0] : ".*Benchmark.*";
+    String output;
+    if (args.length > 1) {
+      output = args[1];
+    } else {
+      String time = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+      output = "bench/results/jmh-" + time + ".json";
+    }
+    File parent = new File(output).getAbsoluteFile().getParentFile();
+    if (! parent.isDirectory() && ! parent.mkdirs()) {
+      throw new IllegalArgumentException("Cannot create the results directory: " + parent);
+    }
+    
+    Options options = new OptionsBuilder()
+            .include(include)
+            .resultFormat(ResultFormatType.JSON)
+            .result(output)
+            .build();
+    new Runner(options).run();
+  }
+}
@@ -0,0 +1,77 @@
+package model;
+
+import java.util.concurrent.TimeUnit;
+
+import model.gameobjects.cell.Cell;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import random.MockRandomGenerator;
+
+/**
+ * This class benchmarks building a Dungeon with the modified kruskal algorithm, and copying the
+ * grid of a built Dungeon, for square grids of different sizes. It is in the model package so
+ * that it can reach the package private Dungeon.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DungeonBenchmark {
+  
+  /**
+   * The number of rows and columns in the Dungeon.
+   */
+  @Param({"10", "100", "500", "1000", "2000"})
+  public int size;
+  
+  /**
+   * If the Dungeon is of wrapping or non-wrapping type.
+   */
+  @Param({"true", "false"})
+  public boolean wrapping;
+  
+  private Dungeon dungeon;
+  
+  /**
+   * Build the Dungeon whose grid is copied.
+   */
+  @Setup
+  public void setUp() {
+    dungeon = build();
+  }
+  
+  /**
+   * Benchmark building a Dungeon, including placing the treasure.
+   * @return the built Dungeon.
+   */
+  @Benchmark
+  public Dungeon buildDungeon() {
+    return build();
+  }
+  
+  /**
+   * Benchmark copying the grid of a built Dungeon.
+   * @return the copy of the grid.
+   */
+  @Benchmark
+  public Cell[][] getGridCopy() {
+    return dungeon.getGridCopy();
+  }
+  
+  //Build a Dungeon with the same seed every time.
+  private Dungeon build() {
+    return new DungeonBuilderKruskal(size, size, size / 2, wrapping, new MockRandomGenerator(42),
+            20, 10).buildDungeon();
+  }
+}
@@ -0,0 +1,88 @@
+package model;
+
+import java.util.concurrent.TimeUnit;
+
+import model.gameobjects.Directions;
+import model.gameobjects.actors.Player;
+import model.gameobjects.cell.Cell;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class benchmarks the Dungeon game: building a full game with its monsters, pits and
+ * thieves, and the throughput of moving the player and shooting arrows once the game is built.
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameBenchmark {
+  
+  /**
+   * The number of rows and columns in the Dungeon.
+   */
+  @Param({"10", "50", "200"})
+  public int size;
+  
+  private Game game;
+  private Player player;
+  private Directions away;
+  
+  /**
+   * Build a game without extra monsters, pits or thieves, so that the player can move and shoot
+   * for as long as the benchmark runs.
+   */
+  @Setup
+  public void setUp() {
+    player = new Player(1);
+    game = new Game(size, size, size / 2, true, 20, 0, player, 42);
+    away = player.getLocation().getNeighbors().keySet().iterator().next();
+  }
+  
+  /**
+   * Benchmark building a full game, including the monsters, pits and thieves.
+   * @return the built game.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public Game newGame() {
+    return new Game(size, size, size / 2, true, 20, 20, new Player(1), 42);
+  }
+  
+  /**
+   * Benchmark moving the player from the start cave to a neighbor and back.
+   * @return the location of the player after the moves.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public Cell movePlayer() {
+    game.movePlayer(away);
+    game.movePlayer(away.getReverse());
+    return player.getLocation();
+  }
+  
+  /**
+   * Benchmark shooting an arrow two caves away from the start cave. The player is given the arrow
+   * before each shot, so that they never run out.
+   * @return the output of the shooting.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public String shootArrow() {
+    player.getLocation().setArrows(1);
+    player.pickArrows();
+    return game.shootArrow(away, 2);
+  }
+}
@@ -0,0 +1,58 @@
+package simulation;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class benchmarks the number of small games the simulation runner plays in a second, with
+ * the games spread over all the cores of the common pool.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimulationBenchmark {
+  private static final int GAMES = 10000;
+  
+  /**
+   * The bot that plays the games.
+   */
+  @Param({"walk", "goal"})
+  public String bot;
+  
+  private SimulationRunner runner;
+  
+  /**
+   * Set up a batch of small games.
+   */
+  @Setup
+  public void setUp() {
+    SimulationConfig config = new SimulationConfig(6, 6, 2, false, 20, 20, GAMES, 42, 200);
+    BotPolicy policy = bot.equals("walk") ? new RandomWalkBot() : new GoalSeekingBot();
+    runner = new SimulationRunner(config, policy);
+  }
+  
+  /**
+   * Benchmark playing a batch of games, counted one operation for each game.
+   * @return the stats of the games.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  @OperationsPerInvocation(GAMES)
+  public SimulationStats playGames() {
+    return runner.run();
+  }
+}
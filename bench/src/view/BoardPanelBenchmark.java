@@ -0,0 +1,72 @@
+package view;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import model.Game;
+import model.gameobjects.actors.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class benchmarks painting the board panel of the Dungeon Map View into an offscreen image,
+ * so that it runs without a display.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class BoardPanelBenchmark {
+  
+  /**
+   * The number of rows and columns in the Dungeon.
+   */
+  @Param({"10", "30", "60"})
+  public int size;
+  
+  private BoardPanel panel;
+  private BufferedImage image;
+  private Graphics2D graphics;
+  
+  /**
+   * Build a game and a board panel for it, and an image as large as the panel to paint on.
+   */
+  @Setup
+  public void setUp() {
+    Game game = new Game(size, size, size / 2, true, 20, 20, new Player(1), 42);
+    panel = new BoardPanel(1200, 800, game);
+    image = new BufferedImage(panel.getWidth(), panel.getHeight(), BufferedImage.TYPE_INT_ARGB);
+    graphics = image.createGraphics();
+  }
+  
+  /**
+   * Release the graphics of the offscreen image.
+   */
+  @TearDown
+  public void tearDown() {
+    graphics.dispose();
+  }
+  
+  /**
+   * Benchmark painting the whole board panel.
+   * @return the image painted on.
+   */
+  @Benchmark
+  public BufferedImage paintComponent() {
+    panel.paintComponent(graphics);
+    return image;
+  }
+}
@@ -1,4 +1,7 @@
+import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
 
 import controller.ConsoleController;
 import controller.Controller;
@@ -7,21 +10,62 @@ import model.AdventureGame;
 import model.Game;
 import model.gameobjects.actors.Player;
 import model.gameobjects.actors.Players;
+import server.SessionServer;
+import simulation.GoalSeekingBot;
+import simulation.ParameterSweep;
 import view.IView;
 import view.MenuSwingView;
 
 /**
  * The main class for the Dungeon adventure game. This class can be used to run the game as a
- * text-based adventure game, or as a graphical interface based game.
+ * text-based adventure game, or as a graphical interface based game, or to sweep a grid of game
+ * settings with simulated games, or to serve text-based games to many players over TCP.
  */
 public class Driver {
+  private static final int SWEEP_MAX_TURNS = 1000;
+  private static final long SERVER_IDLE_TIMEOUT_MILLIS = 10 * 60 * 1000;
+  
   /**
    * The main method to run the adventure game.
-   * @param args provide inputs if running a text-based game.
+   * @param args provide inputs if running a text-based game. For a sweep, provide "sweep", then
+   *         comma separated lists of rows, columns, wrapping types, interconnectivity, percentages
+   *         of treasure and percentages of monsters, then the number of games at each point, the
+   *         seed and the path of the results file. For a server, provide "serve", the port, then
+   *         the inputs of a text-based game.
+   * @throws IOException if the results file of a sweep cannot be read or written, or the server
+   *         cannot listen on the port.
+   * @throws InterruptedException if the server is interrupted.
    */
-  public static void main(String[] args) {
+  public static void main(String[] args) throws IOException, InterruptedException {
+    //If arguments provided for a parameter sweep
+    if (args.length > 0 && args[0].equalsIgnoreCase("sweep")) {
+      ParameterSweep sweep = new ParameterSweep(ParameterSweep.makeGrid(parseInts(args[1]),
+              parseInts(args[2]), parseBooleans(args[3]), parseInts(args[4]), parseInts(args[5]),
+              parseInts(args[6]), Integer.parseInt(args[7]), Integer.parseInt(args[8]),
+              SWEEP_MAX_TURNS), new GoalSeekingBot());
+      int played = sweep.run(Paths.get(args[9]));
+      System.out.printf("Played %d of %d points.%n", played, sweep.getPoints().size());
+    }
+    
+    //If arguments provided for a server of text-based games
+    else if (args.length > 0 && args[0].equalsIgnoreCase("serve")) {
+      int rows = Integer.parseInt(args[2]);
+      int cols = Integer.parseInt(args[3]);
+      boolean isWrapped = Boolean.parseBoolean(args[4].toLowerCase());
+      int interconnectivity = Integer.parseInt(args[5]);
+      int percentTreasure = Integer.parseInt(args[6]);
+      int percentMonsters = Integer.parseInt(args[7]);
+      SessionServer server = new SessionServer(Integer.parseInt(args[1]),
+              () -> new Game(rows, cols, interconnectivity, isWrapped, percentTreasure,
+                      percentMonsters, new Player(1)), SERVER_IDLE_TIMEOUT_MILLIS);
+      server.start();
+      System.out.printf("Serving games on port %d.%n", server.getPort());
+      //The server threads are daemons, so wait here until the process is stopped.
+      new CountDownLatch(1).await();
+    }
+    
     //If arguments provided for a text-based game
-    if (args.length > 0) {
+    else if (args.length > 0) {
       int rows = Integer.parseInt(args[0]);
       int cols = Integer.parseInt(args[1]);
       boolean isWrapped = Boolean.parseBoolean(args[2].toLowerCase());
@@ -53,4 +97,24 @@ public class Driver {
     
     
   }
+  
+  //Parse a comma separated list of integers.
+  private static int[] parseInts(String list) {
+    String[] values = list.split(",");
+    int[] parsed = new int[values.length];
+    for (int i = 0; i < values.length; i++) {
+      parsed[i] = Integer.parseInt(values[i].trim());
+    }
+    return parsed;
+  }
+  
+  //Parse a comma separated list of booleans.
+  private static boolean[] parseBooleans(String list) {
+    String[] values = list.split(",");
+    boolean[] parsed = new boolean[values.length];
+    for (int i = 0; i < values.length; i++) {
+      parsed[i] = Boolean.parseBoolean(values[i].trim().toLowerCase());
+    }
+    return parsed;
+  }
 }
@@ -158,24 +158,24 @@ public class ConsoleController implements Controller {
             case "ruby":
             case "r":
             case "rubies":
-              game.getPlayer().pickTreasure(Treasure.RUBIES);
+              game.pickTreasure(Treasure.RUBIES);
               out.append("You pick up Rubies. \n");
               break;
             case "diamond":
             case "diamonds":
             case "d":
-              game.getPlayer().pickTreasure(Treasure.DIAMONDS);
+              game.pickTreasure(Treasure.DIAMONDS);
               out.append("You pick up Diamonds. \n");
               break;
             case "sapphire":
             case "sapphires":
             case "s":
-              game.getPlayer().pickTreasure(Treasure.SAPPHIRES);
+              game.pickTreasure(Treasure.SAPPHIRES);
               out.append("You pick up Sapphires. \n");
               break;
             case "arrow":
             case "a":
-              game.getPlayer().pickArrows();
+              game.pickArrows();
               out.append("You pick up arrows. \n");
               break;
             default:
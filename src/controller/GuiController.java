@@ -59,7 +59,7 @@ public class GuiController implements Features {
     
     //Start a new game with the provided inputs
     try {
-      this.model = new Game(r, c, ic, wrap, t, m, new Player(1), seed);
+      this.model = new Game(r, c, ic, wrap, t, m, new Player(1), seed, true);
       
       //if successful then set the view's read-only model
       view.setModel(model);
@@ -190,7 +190,7 @@ public class GuiController implements Features {
             case "r":
             case "rubies":
               try {
-                model.getPlayer().pickTreasure(Treasure.RUBIES);
+                model.pickTreasure(Treasure.RUBIES);
                 out.append("You picked up Rubies. \n");
                 view.refresh();
               } catch (IllegalArgumentException e) {
@@ -201,7 +201,7 @@ public class GuiController implements Features {
             case "diamonds":
             case "d":
               try {
-                model.getPlayer().pickTreasure(Treasure.DIAMONDS);
+                model.pickTreasure(Treasure.DIAMONDS);
                 out.append("You picked up Diamonds. \n");
                 view.refresh();
               } catch (IllegalArgumentException e) {
@@ -212,7 +212,7 @@ public class GuiController implements Features {
             case "sapphires":
             case "s":
               try {
-                model.getPlayer().pickTreasure(Treasure.SAPPHIRES);
+                model.pickTreasure(Treasure.SAPPHIRES);
                 out.append("You picked up Sapphires. \n");
                 view.refresh();
               } catch (IllegalArgumentException e) {
@@ -222,7 +222,7 @@ public class GuiController implements Features {
             case "arrow":
             case "a":
               try {
-                model.getPlayer().pickArrows();
+                model.pickArrows();
                 out.append("You picked up Arrows. \n");
                 view.refresh();
               } catch (IllegalArgumentException e) {
@@ -287,22 +287,19 @@ public class GuiController implements Features {
   
   
   /**
-   * Handle an action in a single cell of the board, such as to make a move.
+   * Handle an action in a single cell of the board, such as to make a move. A click on a cell
+   * next to the player makes one move, and a click on a visited cell travels there along a
+   * shortest route, stopping early at the first smell, pit warning or thief.
    * @param row the row of the clicked cell
    * @param col the column of the clicked cell
    */
   @Override
   public void handleCellClick(int row, int col) {
     try {
-      //make the move based at the cell at given row and column.
-      //get the corresponding cell from current location's neighbors
-      Directions dir = null;
+      // Move the player, through as many cells as the route takes
+      model.travelTo(row, col);
       
-      // Move the player
-      //model.movePlayerTo(model.getCellAt(col, row));
-      model.movePlayerTo(row, col);
-      
-      //refresh the view to update the view after the move.
+      //refresh the view once after all the moves.
       view.refresh();
       
     } catch (IllegalArgumentException e) {
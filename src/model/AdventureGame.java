@@ -3,6 +3,7 @@ package model;
 import model.gameobjects.Directions;
 import model.gameobjects.actors.Players;
 import model.gameobjects.cell.Cell;
+import model.gameobjects.cell.Treasure;
 
 /**
  * This interface provides operations to play a Dungeon Game with one player. A Dungeon is arranged
@@ -32,6 +33,16 @@ public interface AdventureGame extends ReadonlyAdventureGame {
    */
   void movePlayerTo(Cell location);
   
+  /**
+   * Move the player along a shortest route through visited cells to a visited cell by x and y
+   * coordinate, one move at a time. The player stops before a cell with a monster or a pit, and
+   * stops early at the first cell with a smell, a pit nearby or a thief, or when the game is over.
+   * @param x and y coordinate of the cell to travel to, which has to be visited or next to the
+   *          player, and cannot be the cell of the player.
+   * @return the number of moves made.
+   */
+  int travelTo(int x, int y);
+  
   /**
    * Shoot an arrow at the Monster, if present towards the given direction and at the exact
    * distance.
@@ -59,5 +70,23 @@ public interface AdventureGame extends ReadonlyAdventureGame {
    */
   Players getPlayer();
   
+  /**
+   * Pick up a treasure in the current location of the player.
+   * @param treasure the treasure to pick up.
+   */
+  void pickTreasure(Treasure treasure);
+  
+  /**
+   * Pick up the arrows in the current location of the player.
+   */
+  void pickArrows();
+  
+  /**
+   * Get the log of the commands played in this game, which is only kept for a game built from a
+   * seed to be recorded.
+   * @return the command log, or null if the game is not recorded.
+   */
+  CommandLog getCommandLog();
+  
   
 }
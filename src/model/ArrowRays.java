@@ -0,0 +1,120 @@
+package model;
+
+import java.util.Arrays;
+
+import model.gameobjects.Directions;
+import model.gameobjects.cell.Cell;
+
+/**
+ * This is a package private class that holds, for every cell of a Dungeon and every direction,
+ * the first cave an arrow shot from the cell in that direction flies into, and the direction the
+ * arrow is flying when it gets there. Only caves count toward the distance of a shot: an arrow
+ * goes on through a tunnel by its other entrance, and it goes on straight through a cave if the
+ * cave has an entrance on the far side, and stops otherwise. A cave is any cell that does not have
+ * exactly two neighbors, so a cave that has become a pit still counts.
+ *
+ * <p>The first cave and the direction are kept together as one int for each cell and direction,
+ * the cave ID times the number of directions plus the direction, which is also the entry of the
+ * table for leaving that cave in that direction. A shot follows the table one cave at a time, so
+ * it takes as many lookups as the caves it flies, and the table takes 16 bytes for each cell.
+ */
+class ArrowRays {
+  private static final Directions[] DIRECTIONS = Directions.values();
+  private final Cell[][] grid;
+  private final int cols;
+  private final int[] nextCaves;
+  
+  /**
+   * Constructor for the arrow rays of a Dungeon grid. The ID of every cell must be its row times
+   * the number of columns plus its column.
+   * @param grid the Dungeon grid.
+   */
+  ArrowRays(Cell[][] grid) {
+    if (grid == null || grid.length == 0) {
+      throw new IllegalArgumentException("The grid cannot be null or empty.");
+    }
+    this.grid = grid;
+    this.cols = grid[0].length;
+    this.nextCaves = findNextCaves();
+  }
+  
+  /**
+   * Get the cave an arrow lands in.
+   * @param from the cell the arrow is shot from.
+   * @param direction the direction the arrow is shot in.
+   * @param distance the number of caves the arrow flies.
+   * @return the cave the arrow lands in, or null if the arrow stops before it flies that far.
+   */
+  Cell getTarget(Cell from, Directions direction, int distance) {
+    if (distance < 1) {
+      throw new IllegalArgumentException("The distance must be at least 1.");
+    }
+    int ray = from.getID() * DIRECTIONS.length + direction.ordinal();
+    for (int i = 0; i < distance; i++) {
+      ray = nextCaves[ray];
+      if (ray == -1) {
+        return null;
+      }
+    }
+    return getCell(ray / DIRECTIONS.length);
+  }
+  
+  //Find, for every cell and direction, the first cave an arrow leaving the cell that way flies
+  // into, as the cave ID times the number of directions plus the direction the arrow was flying
+  // in, or -1 if there is no cave. Each chain of tunnels is walked once for each way along it.
+  private int[] findNextCaves() {
+    int[] nextCaves = new int[grid.length * cols * DIRECTIONS.length];
+    Arrays.fill(nextCaves, -2);
+    int[] chain = new int[nextCaves.length];
+    for (int ray = 0; ray < nextCaves.length; ray++) {
+      int length = 0;
+      int current = ray;
+      int result;
+      while (true) {
+        if (nextCaves[current] == -3) {
+          //A loop of tunnels with no cave on it.
+          result = -1;
+          break;
+        }
+        if (nextCaves[current] != -2) {
+          result = nextCaves[current];
+          break;
+        }
+        Directions heading = DIRECTIONS[current % DIRECTIONS.length];
+        Cell next = getCell(current / DIRECTIONS.length).getNeighbors().get(heading);
+        if (next == null) {
+          result = -1;
+          break;
+        }
+        if (next.getNeighbors().size() != 2) {
+          result = next.getID() * DIRECTIONS.length + heading.ordinal();
+          break;
+        }
+        nextCaves[current] = -3;
+        chain[length] = current;
+        length += 1;
+        current = next.getID() * DIRECTIONS.length + getOtherExit(next, heading).ordinal();
+      }
+      nextCaves[current] = result;
+      for (int i = 0; i < length; i++) {
+        nextCaves[chain[i]] = result;
+      }
+    }
+    return nextCaves;
+  }
+  
+  //Get the cell with an ID.
+  private Cell getCell(int id) {
+    return grid[id / cols][id % cols];
+  }
+  
+  //Get the direction to leave a tunnel by, given the direction the arrow came in flying.
+  private static Directions getOtherExit(Cell tunnel, Directions heading) {
+    for (Directions exit : tunnel.getNeighbors().keySet()) {
+      if (exit != heading.getReverse()) {
+        return exit;
+      }
+    }
+    throw new IllegalStateException("A tunnel must have two entrances.");
+  }
+}
@@ -0,0 +1,78 @@
+package model;
+
+import model.gameobjects.cell.CellStore;
+
+/**
+ * This class represents the state of all the cells of a Dungeon at one version of the game. A
+ * board snapshot cannot be changed. A new snapshot shares the cell snapshots of the previous one
+ * for every cell that has not changed since, so only the changed cells are copied again, and a
+ * view can compare cell snapshots by reference to find the cells it has to draw again.
+ */
+public final class BoardSnapshot {
+  private final long version;
+  private final int rows;
+  private final int cols;
+  private final CellSnapshot[] cells;
+  
+  /**
+   * Constructor for a snapshot of the current state of the cells in a store.
+   * @param previous the previous snapshot of the same store, or null to copy every cell.
+   * @param store the store with the cells.
+   */
+  BoardSnapshot(BoardSnapshot previous, CellStore store) {
+    this.version = store.getVersion();
+    this.rows = store.getRows();
+    this.cols = store.getColumns();
+    if (previous == null) {
+      this.cells = new CellSnapshot[store.size()];
+      for (int id = 0; id < cells.length; id++) {
+        cells[id] = new CellSnapshot(store.getCell(id));
+      }
+    } else {
+      this.cells = previous.cells.clone();
+      for (int id = 0; id < cells.length; id++) {
+        if (store.getChangeVersion(id) > previous.version) {
+          cells[id] = new CellSnapshot(store.getCell(id));
+        }
+      }
+    }
+  }
+  
+  /**
+   * Get the version of the game this snapshot was taken at. Two snapshots of a game with the same
+   * version hold the same state.
+   * @return the version of the snapshot.
+   */
+  public long getVersion() {
+    return version;
+  }
+  
+  /**
+   * Get the rows in the dungeon.
+   * @return number of rows.
+   */
+  public int getRows() {
+    return rows;
+  }
+  
+  /**
+   * Get the columns in the dungeon.
+   * @return number of columns.
+   */
+  public int getColumns() {
+    return cols;
+  }
+  
+  /**
+   * Get the snapshot of a cell.
+   * @param row the row of the cell.
+   * @param col the column of the cell.
+   * @return the snapshot of the cell.
+   */
+  public CellSnapshot getCell(int row, int col) {
+    if (row < 0 || row >= rows || col < 0 || col >= cols) {
+      throw new IndexOutOfBoundsException(String.format("Invalid cell: %d, %d", row, col));
+    }
+    return cells[row * cols + col];
+  }
+}
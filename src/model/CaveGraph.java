@@ -0,0 +1,212 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import model.gameobjects.Directions;
+import model.gameobjects.cell.Cell;
+
+/**
+ * This class represents a Dungeon as a graph of its caves, where every chain of tunnels between
+ * two caves is contracted into one weighted edge. A tunnel always has two entrances, so walking
+ * into one only ever leads on to the next cell of the chain, and the graph keeps only the cells
+ * where there is a choice to make.
+ *
+ * <p>The edges are kept in compressed sparse row arrays: the edges leaving node i are the edges
+ * from getFirstEdge(i) up to getEndEdge(i) - 1, in the order of the directions they leave by.
+ * Every chain is kept once from each end. Each edge records the cave it leads to, its length in
+ * moves, the direction it leaves by and the direction of its last move into the cave it leads
+ * to. A cave is any cell that does not have exactly two neighbors, so a cave that later becomes a
+ * pit is still a node. Tunnels that form a loop with no cave on it cannot be reached from a cave,
+ * and are left out.
+ */
+public class CaveGraph {
+  private static final Directions[] DIRECTIONS = Directions.values();
+  private final int[] nodeCells;
+  private final int[] cellNodes;
+  private final int[] offsets;
+  private final int[] targets;
+  private final int[] lengths;
+  private final byte[] exits;
+  private final byte[] entries;
+  
+  /**
+   * Constructor for the cave graph of a Dungeon grid. The ID of every cell must be its row times
+   * the number of columns plus its column.
+   * @param grid the Dungeon grid.
+   */
+  public CaveGraph(Cell[][] grid) {
+    if (grid == null || grid.length == 0) {
+      throw new IllegalArgumentException("The grid cannot be null or empty.");
+    }
+    int cols = grid[0].length;
+    this.cellNodes = new int[grid.length * cols];
+    Arrays.fill(cellNodes, -1);
+    
+    //Number the caves and count the edges leaving them.
+    int nodes = 0;
+    int edges = 0;
+    for (Cell[] row : grid) {
+      for (Cell cell : row) {
+        int degree = cell.getNeighbors().size();
+        if (degree != 2) {
+          cellNodes[cell.getID()] = nodes;
+          nodes += 1;
+          edges += degree;
+        }
+      }
+    }
+    this.nodeCells = new int[nodes];
+    this.offsets = new int[nodes + 1];
+    this.targets = new int[edges];
+    this.lengths = new int[edges];
+    this.exits = new byte[edges];
+    this.entries = new byte[edges];
+    
+    //Walk each chain of tunnels from every exit of every cave.
+    int edge = 0;
+    for (Cell[] row : grid) {
+      for (Cell cave : row) {
+        int node = cellNodes[cave.getID()];
+        if (node == -1) {
+          continue;
+        }
+        nodeCells[node] = cave.getID();
+        offsets[node] = edge;
+        for (Directions exit : DIRECTIONS) {
+          Cell next = cave.getNeighbors().get(exit);
+          if (next == null) {
+            continue;
+          }
+          Directions last = exit;
+          int length = 1;
+          while (cellNodes[next.getID()] == -1) {
+            last = getOtherExit(next, last.getReverse());
+            next = next.getNeighbors().get(last);
+            length += 1;
+          }
+          targets[edge] = cellNodes[next.getID()];
+          lengths[edge] = length;
+          exits[edge] = (byte) exit.ordinal();
+          entries[edge] = (byte) last.ordinal();
+          edge += 1;
+        }
+      }
+    }
+    offsets[nodes] = edge;
+  }
+  
+  /**
+   * Get the number of caves in the graph.
+   * @return the number of nodes.
+   */
+  public int getNodeCount() {
+    return nodeCells.length;
+  }
+  
+  /**
+   * Get the number of edges in the graph. Every chain between two caves is counted once from each
+   * end.
+   * @return the number of edges.
+   */
+  public int getEdgeCount() {
+    return targets.length;
+  }
+  
+  /**
+   * Get the node of a cell.
+   * @param cell the cell.
+   * @return the node of the cell, or -1 if the cell is a tunnel.
+   */
+  public int getNode(Cell cell) {
+    return cellNodes[cell.getID()];
+  }
+  
+  /**
+   * Get the ID of the cave at a node.
+   * @param node the node.
+   * @return the ID of the cave.
+   */
+  public int getCellId(int node) {
+    return nodeCells[node];
+  }
+  
+  /**
+   * Get the first edge leaving a node.
+   * @param node the node.
+   * @return the index of the first edge.
+   */
+  public int getFirstEdge(int node) {
+    return offsets[node];
+  }
+  
+  /**
+   * Get the index after the last edge leaving a node.
+   * @param node the node.
+   * @return the index after the last edge.
+   */
+  public int getEndEdge(int node) {
+    return offsets[node + 1];
+  }
+  
+  /**
+   * Get the edge that leaves a node in a direction.
+   * @param node the node.
+   * @param exit the direction to leave in.
+   * @return the edge, or -1 if the cave has no entrance in that direction.
+   */
+  public int findEdge(int node, Directions exit) {
+    for (int edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+      if (exits[edge] == exit.ordinal()) {
+        return edge;
+      }
+    }
+    return -1;
+  }
+  
+  /**
+   * Get the node an edge leads to.
+   * @param edge the edge.
+   * @return the node at the end of the edge.
+   */
+  public int getTarget(int edge) {
+    return targets[edge];
+  }
+  
+  /**
+   * Get the length of an edge, which is the number of tunnels on it plus one.
+   * @param edge the edge.
+   * @return the number of moves from one end of the edge to the other.
+   */
+  public int getLength(int edge) {
+    return lengths[edge];
+  }
+  
+  /**
+   * Get the direction an edge leaves its cave by.
+   * @param edge the edge.
+   * @return the direction of the first move along the edge.
+   */
+  public Directions getExit(int edge) {
+    return DIRECTIONS[exits[edge]];
+  }
+  
+  /**
+   * Get the direction an edge enters the cave at its end by.
+   * @param edge the edge.
+   * @return the direction of the last move along the edge.
+   */
+  public Directions getEntry(int edge) {
+    return DIRECTIONS[entries[edge]];
+  }
+  
+  //Get the direction to leave a tunnel by, given the direction it was entered from.
+  private static Directions getOtherExit(Cell tunnel, Directions from) {
+    for (Map.Entry<Directions, Cell> entry : tunnel.getNeighbors().entrySet()) {
+      if (entry.getKey() != from) {
+        return entry.getKey();
+      }
+    }
+    throw new IllegalStateException("A tunnel must have two entrances.");
+  }
+}
@@ -0,0 +1,198 @@
+package model;
+
+import java.util.Arrays;
+
+import model.gameobjects.cell.Cell;
+import model.gameobjects.cell.CellTypes;
+import random.RandomGenerator;
+import random.RandomSampler;
+
+/**
+ * This is a package private class that represents an index of the cells in a Dungeon by their
+ * type. The IDs of all the cells are kept in a single array, split into caves, then pits, then
+ * tunnels, along with the position of every cell in that array. The index is built with one pass
+ * over the grid, and a cave that becomes a pit is moved in constant time.
+ *
+ * <p>The placement steps of a game draw random cells from the index without replacement, with a
+ * random sampler over the positions in the index. Drawing k cells takes O(k) time.
+ */
+class CellRegistry {
+  private final Cell[][] grid;
+  private final int cols;
+  private final int[] ids;
+  private final int[] positions;
+  private final RandomSampler sampler;
+  private int caveEnd;
+  private int pitEnd;
+  
+  /**
+   * Constructor for a cell registry of a Dungeon grid. The ID of every cell must be its row times
+   * the number of columns plus its column.
+   * @param grid the Dungeon grid.
+   */
+  CellRegistry(Cell[][] grid) {
+    if (grid == null || grid.length == 0) {
+      throw new IllegalArgumentException("The grid cannot be null or empty.");
+    }
+    this.grid = grid;
+    this.cols = grid[0].length;
+    int size = grid.length * cols;
+    this.ids = new int[size];
+    this.positions = new int[size];
+    this.sampler = new RandomSampler(size);
+    
+    int caves = 0;
+    int pits = 0;
+    for (Cell[] row : grid) {
+      for (Cell cell : row) {
+        if (cell.getType() == CellTypes.CAVE) {
+          caves += 1;
+        } else if (cell.getType() == CellTypes.PIT) {
+          pits += 1;
+        }
+      }
+    }
+    this.caveEnd = caves;
+    this.pitEnd = caves + pits;
+    
+    int nextCave = 0;
+    int nextPit = caveEnd;
+    int nextTunnel = pitEnd;
+    for (Cell[] row : grid) {
+      for (Cell cell : row) {
+        int index;
+        if (cell.getType() == CellTypes.CAVE) {
+          index = nextCave++;
+        } else if (cell.getType() == CellTypes.PIT) {
+          index = nextPit++;
+        } else {
+          index = nextTunnel++;
+        }
+        ids[index] = cell.getID();
+        positions[cell.getID()] = index;
+      }
+    }
+  }
+  
+  /**
+   * Get the number of caves in the Dungeon.
+   * @return the number of caves.
+   */
+  int getCaveCount() {
+    return caveEnd;
+  }
+  
+  /**
+   * Get the number of pits in the Dungeon.
+   * @return the number of pits.
+   */
+  int getPitCount() {
+    return pitEnd - caveEnd;
+  }
+  
+  /**
+   * Get the number of tunnels in the Dungeon.
+   * @return the number of tunnels.
+   */
+  int getTunnelCount() {
+    return ids.length - pitEnd;
+  }
+  
+  /**
+   * Get the number of cells in the Dungeon.
+   * @return the number of cells.
+   */
+  int size() {
+    return ids.length;
+  }
+  
+  /**
+   * Get a cave by its index among the caves.
+   * @param index the index, from 0 to the number of caves minus 1.
+   * @return the cave.
+   */
+  Cell getCave(int index) {
+    if (index < 0 || index >= caveEnd) {
+      throw new IndexOutOfBoundsException("Invalid cave index: " + index);
+    }
+    return getCell(ids[index]);
+  }
+  
+  /**
+   * Turn a cave into a pit, and move it from the caves to the pits in the index.
+   * @param cave the cave that becomes a pit.
+   */
+  void markPit(Cell cave) {
+    int id = cave.getID();
+    if (positions[id] >= caveEnd) {
+      throw new IllegalArgumentException("Only a cave can become a pit.");
+    }
+    cave.setType(CellTypes.PIT);
+    //The last cave takes the place of this one, and this cave becomes the first pit.
+    caveEnd -= 1;
+    swap(positions[id], caveEnd);
+  }
+  
+  /**
+   * Start drawing caves at random, without replacement.
+   * @param excluded the cells that should never be drawn.
+   * @return the number of caves that can be drawn.
+   */
+  int startCaveDraw(Cell... excluded) {
+    return startDraw(caveEnd, excluded);
+  }
+  
+  /**
+   * Start drawing cells of any type at random, without replacement.
+   * @param excluded the cells that should never be drawn.
+   * @return the number of cells that can be drawn.
+   */
+  int startCellDraw(Cell... excluded) {
+    return startDraw(ids.length, excluded);
+  }
+  
+  /**
+   * Get the number of cells left to draw since the last draw was started.
+   * @return the number of cells left.
+   */
+  int getDrawsLeft() {
+    return sampler.getRemaining();
+  }
+  
+  /**
+   * Draw a random cell that has not been drawn since the last draw was started. The cells are
+   * drawn by their position in the index, so no cave should be made a pit until the draw is done.
+   * @param random the random instance to draw with.
+   * @return the drawn cell.
+   */
+  Cell draw(RandomGenerator random) {
+    return getCell(ids[sampler.draw(random)]);
+  }
+  
+  //Start drawing from the first IDs of the index, skipping the excluded cells.
+  private int startDraw(int end, Cell... excluded) {
+    int[] excludedPositions = new int[excluded.length];
+    int count = 0;
+    for (Cell cell : excluded) {
+      if (cell != null) {
+        excludedPositions[count] = positions[cell.getID()];
+        count += 1;
+      }
+    }
+    return sampler.start(end, Arrays.copyOf(excludedPositions, count));
+  }
+  
+  //Swap two entries of the index and update their positions.
+  private void swap(int i, int j) {
+    int id = ids[i];
+    ids[i] = ids[j];
+    ids[j] = id;
+    positions[ids[i]] = i;
+    positions[ids[j]] = j;
+  }
+  
+  //Get the cell in the grid with the given ID.
+  private Cell getCell(int id) {
+    return grid[id / cols][id % cols];
+  }
+}
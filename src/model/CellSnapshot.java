@@ -0,0 +1,178 @@
+package model;
+
+import java.util.List;
+import java.util.Map;
+
+import model.gameobjects.Directions;
+import model.gameobjects.actors.Status;
+import model.gameobjects.cell.Cell;
+import model.gameobjects.cell.CellTypes;
+import model.gameobjects.cell.Smell;
+import model.gameobjects.cell.Treasure;
+
+/**
+ * This class represents the state of one cell of the Dungeon at the time a board snapshot was
+ * taken. A cell snapshot cannot be changed, and it holds no references to the live cells or
+ * actors, so it can be kept and read by a view while the game goes on.
+ */
+public final class CellSnapshot {
+  private final int id;
+  private final int x;
+  private final int y;
+  private final CellTypes type;
+  private final List<Directions> neighbors;
+  private final Map<Treasure, Integer> treasures;
+  private final int arrows;
+  private final Status monsterStatus;
+  private final boolean hasThief;
+  private final boolean hasPlayer;
+  private final boolean isVisited;
+  private final boolean isNextToPit;
+  private final Smell smellLevel;
+  private final int smellUnits;
+  
+  /**
+   * Constructor for a snapshot of the current state of a cell.
+   * @param cell the cell to take the snapshot of.
+   */
+  CellSnapshot(Cell cell) {
+    this.id = cell.getID();
+    this.x = cell.getX();
+    this.y = cell.getY();
+    this.type = cell.getType();
+    this.neighbors = List.copyOf(cell.getNeighbors().keySet());
+    this.treasures = Map.copyOf(cell.getTreasures());
+    this.arrows = cell.getArrows();
+    this.monsterStatus = cell.getMonster() == null ? null : cell.getMonster().getStatus();
+    this.hasThief = cell.hasThief();
+    this.hasPlayer = cell.hasPlayer();
+    this.isVisited = cell.isVisited();
+    this.isNextToPit = cell.isNextToPit();
+    this.smellLevel = cell.getSmellLevel();
+    this.smellUnits = cell.getSmellUnits();
+  }
+  
+  /**
+   * Get the cell ID.
+   * @return the cell ID.
+   */
+  public int getID() {
+    return id;
+  }
+  
+  /**
+   * Get the x coordinate of the cell.
+   * @return x coordinate.
+   */
+  public int getX() {
+    return x;
+  }
+  
+  /**
+   * Get the y coordinate of the cell.
+   * @return y coordinate.
+   */
+  public int getY() {
+    return y;
+  }
+  
+  /**
+   * Get the type of the cell.
+   * @return "Cave", "Tunnel" or "Pit".
+   */
+  public CellTypes getType() {
+    return type;
+  }
+  
+  /**
+   * Get the directions in which the cell has a neighbor.
+   * @return the directions of the neighbors, in the order of the directions.
+   */
+  public List<Directions> getNeighbors() {
+    return neighbors;
+  }
+  
+  /**
+   * Get the treasures in the cell if any.
+   * @return a map of treasure and its quantity.
+   */
+  public Map<Treasure, Integer> getTreasures() {
+    return treasures;
+  }
+  
+  /**
+   * Get the total quantity of treasure in the cell.
+   * @return the sum of the quantities of all the treasures.
+   */
+  public int getTreasureCount() {
+    int count = 0;
+    for (int quantity : treasures.values()) {
+      count += quantity;
+    }
+    return count;
+  }
+  
+  /**
+   * Get the number of arrows contained in the cell.
+   * @return count of arrows.
+   */
+  public int getArrows() {
+    return arrows;
+  }
+  
+  /**
+   * Get the status of the monster in the cell if any.
+   * @return the status of the monster, or null if there is no monster.
+   */
+  public Status getMonsterStatus() {
+    return monsterStatus;
+  }
+  
+  /**
+   * Check if the cell has a thief.
+   * @return true or false.
+   */
+  public boolean hasThief() {
+    return hasThief;
+  }
+  
+  /**
+   * Check if the cell has the player.
+   * @return true or false.
+   */
+  public boolean hasPlayer() {
+    return hasPlayer;
+  }
+  
+  /**
+   * Check if the cell has been visited by the player.
+   * @return true or false.
+   */
+  public boolean isVisited() {
+    return isVisited;
+  }
+  
+  /**
+   * Check if the cell is near a pit.
+   * @return true or false.
+   */
+  public boolean isNextToPit() {
+    return isNextToPit;
+  }
+  
+  /**
+   * Get the smell level in the cell.
+   * @return the smell in the cell.
+   */
+  public Smell getSmellLevel() {
+    return smellLevel;
+  }
+  
+  /**
+   * Get the smell units in the cell.
+   * @return the smell units in the cell.
+   */
+  public int getSmellUnits() {
+    return smellUnits;
+  }
+}
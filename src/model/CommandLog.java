@@ -0,0 +1,337 @@
+package model;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import model.gameobjects.Directions;
+import model.gameobjects.cell.Treasure;
+
+/**
+ * This class represents the record of a seeded game: the settings the game was built with and
+ * every command played in it, in order. Each command is a variable-length opcode followed by its
+ * arguments, every one of them written in 7-bit groups with the high bit set on all but the last
+ * byte, so most commands take two or three bytes. Commands are only ever added at the end.
+ *
+ * <p>A game built from the same settings and seed builds the same Dungeon and rolls the same
+ * random values, so playing the commands again gives the same game. A recorded game also keeps a
+ * keyframe in its log after every KEYFRAME_INTERVAL commands: the captured state of the game at
+ * that turn and the position of the next command. A replay can start from the nearest keyframe
+ * before a turn, so seeking plays fewer commands than the interval however long the session is.
+ *
+ * <p>A log is written as a magic number and a format version, then the settings, then the length
+ * of the commands and the commands themselves, then the keyframes, each as its position and the
+ * length and bytes of its state. A log of the first version has no keyframes.
+ */
+public final class CommandLog {
+  static final int MOVE = 0;
+  static final int SHOOT = 1;
+  static final int PICK_TREASURE = 2;
+  static final int PICK_ARROWS = 3;
+  static final int KEYFRAME_INTERVAL = 1024;
+  private static final int MAGIC = 0x444C4F47;
+  private static final int VERSION = 2;
+  private final int rows;
+  private final int cols;
+  private final int interconnectivity;
+  private final boolean isWrapped;
+  private final int percentOfTreasure;
+  private final int percentOfMonsters;
+  private final int seed;
+  private VarIntBuffer commands;
+  private int count;
+  private final List<Integer> keyframePositions;
+  private final List<byte[]> keyframeStates;
+  
+  /**
+   * Constructor for an empty log of a game.
+   * @param rows Number of rows in the Dungeon.
+   * @param cols Number of columns in the Dungeon.
+   * @param interconnectivity The degree of interconnectivity of the Dungeon.
+   * @param isWrapped Whether the Dungeon is of wrapping type or not.
+   * @param percentOfTreasure The percentage of caves with treasures.
+   * @param percentOfMonsters The percentage of caves with monsters.
+   * @param seed the seed of the random values in the game.
+   */
+  public CommandLog(int rows, int cols, int interconnectivity, boolean isWrapped,
+                    int percentOfTreasure, int percentOfMonsters, int seed) {
+    this.rows = rows;
+    this.cols = cols;
+    this.interconnectivity = interconnectivity;
+    this.isWrapped = isWrapped;
+    this.percentOfTreasure = percentOfTreasure;
+    this.percentOfMonsters = percentOfMonsters;
+    this.seed = seed;
+    this.commands = new VarIntBuffer();
+    this.count = 0;
+    this.keyframePositions = new ArrayList<>();
+    this.keyframeStates = new ArrayList<>();
+  }
+  
+  /**
+   * Get the rows in the Dungeon.
+   * @return number of rows.
+   */
+  public int getRows() {
+    return rows;
+  }
+  
+  /**
+   * Get the columns in the Dungeon.
+   * @return number of columns.
+   */
+  public int getColumns() {
+    return cols;
+  }
+  
+  /**
+   * Get the interconnectivity of the Dungeon.
+   * @return the degree of interconnectivity.
+   */
+  public int getInterconnectivity() {
+    return interconnectivity;
+  }
+  
+  /**
+   * Check if the Dungeon is wrapping.
+   * @return true or false.
+   */
+  public boolean isWrapped() {
+    return isWrapped;
+  }
+  
+  /**
+   * Get the percent of caves in the Dungeon with treasure.
+   * @return percentage.
+   */
+  public int getPercentOfTreasure() {
+    return percentOfTreasure;
+  }
+  
+  /**
+   * Get the percent of caves in the Dungeon with monsters.
+   * @return percentage.
+   */
+  public int getPercentOfMonsters() {
+    return percentOfMonsters;
+  }
+  
+  /**
+   * Get the seed of the random values in the game.
+   * @return the seed.
+   */
+  public int getSeed() {
+    return seed;
+  }
+  
+  /**
+   * Get the number of commands in the log.
+   * @return count of commands.
+   */
+  public int getCommandCount() {
+    return count;
+  }
+  
+  /**
+   * Get the number of bytes the commands take.
+   * @return the length of the commands.
+   */
+  public int getLength() {
+    return commands.length();
+  }
+  
+  /**
+   * Get the number of keyframes kept in the log, which does not count the start of the game.
+   * @return count of keyframes.
+   */
+  public int getKeyframeCount() {
+    return keyframeStates.size();
+  }
+  
+  /**
+   * Get the position of the next command after a keyframe. Keyframe i is at turn (i + 1) times
+   * the keyframe interval.
+   * @param index the index of the keyframe.
+   * @return the position of the first byte of the next command.
+   */
+  int getKeyframePosition(int index) {
+    return keyframePositions.get(index);
+  }
+  
+  /**
+   * Get the captured state of the game at a keyframe.
+   * @param index the index of the keyframe.
+   * @return the state in the form given by Game.captureState().
+   */
+  byte[] getKeyframeState(int index) {
+    return keyframeStates.get(index);
+  }
+  
+  /**
+   * Check if the last command recorded ends a keyframe interval that has no keyframe yet.
+   * @return true or false.
+   */
+  boolean isKeyframeDue() {
+    return count % KEYFRAME_INTERVAL == 0 && count / KEYFRAME_INTERVAL == keyframeStates.size() + 1;
+  }
+  
+  /**
+   * Keep a keyframe at the end of the commands recorded so far.
+   * @param state the state of the game in the form given by Game.captureState().
+   */
+  void addKeyframe(byte[] state) {
+    if (! isKeyframeDue()) {
+      throw new IllegalStateException("A keyframe is not due.");
+    }
+    keyframePositions.add(commands.length());
+    keyframeStates.add(state);
+  }
+  
+  /**
+   * Record a move of the player.
+   * @param direction the direction of the move.
+   */
+  void recordMove(Directions direction) {
+    writeCommand(MOVE);
+    commands.writeInt(direction.ordinal());
+  }
+  
+  /**
+   * Record an arrow shot by the player.
+   * @param direction the direction of the shot.
+   * @param distance the distance of the shot.
+   */
+  void recordShot(Directions direction, int distance) {
+    writeCommand(SHOOT);
+    commands.writeInt(direction.ordinal());
+    commands.writeInt(distance);
+  }
+  
+  /**
+   * Record the player picking up a treasure.
+   * @param treasure the treasure picked up.
+   */
+  void recordTreasure(Treasure treasure) {
+    writeCommand(PICK_TREASURE);
+    commands.writeInt(treasure.ordinal());
+  }
+  
+  /**
+   * Record the player picking up arrows.
+   */
+  void recordArrows() {
+    writeCommand(PICK_ARROWS);
+  }
+  
+  /**
+   * Get a cursor that reads the commands from a position. The cursor sees the commands that were
+   * in the log when it was made.
+   * @param position the position of the first byte of a command.
+   * @return the cursor.
+   */
+  VarIntBuffer.Cursor cursor(int position) {
+    return commands.cursor(position);
+  }
+  
+  /**
+   * Get a copy of the first commands of the log.
+   * @param count the number of commands to copy.
+   * @param length the number of bytes those commands take.
+   * @return the new log, with the same settings.
+   */
+  CommandLog copyOf(int count, int length) {
+    if (count < 0 || count > this.count) {
+      throw new IllegalArgumentException(String.format("Invalid command count: %d", count));
+    }
+    CommandLog copy = new CommandLog(rows, cols, interconnectivity, isWrapped, percentOfTreasure,
+            percentOfMonsters, seed);
+    copy.commands = commands.copyOf(length);
+    copy.count = count;
+    for (int i = 0; i < keyframeStates.size() && (i + 1) * KEYFRAME_INTERVAL <= count; i++) {
+      copy.keyframePositions.add(keyframePositions.get(i));
+      copy.keyframeStates.add(keyframeStates.get(i));
+    }
+    return copy;
+  }
+  
+  /**
+   * Write the log to a stream.
+   * @param stream the stream to write to.
+   * @throws IOException if the stream cannot be written.
+   */
+  public void writeTo(OutputStream stream) throws IOException {
+    DataOutputStream out = new DataOutputStream(stream);
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeInt(rows);
+    out.writeInt(cols);
+    out.writeInt(interconnectivity);
+    out.writeBoolean(isWrapped);
+    out.writeInt(percentOfTreasure);
+    out.writeInt(percentOfMonsters);
+    out.writeInt(seed);
+    out.writeInt(count);
+    out.writeInt(commands.length());
+    out.write(commands.getBytes(), 0, commands.length());
+    out.writeInt(keyframeStates.size());
+    for (int i = 0; i < keyframeStates.size(); i++) {
+      out.writeInt(keyframePositions.get(i));
+      out.writeInt(keyframeStates.get(i).length);
+      out.write(keyframeStates.get(i));
+    }
+    out.flush();
+  }
+  
+  /**
+   * Read a log from a stream.
+   * @param stream the stream to read from.
+   * @return the log.
+   * @throws IOException if the stream cannot be read, or does not hold a log.
+   */
+  public static CommandLog readFrom(InputStream stream) throws IOException {
+    DataInputStream in = new DataInputStream(stream);
+    if (in.readInt() != MAGIC) {
+      throw new IOException("The stream does not hold a command log.");
+    }
+    int version = in.readInt();
+    if (version < 1 || version > VERSION) {
+      throw new IOException(String.format("Unsupported command log version: %d", version));
+    }
+    CommandLog log = new CommandLog(in.readInt(), in.readInt(), in.readInt(), in.readBoolean(),
+            in.readInt(), in.readInt(), in.readInt());
+    log.count = in.readInt();
+    int length = in.readInt();
+    if (log.count < 0 || length < 0) {
+      throw new IOException("The command log is corrupt.");
+    }
+    byte[] bytes = new byte[Math.max(length, 64)];
+    in.readFully(bytes, 0, length);
+    log.commands = new VarIntBuffer(bytes, length);
+    int keyframes = version == 1 ? 0 : in.readInt();
+    if (keyframes < 0 || keyframes > log.count / KEYFRAME_INTERVAL) {
+      throw new IOException("The command log is corrupt.");
+    }
+    for (int i = 0; i < keyframes; i++) {
+      int position = in.readInt();
+      int stateLength = in.readInt();
+      if (position < 0 || position > length || stateLength < 0) {
+        throw new IOException("The command log is corrupt.");
+      }
+      byte[] state = new byte[stateLength];
+      in.readFully(state);
+      log.keyframePositions.add(position);
+      log.keyframeStates.add(state);
+    }
+    return log;
+  }
+  
+  //Start a new command with its opcode.
+  private void writeCommand(int opcode) {
+    commands.writeInt(opcode);
+    count += 1;
+  }
+}
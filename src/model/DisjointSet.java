@@ -0,0 +1,88 @@
+package model;
+
+/**
+ * This is a package private class that represents a disjoint-set forest over the cells of a
+ * Dungeon grid, indexed by the cell ID. It is used by the Dungeon builders to detect cyclic paths
+ * in near constant time, using path compression and union by rank over primitive arrays.
+ */
+class DisjointSet {
+  private final int[] parent;
+  private final byte[] rank;
+  private int numSets;
+  
+  /**
+   * Constructor for a disjoint-set forest where every element starts in its own set.
+   * @param size the number of elements, that is the number of cells in the Dungeon.
+   */
+  DisjointSet(int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("The size of a disjoint set cannot be negative.");
+    }
+    this.parent = new int[size];
+    this.rank = new byte[size];
+    for (int i = 0; i < size; i++) {
+      parent[i] = i;
+    }
+    this.numSets = size;
+  }
+  
+  /**
+   * Get the number of disjoint sets left in the forest.
+   * @return the number of sets.
+   */
+  int getNumSets() {
+    return numSets;
+  }
+  
+  /**
+   * Put every element back in its own set, so that the forest can be reused without allocating new
+   * arrays.
+   */
+  void reset() {
+    for (int i = 0; i < parent.length; i++) {
+      parent[i] = i;
+      rank[i] = 0;
+    }
+    numSets = parent.length;
+  }
+  
+  /**
+   * Find the representative of the set containing an element. The path to the root is halved on
+   * the way up, so that later lookups are faster.
+   * @param id the element to look up.
+   * @return the root element of the set.
+   */
+  int find(int id) {
+    int node = id;
+    while (parent[node] != node) {
+      parent[node] = parent[parent[node]];
+      node = parent[node];
+    }
+    return node;
+  }
+  
+  /**
+   * Merge the sets containing two elements. The root of the shorter tree is attached to the root
+   * of the taller one.
+   * @param id1 the first element.
+   * @param id2 the second element.
+   * @return true if the sets were merged, and false if both elements were already in the same set.
+   */
+  boolean union(int id1, int id2) {
+    int root1 = find(id1);
+    int root2 = find(id2);
+    if (root1 == root2) {
+      return false;
+    }
+    if (rank[root1] < rank[root2]) {
+      parent[root1] = root2;
+    } else if (rank[root1] > rank[root2]) {
+      parent[root2] = root1;
+    } else {
+      parent[root2] = root1;
+      rank[root1] += 1;
+    }
+    numSets -= 1;
+    return true;
+  }
+}
@@ -0,0 +1,101 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import model.gameobjects.Directions;
+import model.gameobjects.cell.Cell;
+
+/**
+ * This is a package private class that represents the distances from one cell of a Dungeon to
+ * every other cell, counted in moves through the built paths. The distances are found with a
+ * breadth-first search, and the buffers are kept so that the field can be computed again from
+ * another cell without allocating. The field also keeps, for every cell, the first move on a
+ * shortest route from the cell back to the source, so a route can be followed one move at a time.
+ */
+class DistanceField {
+  private static final Directions[] DIRECTIONS = Directions.values();
+  private final Cell[][] grid;
+  private final int cols;
+  private final int[] distances;
+  private final byte[] moves;
+  private final int[] queue;
+  private int sourceId;
+  
+  /**
+   * Constructor for a distance field over a Dungeon grid. The ID of every cell must be its row
+   * times the number of columns plus its column.
+   * @param grid the Dungeon grid.
+   */
+  DistanceField(Cell[][] grid) {
+    if (grid == null || grid.length == 0) {
+      throw new IllegalArgumentException("The grid cannot be null or empty.");
+    }
+    this.grid = grid;
+    this.cols = grid[0].length;
+    this.distances = new int[grid.length * cols];
+    this.moves = new byte[grid.length * cols];
+    this.queue = new int[grid.length * cols];
+    this.sourceId = -1;
+  }
+  
+  /**
+   * Compute the distances from a cell to every other cell. Nothing is done if the field was
+   * already computed from this cell.
+   * @param source the cell to measure the distances from.
+   */
+  void compute(Cell source) {
+    if (source.getID() == sourceId) {
+      return;
+    }
+    Arrays.fill(distances, -1);
+    int head = 0;
+    int tail = 0;
+    distances[source.getID()] = 0;
+    moves[source.getID()] = -1;
+    queue[tail++] = source.getID();
+    while (head < tail) {
+      int id = queue[head++];
+      int next = distances[id] + 1;
+      for (Map.Entry<Directions, Cell> entry : getCell(id).getNeighbors().entrySet()) {
+        int neighbor = entry.getValue().getID();
+        if (distances[neighbor] == -1) {
+          distances[neighbor] = next;
+          moves[neighbor] = (byte) entry.getKey().getReverse().ordinal();
+          queue[tail++] = neighbor;
+        }
+      }
+    }
+    sourceId = source.getID();
+  }
+  
+  /**
+   * Get the distance from the source of the field to a cell.
+   * @param cell the cell to get the distance to.
+   * @return the number of moves from the source to the cell, or -1 if it cannot be reached.
+   */
+  int getDistance(Cell cell) {
+    if (sourceId == -1) {
+      throw new IllegalStateException("The distances have not been computed.");
+    }
+    return distances[cell.getID()];
+  }
+  
+  /**
+   * Get the first move on a shortest route from a cell to the source of the field.
+   * @param cell the cell to move from.
+   * @return the direction to move in, or null if the cell is the source or cannot reach it.
+   */
+  Directions getMoveToSource(Cell cell) {
+    if (sourceId == -1) {
+      throw new IllegalStateException("The distances have not been computed.");
+    }
+    int id = cell.getID();
+    return distances[id] > 0 ? DIRECTIONS[moves[id]] : null;
+  }
+  
+  //Get the cell in the grid with the given ID.
+  private Cell getCell(int id) {
+    return grid[id / cols][id % cols];
+  }
+}
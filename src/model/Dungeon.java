@@ -1,13 +1,10 @@
 package model;
 
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
+import java.util.EnumMap;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import model.gameobjects.cell.Cell;
-import model.gameobjects.cell.CellTypes;
+import model.gameobjects.cell.CellStore;
 import model.gameobjects.cell.Location;
 import model.gameobjects.cell.Treasure;
 import random.RandomGenerator;
@@ -20,8 +17,9 @@ import random.RandomGenerator;
  * interconnectivity.
  */
 class Dungeon {
+  static final int PATH_CACHE_SIZE = 1024;
   RandomGenerator random;
-  Location[][] grid;
+  Cell[][] grid;
   boolean isWrapped;
   int rows;
   int columns;
@@ -31,13 +29,20 @@ class Dungeon {
   int percentOfArrows;
   Map<Integer, Integer> startPosition;
   Map<Integer, Integer> endPosition;
+  CellRegistry cellRegistry;
+  CellStore cellStore;
+  HazardMap hazardMap;
+  ArrowRays arrowRays;
+  PathService pathService;
+  BoardSnapshot snapshot;
   
   
   /**
    * Constructor for a Dungeon in the adventure game.
    * @param random The random instance that will be used throughout the program for
    *         assigning random values.
-   * @param grid the Dungeon grid with cells in the dungeon.
+   * @param grid the Dungeon grid with cells in the dungeon. The cells are copied into a cell
+   *         store, and the Dungeon works on the views of the store.
    * @param rows the number of rows in the dungeon.
    * @param cols the number of columns in the dungeon.
    * @param interconnectivity the interconnectivity of the dungeon.
@@ -48,7 +53,8 @@ class Dungeon {
                     int interconnectivity, boolean isWrapped, int percentOfTreasure,
                     int percentOfMonsters) {
     this.random = random;
-    this.grid = grid;
+    this.cellStore = CellStore.copyOf(grid);
+    this.grid = cellStore.getGrid();
     this.rows = rows;
     this.columns = cols;
     this.isWrapped = isWrapped;
@@ -56,6 +62,8 @@ class Dungeon {
     this.percentOfTreasure = percentOfTreasure;
     this.percentOfMonsters = percentOfMonsters;
     this.percentOfArrows = percentOfTreasure;
+    this.cellRegistry = new CellRegistry(this.grid);
+    this.hazardMap = new HazardMap(cellStore);
     
     //Assign treasure to caves;
     setTreasure();
@@ -64,6 +72,33 @@ class Dungeon {
     
   }
   
+  /**
+   * Constructor for a Dungeon over cells that already have their treasure and arrows, like cells
+   * read from a saved game.
+   * @param random The random instance that will be used throughout the program for
+   *         assigning random values.
+   * @param cellStore the store with the cells of the Dungeon, which the Dungeon works on.
+   * @param interconnectivity the interconnectivity of the dungeon.
+   * @param isWrapped the wrapping type of the dungeon (wrapping or non-wrapping).
+   * @param percentOfTreasure Percentage of caves in the Dungeon with treasures.
+   * @param percentOfMonsters Percentage of caves in the Dungeon with monsters.
+   */
+  protected Dungeon(RandomGenerator random, CellStore cellStore, int interconnectivity,
+                    boolean isWrapped, int percentOfTreasure, int percentOfMonsters) {
+    this.random = random;
+    this.cellStore = cellStore;
+    this.grid = cellStore.getGrid();
+    this.rows = cellStore.getRows();
+    this.columns = cellStore.getColumns();
+    this.isWrapped = isWrapped;
+    this.interconnectivity = interconnectivity;
+    this.percentOfTreasure = percentOfTreasure;
+    this.percentOfMonsters = percentOfMonsters;
+    this.percentOfArrows = percentOfTreasure;
+    this.cellRegistry = new CellRegistry(this.grid);
+    this.hazardMap = new HazardMap(cellStore);
+  }
+  
   
   /**
    * Get the interconnectivity of this Dungeon.
@@ -129,6 +164,14 @@ class Dungeon {
     return this.grid;
   }
   
+  /**
+   * Get the index of the cells in the Dungeon by their type.
+   * @return the cell registry.
+   */
+  protected CellRegistry getCellRegistry() {
+    return this.cellRegistry;
+  }
+  
   /**
    * Get the Dungeon grid copy.
    * @return the Dungeon grid copy.
@@ -144,6 +187,66 @@ class Dungeon {
     return gridCopy;
   }
   
+  /**
+   * Get the store that holds the cells of the Dungeon.
+   * @return the cell store.
+   */
+  protected CellStore getCellStore() {
+    return this.cellStore;
+  }
+  
+  /**
+   * Get the hazards in the cells of the Dungeon.
+   * @return the hazard map.
+   */
+  protected HazardMap getHazardMap() {
+    return this.hazardMap;
+  }
+  
+  /**
+   * Get the caves an arrow flies into from every cell in every direction. The table is built the
+   * first time it is needed, and the Dungeon does not change shape afterwards.
+   * @return the arrow rays of the Dungeon.
+   */
+  protected ArrowRays getArrowRays() {
+    if (arrowRays == null) {
+      arrowRays = new ArrowRays(this.grid);
+    }
+    return this.arrowRays;
+  }
+  
+  /**
+   * Get the service that finds the shortest routes between cells of the Dungeon. The service is
+   * made the first time it is needed.
+   * @return the path service of the Dungeon.
+   */
+  protected PathService getPathService() {
+    if (pathService == null) {
+      pathService = new PathService(this.grid, this.isWrapped, PATH_CACHE_SIZE);
+    }
+    return this.pathService;
+  }
+  
+  /**
+   * Get a snapshot of the cells in the Dungeon. The same snapshot is returned until a cell
+   * changes, and a new snapshot only copies the cells that changed.
+   * @return the snapshot of the Dungeon.
+   */
+  protected BoardSnapshot getSnapshot() {
+    if (snapshot == null || snapshot.getVersion() != cellStore.getVersion()) {
+      snapshot = new BoardSnapshot(snapshot, cellStore);
+    }
+    return snapshot;
+  }
+  
+  /**
+   * Record a change to a cell that the cell cannot see, like a monster in the cell being hit.
+   * @param cell the cell that changed.
+   */
+  protected void markChanged(Cell cell) {
+    cellStore.markChanged(cell.getID());
+  }
+  
   /**
    * Get the cell at a location in Dungeon grid.
    * @param x the x coordinate.
@@ -157,21 +260,17 @@ class Dungeon {
   
   //Set treasure to caves in the dungeon.
   private void setTreasure() {
-    int treasureInt = 0;
-    
-    //Get all the caves
-    List<Cell> caveCells = Arrays.stream(grid).flatMap(Arrays::stream)
-            .filter(s -> s.getType().equals(CellTypes.CAVE)).collect(Collectors.toList());
+    //Draw from all the caves
+    int numCaves = cellRegistry.startCaveDraw();
     
     //get the number of caves to assign treasure
     if (this.percentOfTreasure != 0) {
-      int numCavesWithTreasure = (int) Math.ceil((caveCells.size() * this.percentOfTreasure) / 100);
+      int numCavesWithTreasure = (int) Math.ceil((numCaves * this.percentOfTreasure) / 100);
       
-      //Assign treasure to random caves
+      //Assign treasure to random caves. The cells copy the map, so one map is used for all.
+      Map<Treasure, Integer> treasures = new EnumMap<>(Treasure.class);
       for (int i = 0; i < numCavesWithTreasure; i++) {
-        int randomIndex = random.getRandomInt(0, caveCells.size() - 1);
-        Cell cave = caveCells.get(randomIndex);
-        Map<Treasure, Integer> treasures = new HashMap<>();
+        Cell cave = cellRegistry.draw(random);
         
         //assign random amount of treasure.
         for (Treasure t : Treasure.values()) {
@@ -180,28 +279,25 @@ class Dungeon {
           treasures.put(t, quantity); //Add the treasure and a random quantity;
         }
         cave.setTreasure(treasures);
-        caveCells.remove(cave);
       }
     }
   }
   
   //Set arrows in random cave and tunnel cells in the dungeon.
   private void setArrows() {
-    //Get all the cells including tunnels
-    List<Cell> cells = Arrays.stream(grid).flatMap(Arrays::stream).collect(Collectors.toList());
+    //Draw from all the cells including tunnels
+    int numAllCells = cellRegistry.startCellDraw();
     //get the number of cells to assign the arrows.
     if (this.percentOfArrows != 0) {
-      int numCells = (int) Math.ceil((cells.size() * this.percentOfArrows) / 100);
+      int numCells = (int) Math.ceil((numAllCells * this.percentOfArrows) / 100);
       
       //Assign arrows to random caves and tunnels
       for (int i = 0; i < numCells; i++) {
-        int randomIndex = random.getRandomInt(0, cells.size() - 1);
-        Cell cell = cells.get(randomIndex);
+        Cell cell = cellRegistry.draw(random);
         
         //assign random amount number of arrows.
         int quantity = random.getRandomInt(1, 5);
         cell.setArrows(quantity);
-        cells.remove(cell);
       }
     }
   }
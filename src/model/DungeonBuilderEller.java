@@ -0,0 +1,305 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import model.gameobjects.cell.Location;
+import random.RandomGenerator;
+
+/**
+ * This class represents a builder for a dungeon in an adventure game that generates the dungeon
+ * one row at a time, using Eller's algorithm. Only the sets of the cells in the current row are
+ * kept while generating, so the memory needed does not grow with the number of rows, and the rows
+ * can be streamed to any topology sink, such as a grid in memory or a file.
+ *
+ * <p>Like the modified kruskal algorithm, the paths first form a spanning tree, and then as many
+ * of the left over paths as the degree of interconnectivity are added. The left over paths are
+ * picked while streaming, by selection sampling, so that every left over path has the same chance
+ * of being picked without keeping them in a list.
+ */
+public class DungeonBuilderEller implements ModifiedKruskal {
+  private final RandomGenerator random;
+  private final int rows;
+  private final int cols;
+  private final int interconnectivity;
+  private final boolean isWrapping;
+  private final int percentOfTreasure;
+  private final int percentOfMonster;
+  private int extrasLeft;
+  private int extrasNeeded;
+  private Location[][] grid;
+  
+  /**
+   * The constructor for a row by row dungeon builder.
+   * @param rows the number of rows.
+   * @param cols the number of columns.
+   * @param interconnectivity the degree of interconnectivity.
+   * @param isWrapping If the dungeon is of wrapping or non-wrapping type.
+   * @param random the random instance to be used to make random assignments throughout the
+   *         program.
+   * @param percentOfTreasure the percent of caves to have the treasure.
+   * @param percentOfMonster the percent of caves to have monsters.
+   */
+  public DungeonBuilderEller(int rows, int cols, int interconnectivity, boolean isWrapping,
+                             RandomGenerator random, int percentOfTreasure,
+                             int percentOfMonster) {
+    DungeonBuilderKruskal.validateGameInputs(rows, cols, interconnectivity, isWrapping,
+            percentOfTreasure, percentOfMonster);
+    if (random == null) {
+      throw new IllegalArgumentException("The random instance cannot be null.");
+    }
+    this.random = random;
+    this.rows = rows;
+    this.cols = cols;
+    this.interconnectivity = interconnectivity;
+    this.isWrapping = isWrapping;
+    this.percentOfTreasure = percentOfTreasure;
+    this.percentOfMonster = percentOfMonster;
+  }
+  
+  /**
+   * Builds a dungeon in memory, one row at a time. The dungeon network of caves and tunnels is
+   * built randomly.
+   * @return a dungeon with cells of cave and tunnel types after populating the treasure.
+   */
+  @Override
+  public Dungeon buildDungeon() {
+    GridTopologySink sink = new GridTopologySink();
+    generate(sink);
+    grid = sink.getGrid();
+    return new Dungeon(random, grid, rows, cols, interconnectivity, isWrapping, percentOfTreasure,
+            percentOfMonster);
+  }
+  
+  /**
+   * Generate the paths of the dungeon one row at a time, and give each row to a sink as soon as it
+   * is done. The sink is started before the first row and finished after the last one.
+   * @param sink the sink to write the rows to.
+   * @throws IllegalArgumentException if the sink is null, or if there are not enough paths left to
+   *         meet the interconnectivity.
+   */
+  public void generate(TopologySink sink) {
+    if (sink == null) {
+      throw new IllegalArgumentException("The topology sink cannot be null.");
+    }
+    long potentialPaths = countPotentialPaths();
+    if (potentialPaths >= Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Invalid rows or columns. The Dungeon has too many paths.");
+    }
+    extrasLeft = (int) (potentialPaths - ((long) rows * cols - 1));
+    extrasNeeded = interconnectivity;
+    if (extrasNeeded > extrasLeft) {
+      throw new IllegalArgumentException("Invalid degree of interconnectivity. There are not enough"
+              + " paths left to add to this Dungeon.");
+    }
+    
+    int[] sets = new int[cols];
+    int[] nextSets = new int[cols];
+    int[] counts = new int[cols];
+    int[] picks = new int[cols];
+    byte[] exits = new byte[cols];
+    DisjointSet rowSets = new DisjointSet(cols);
+    for (int c = 0; c < cols; c++) {
+      sets[c] = c;
+    }
+    
+    sink.start(rows, cols, isWrapping);
+    for (int r = 0; r < rows; r++) {
+      boolean lastRow = r == rows - 1;
+      Arrays.fill(exits, (byte) 0);
+      rowSets.reset();
+      joinRow(sets, exits, rowSets, lastRow);
+      if (! lastRow) {
+        carveDown(sets, exits, rowSets, counts, picks);
+        labelNextRow(sets, nextSets, exits, rowSets, picks);
+        for (int c = 0; c < cols; c++) {
+          if ((exits[c] & TopologySink.SOUTH_EXIT) == 0) {
+            pickExtraPath(exits, c, TopologySink.SOUTH_EXIT);
+          }
+        }
+        int[] temp = sets;
+        sets = nextSets;
+        nextSets = temp;
+      } else if (isWrapping && rows > 1) {
+        //The paths from the last row wrap down to the first row, and are never in the tree.
+        for (int c = 0; c < cols; c++) {
+          pickExtraPath(exits, c, TopologySink.SOUTH_EXIT);
+        }
+      }
+      sink.acceptRow(r, exits);
+    }
+    sink.finish();
+  }
+  
+  //Join neighboring cells of a row that are in different sets. In the last row all of them are
+  // joined, so that the Dungeon ends up as a single set.
+  private void joinRow(int[] sets, byte[] exits, DisjointSet rowSets, boolean lastRow) {
+    int lastEdge = isWrapping && cols > 1 ? cols : cols - 1;
+    for (int c = 0; c < lastEdge; c++) {
+      int next = (c + 1) % cols;
+      if (rowSets.find(sets[c]) != rowSets.find(sets[next])
+              && (lastRow || random.getRandomInt(0, 1) == 0)) {
+        rowSets.union(sets[c], sets[next]);
+        exits[c] |= TopologySink.EAST_EXIT;
+      } else {
+        pickExtraPath(exits, c, TopologySink.EAST_EXIT);
+      }
+    }
+  }
+  
+  //Randomly build paths down to the next row, with at least one path for every set in the row.
+  private void carveDown(int[] sets, byte[] exits, DisjointSet rowSets, int[] counts,
+                         int[] picks) {
+    Arrays.fill(counts, 0);
+    Arrays.fill(picks, -1);
+    for (int c = 0; c < cols; c++) {
+      counts[rowSets.find(sets[c])] += 1;
+    }
+    for (int c = 0; c < cols; c++) {
+      if (random.getRandomInt(0, 1) == 0) {
+        exits[c] |= TopologySink.SOUTH_EXIT;
+        picks[rowSets.find(sets[c])] = -2;
+      }
+    }
+    //A set with no path down yet gets one from a random cell in the set. The pick counts down as
+    // the cells of the set are passed.
+    for (int c = 0; c < cols; c++) {
+      int root = rowSets.find(sets[c]);
+      if (picks[root] == -1) {
+        picks[root] = random.getRandomInt(0, counts[root] - 1);
+      }
+      if (picks[root] == 0) {
+        exits[c] |= TopologySink.SOUTH_EXIT;
+        picks[root] = -2;
+      } else if (picks[root] > 0) {
+        picks[root] -= 1;
+      }
+    }
+  }
+  
+  //Give the cells of the next row their sets. A cell below a path down stays in the set of the
+  // cell above it, and every other cell starts a new set. The sets are renumbered from 0, so that
+  // they always fit in an array as wide as the row.
+  private void labelNextRow(int[] sets, int[] nextSets, byte[] exits, DisjointSet rowSets,
+                            int[] labels) {
+    Arrays.fill(labels, -1);
+    int nextLabel = 0;
+    for (int c = 0; c < cols; c++) {
+      if ((exits[c] & TopologySink.SOUTH_EXIT) != 0) {
+        int root = rowSets.find(sets[c]);
+        if (labels[root] == -1) {
+          labels[root] = nextLabel;
+          nextLabel += 1;
+        }
+        nextSets[c] = labels[root];
+      }
+    }
+    for (int c = 0; c < cols; c++) {
+      if ((exits[c] & TopologySink.SOUTH_EXIT) == 0) {
+        nextSets[c] = nextLabel;
+        nextLabel += 1;
+      }
+    }
+  }
+  
+  //Decide if a path that is not in the spanning tree is built for interconnectivity. Each of the
+  // left over paths is picked with the chance of the paths still needed over the paths left.
+  private void pickExtraPath(byte[] exits, int col, int exit) {
+    if (extrasNeeded > 0 && random.getRandomInt(1, extrasLeft) <= extrasNeeded) {
+      exits[col] |= exit;
+      extrasNeeded -= 1;
+    }
+    extrasLeft -= 1;
+  }
+  
+  //Count the paths that could be built in the Dungeon. A path that would wrap around to the same
+  // cell is not counted.
+  private long countPotentialPaths() {
+    long cells = (long) rows * cols;
+    if (isWrapping) {
+      return (cols > 1 ? cells : 0) + (rows > 1 ? cells : 0);
+    }
+    return (long) rows * (cols - 1) + (long) (rows - 1) * cols;
+  }
+  
+  /**
+   * Get the list of potential paths used to build the Dungeon. The rows are generated without
+   * keeping a list of paths, so there are no potential paths left to pick from.
+   * @return an empty list.
+   */
+  @Override
+  public List<Set<Location>> getPotentialPaths() {
+    return new ArrayList<>();
+  }
+  
+  /**
+   * Get the paths that were built in the Dungeon. The paths are read from the grid on demand, so
+   * the list is empty until the Dungeon has been built in memory.
+   * @return the list of set of cell nodes representing an edge.
+   */
+  @Override
+  public List<Set<Location>> getFinalPaths() {
+    return toPaths(true);
+  }
+  
+  /**
+   * Get the list of sets of cells used to build the dungeon. Once the Dungeon is built, all its
+   * cells are in one set.
+   * @return the list of sets of cell nodes.
+   */
+  @Override
+  public List<Set<Location>> getSelectedPaths() {
+    List<Set<Location>> sets = new ArrayList<>();
+    if (grid != null) {
+      Set<Location> cells = new HashSet<>();
+      for (Location[] row : grid) {
+        cells.addAll(Arrays.asList(row));
+      }
+      sets.add(cells);
+    }
+    return sets;
+  }
+  
+  /**
+   * Get the paths that were not built in the Dungeon. The paths are read from the grid on demand,
+   * so the list is empty until the Dungeon has been built in memory.
+   * @return the list of set of cell nodes representing the discarded paths.
+   */
+  @Override
+  public List<Set<Location>> getDiscardedPaths() {
+    return toPaths(false);
+  }
+  
+  /**
+   * Get the Dungeon grid.
+   * @return The grid with cells used to build a new Dungeon object for the game, or null if the
+   *         Dungeon has not been built in memory.
+   */
+  @Override
+  public Location[][] getGrid() {
+    return grid;
+  }
+  
+  //Read the built or not built paths to the east and south of every cell from the grid.
+  private List<Set<Location>> toPaths(boolean built) {
+    List<Set<Location>> paths = new ArrayList<>();
+    if (grid == null) {
+      return paths;
+    }
+    for (int r = 0; r < rows; r++) {
+      for (int c = 0; c < cols; c++) {
+        Location cell = grid[r][c];
+        if ((c < cols - 1 || isWrapping && cols > 1) && (cell.getE() == 1) == built) {
+          paths.add(Set.of(cell, grid[r][(c + 1) % cols]));
+        }
+        if ((r < rows - 1 || isWrapping && rows > 1) && (cell.getS() == 1) == built) {
+          paths.add(Set.of(cell, grid[(r + 1) % rows][c]));
+        }
+      }
+    }
+    return paths;
+  }
+}
@@ -2,10 +2,10 @@ package model;
 
 import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import model.gameobjects.Directions;
 import model.gameobjects.cell.Location;
@@ -19,15 +19,16 @@ import random.RandomGenerator;
 public class DungeonBuilderKruskal implements ModifiedKruskal {
   private final RandomGenerator random;
   private final int interconnectivity;
-  private final List<Set<Location>> potentialPaths;
-  private final List<Set<Location>> discardedPaths;
-  private final List<Set<Location>> finalPaths;
+  private final EdgeList potentialPaths;
+  private final EdgeList discardedPaths;
+  private final EdgeList finalPaths;
   private final int percentOfTreasure;
   private final int percentOfMonster;
+  private final EdgeOrdering ordering;
   int rows;
   int cols;
   boolean isWrapping;
-  private List<Set<Location>> selectedPaths;
+  private DisjointSet selectedPaths;
   private Location[][] grid;
   
   /**
@@ -43,20 +44,42 @@ public class DungeonBuilderKruskal implements ModifiedKruskal {
   public DungeonBuilderKruskal(int rows, int cols, int interconnectivity, boolean isWrapping,
                                RandomGenerator random, int percentOfTreasure,
                                int percentOfMonster) {
+    this(rows, cols, interconnectivity, isWrapping, random, percentOfTreasure, percentOfMonster,
+            EdgeOrdering.RANDOM_PICK);
+  }
+  
+  /**
+   * The constructor for a dungeon builder with a chosen order of going through the paths.
+   * @param rows the number of rows.
+   * @param cols the number of columns.
+   * @param interconnectivity the degree of interconnectivity.
+   * @param isWrapping If the dungeon is of wrapping or non-wrapping type.
+   * @param random the random instance to be used to make random assignments throughout the
+   *         program.
+   * @param percentOfTreasure the percent of caves to have the treasure.
+   * @param percentOfMonster the percent of caves to have monsters.
+   * @param ordering the order in which the potential paths are picked.
+   */
+  public DungeonBuilderKruskal(int rows, int cols, int interconnectivity, boolean isWrapping,
+                               RandomGenerator random, int percentOfTreasure,
+                               int percentOfMonster, EdgeOrdering ordering) {
     validateGameInputs(rows, cols, interconnectivity, isWrapping, percentOfTreasure,
             percentOfMonster);
+    if (ordering == null) {
+      throw new IllegalArgumentException("The order of picking paths cannot be null.");
+    }
     
     this.random = random;
     this.rows = rows;
     this.cols = cols;
     this.isWrapping = isWrapping;
     this.interconnectivity = interconnectivity;
-    this.potentialPaths = new ArrayList<>();
-    this.selectedPaths = new ArrayList<>();
-    this.discardedPaths = new ArrayList<>();
-    this.finalPaths = new ArrayList<>();
+    this.potentialPaths = new EdgeList(2 * rows * cols);
+    this.discardedPaths = new EdgeList(rows * cols + 1);
+    this.finalPaths = new EdgeList(rows * cols + interconnectivity);
     this.percentOfTreasure = percentOfTreasure;
     this.percentOfMonster = percentOfMonster;
+    this.ordering = ordering;
     setGrid();
     setPotentialPaths();
     setSelectedPath();
@@ -69,49 +92,78 @@ public class DungeonBuilderKruskal implements ModifiedKruskal {
    */
   @Override
   public Dungeon buildDungeon() {
-    //selectedPaths = potentialPaths.stream()
+    if (ordering == EdgeOrdering.SHUFFLE_ONCE) {
+      selectShuffledPaths();
+    } else {
+      selectRandomPaths();
+    }
     
+    updateNeighbors(); //build paths for final list of paths.
+    return new Dungeon(random, grid, rows, cols, interconnectivity, isWrapping, percentOfTreasure,
+            percentOfMonster);
+  }
+  
+  //Pick and remove one random path at a time.
+  private void selectRandomPaths() {
     //First select paths assuming interconnectivity = 0.
-    while (potentialPaths.size() > 0) {
-      Set<Location> randomEdge = pickRandomPath(potentialPaths); //Pick a random edge of two cells
+    while (! potentialPaths.isEmpty()) {
+      int randomEdge = potentialPaths.removeRandom(random); //Pick a random edge of two cells
       boolean cyclicPath = isPathCyclic(randomEdge); //Check if the path will become cyclic
       
       //Path is cyclic
       if (cyclicPath) {
         discardedPaths.add(randomEdge);
-        
-        potentialPaths.remove(randomEdge);
       }
       
       //Path not cyclic
       else {
         finalPaths.add(randomEdge);
-        potentialPaths.remove(randomEdge);
       }
     }
     // For higher interconnectivity
-    if (interconnectivity > 0) {
-      //Pick a random path until desired interconnectivity is reached.
-      for (int i = 0; i < interconnectivity; i++) {
-        Set<Location> randomEdge = pickRandomPath(discardedPaths); //Pick a random edge of two cells
-        finalPaths.add(randomEdge);
-        discardedPaths.remove(randomEdge);
-        
+    checkInterconnectivity();
+    //Pick a random path until desired interconnectivity is reached.
+    for (int i = 0; i < interconnectivity; i++) {
+      finalPaths.add(discardedPaths.removeRandom(random)); //Pick a random edge of two cells
+    }
+  }
+  
+  //Shuffle the paths once, then go through them in order.
+  private void selectShuffledPaths() {
+    potentialPaths.shuffle(random);
+    for (int i = 0; i < potentialPaths.size(); i++) {
+      int edge = potentialPaths.get(i);
+      if (isPathCyclic(edge)) {
+        discardedPaths.add(edge);
+      } else {
+        finalPaths.add(edge);
       }
     }
-    
-    updateNeighbors(); //build paths for final list of paths.
-    return new Dungeon(random, grid, rows, cols, interconnectivity, isWrapping, percentOfTreasure,
-            percentOfMonster);
+    potentialPaths.clear();
+    // The discarded paths are already in a random order, so the extra paths for
+    // interconnectivity are taken from the end of the list.
+    checkInterconnectivity();
+    for (int i = 0; i < interconnectivity; i++) {
+      finalPaths.add(discardedPaths.removeLast());
+    }
+  }
+  
+  //Check that there are enough discarded paths to meet the interconnectivity.
+  private void checkInterconnectivity() {
+    if (interconnectivity > discardedPaths.size()) {
+      throw new IllegalArgumentException("Invalid degree of interconnectivity. There are not enough"
+              + " paths left to add to this Dungeon.");
+    }
   }
   
   /**
-   * Get the list of potential paths used to build the Dungeon.
+   * Get the list of potential paths used to build the Dungeon. The list is built from the edges
+   * left to pick from, on demand.
    * @return The list of sets of cells, where each set represents an edge.
    */
   @Override
   public List<Set<Location>> getPotentialPaths() {
-    return potentialPaths;
+    return toPaths(potentialPaths);
   }
   
   /**
@@ -120,16 +172,24 @@ public class DungeonBuilderKruskal implements ModifiedKruskal {
    */
   @Override
   public List<Set<Location>> getFinalPaths() {
-    return finalPaths;
+    return toPaths(finalPaths);
   }
   
   /**
-   * Get the list of sets of cells used to build the dungeon.
+   * Get the list of sets of cells used to build the dungeon. The sets are derived from the
+   * disjoint-set forest on demand, so each call returns a new list.
    * @return the list of sets of cell nodes.
    */
   @Override
   public List<Set<Location>> getSelectedPaths() {
-    return selectedPaths;
+    Map<Integer, Set<Location>> sets = new LinkedHashMap<>();
+    for (Location[] row : grid) {
+      for (Location cell : row) {
+        int root = selectedPaths.find(cell.getID());
+        sets.computeIfAbsent(root, k -> new HashSet<>()).add(cell);
+      }
+    }
+    return new ArrayList<>(sets.values());
   }
   
   /**
@@ -138,7 +198,7 @@ public class DungeonBuilderKruskal implements ModifiedKruskal {
    */
   @Override
   public List<Set<Location>> getDiscardedPaths() {
-    return discardedPaths;
+    return toPaths(discardedPaths);
   }
   
   /**
@@ -151,28 +211,46 @@ public class DungeonBuilderKruskal implements ModifiedKruskal {
   }
   
   
+  //Start with every cell in its own set. Cells are indexed by their ID in the grid.
   private void setSelectedPath() {
-    List<Set<Location>> finalList = new ArrayList<>();
-    for (Set<Location> edge : this.potentialPaths) {
-      Iterator<Location> iter = edge.iterator();
-      Location thisCell = iter.next();
-      Location otherCell = iter.next();
-      finalList.add(Set.of(thisCell));
-      finalList.add(Set.of(otherCell));
-    }
-    selectedPaths = finalList.stream().distinct().collect(Collectors.toList());
+    selectedPaths = new DisjointSet(rows * cols);
   }
   
+  //Build the paths in the grid for the final list of paths.
   private void updateNeighbors() {
-    for (Set<Location> path : this.discardedPaths) {
-      Iterator<Location> iter = path.iterator();
-      Location thisCell = iter.next();
-      Location otherCell = iter.next();
-      //Destroy the existing path for discarded edge
-      updatePath(thisCell, otherCell, 0, "remove");
+    for (int i = 0; i < finalPaths.size(); i++) {
+      int edge = finalPaths.get(i);
+      Location thisCell = getCell(EdgeList.anchor(edge));
+      Location otherCell = getCell(EdgeList.other(edge, rows, cols));
+      if (EdgeList.isHorizontal(edge)) {
+        thisCell.setE(1);
+        thisCell.setNeighbors(Directions.EAST, otherCell, "add");
+        otherCell.setW(1);
+        otherCell.setNeighbors(Directions.WEST, thisCell, "add");
+      } else {
+        thisCell.setS(1);
+        thisCell.setNeighbors(Directions.SOUTH, otherCell, "add");
+        otherCell.setN(1);
+        otherCell.setNeighbors(Directions.NORTH, thisCell, "add");
+      }
     }
   }
   
+  //Materialize a list of packed edges as sets of two cells.
+  private List<Set<Location>> toPaths(EdgeList edges) {
+    List<Set<Location>> paths = new ArrayList<>(edges.size());
+    for (int i = 0; i < edges.size(); i++) {
+      int edge = edges.get(i);
+      paths.add(Set.of(getCell(EdgeList.anchor(edge)), getCell(EdgeList.other(edge, rows, cols))));
+    }
+    return paths;
+  }
+  
+  //Get the cell in the grid with the given ID.
+  private Location getCell(int id) {
+    return grid[id / cols][id % cols];
+  }
+  
   //Add a 2D grid of cells.
   private void setGrid() {
     Location[][] grid = new Location[rows][cols];
@@ -188,97 +266,19 @@ public class DungeonBuilderKruskal implements ModifiedKruskal {
     this.grid = grid;
   }
   
-  //Add a set of cells to potential paths list based on their indices in the grid.
+  //Add an edge to potential paths list based on the indices of its first cell in the grid. An
+  // edge that would wrap around to the same cell is not a path, and is skipped.
   private void addPotentialPath(int x1, int y1, int x2, int y2, String edgeType) {
-    Set<Location> edge = Set.of(grid[x1][y1], grid[x2][y2]);
-    potentialPaths.add(edge);
-    if (edgeType.equals("vertical")) {
-      grid[x1][y1].setS(1);
-      grid[x1][y1].setNeighbors(Directions.SOUTH, grid[x2][y2], "add");
-      
-      grid[x2][y2].setN(1);
-      grid[x2][y2].setNeighbors(Directions.NORTH, grid[x1][y1], "add");
-    } else if (edgeType.equals("horizontal")) {
-      grid[x1][y1].setE(1);
-      grid[x1][y1].setNeighbors(Directions.EAST, grid[x2][y2], "add");
-      grid[x2][y2].setW(1);
-      grid[x2][y2].setNeighbors(Directions.WEST, grid[x1][y1], "add");
+    if (x1 == x2 && y1 == y2) {
+      return;
     }
+    potentialPaths.add(EdgeList.encode(grid[x1][y1].getID(), edgeType.equals("horizontal")));
   }
   
-  private Set<Location> pickRandomPath(List<Set<Location>> paths) {
-    int randomIndex = random.getRandomInt(0, paths.size() - 1);
-    //Check what happens for lower bound and upper bound = 0;
-    return paths.get(randomIndex);
-  }
-  
-  private boolean isPathCyclic(Set<Location> path) {
-    Iterator<Location> iter = path.iterator();
-    Location cell1 = iter.next();
-    Location cell2 = iter.next();
-    
-    //Check if both the nodes in this path have another edge on the selected path list.
-    //Logic used to check for cyclic path: If both the nodes are present in the list, they will
-    // create a cyclic and should be included in a discarded set.
-    boolean matchNode1 = selectedPaths.stream().anyMatch(s -> s.containsAll(List.of(cell1, cell2)));
-    //boolean matchNode2 = selectedPaths.stream().anyMatch(s -> s.contains(cell2));
-    
-    if (! matchNode1) {
-      //System.out.println("path not cyclic");
-      Set<Location> set1 =
-              selectedPaths.stream().filter(s -> s.contains(cell1)).findFirst().orElse(null);
-      Set<Location> set2 =
-              selectedPaths.stream().filter(s -> s.contains(cell2)).findFirst().orElse(null);
-      
-      selectedPaths.remove(set1);
-      selectedPaths.remove(set2);
-      
-      Set<Location> mergedSet = new HashSet<>();
-      mergedSet.addAll(set1);
-      mergedSet.addAll(set2);
-      selectedPaths.add(mergedSet);
-    }
-    
-    return matchNode1;
-    //return matchNode1 && matchNode2;
-  }
-  
-  //Update the path when an edge is discarded
-  private void updatePath(Location thisCell, Location otherCell, int value, String action) {
-    // if the path is to be added, value is 1;
-    // if the path is to be removed, value is 0;
-    Location left = null;
-    Location right = null;
-    //if this cell is above or to the left of the other cell.
-    if (thisCell.getX() < otherCell.getX() || thisCell.getY() < otherCell.getY()) {
-      //if this cell is wrapped neighbor to the other cell
-      left = thisCell;
-      right = otherCell;
-    } else if ((otherCell.getX() < thisCell.getX() || otherCell.getY() < thisCell.getY())) {
-      left = otherCell;
-      right = thisCell;
-    }
-    if ((Math.abs(left.getX() - right.getX()) > 1) || (Math.abs(left.getY() - left.getY()) > 1)) {
-      //If wrapping neighbors.
-      Location temp = right;
-      right = left;
-      left = temp;
-    }
-    
-    //If horizontal edge
-    if (left.getX() == right.getX()) {
-      left.setE(value);
-      right.setW(value);
-      left.setNeighbors(Directions.EAST, right, action);
-      right.setNeighbors(Directions.WEST, left, action);
-    }
-    //If vertical edge
-    else if (left.getY() == right.getY()) {
-      left.setS(value);
-      right.setN(value);
-      left.setNeighbors(Directions.SOUTH, right, action);
-      right.setNeighbors(Directions.NORTH, right, action);
-    }
+  private boolean isPathCyclic(int path) {
+    //If both the nodes are already in the same set, the path will create a cycle and should be
+    // included in a discarded set. Otherwise the two sets are merged.
+    return ! selectedPaths.union(EdgeList.anchor(path), EdgeList.other(path, rows, cols));
   }
   
   /**
@@ -362,9 +362,19 @@ public class DungeonBuilderKruskal implements ModifiedKruskal {
     
   }
   
-  //Validate all the inputs provided.
-  private void validateGameInputs(int rows, int cols, int interconnectivity, boolean isWrapped,
-                                  int percentOfTreasure, int percentOfMonster)
+  /**
+   * Validate all the inputs provided. This is shared by the Dungeon builders, so that they all
+   * accept the same Dungeons.
+   * @param rows the number of rows.
+   * @param cols the number of columns.
+   * @param interconnectivity the degree of interconnectivity.
+   * @param isWrapped If the dungeon is of wrapping or non-wrapping type.
+   * @param percentOfTreasure the percent of caves to have the treasure.
+   * @param percentOfMonster the percent of caves to have monsters.
+   * @throws IllegalArgumentException if any of the inputs is invalid.
+   */
+  static void validateGameInputs(int rows, int cols, int interconnectivity, boolean isWrapped,
+                                 int percentOfTreasure, int percentOfMonster)
           throws IllegalArgumentException {
     if (rows < 1 || cols < 1) {
       throw new IllegalArgumentException("Rows and columns cannot be 0 or negative.");
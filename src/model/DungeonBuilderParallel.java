@@ -0,0 +1,382 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import model.gameobjects.Directions;
+import model.gameobjects.cell.Location;
+import random.RandomGenerator;
+import random.TrueRandomGenerator;
+
+/**
+ * This class represents a builder for a dungeon in an adventure game that builds the spanning tree
+ * in parallel. The grid is split into square tiles, and the modified kruskal algorithm is run on
+ * the paths inside each tile as a separate task on a fork join pool. The tiles are then joined
+ * into a single spanning tree by the paths that cross the tile borders, and the paths for the
+ * interconnectivity are added from all the discarded paths.
+ *
+ * <p>Every tile gets its own random instance, seeded from the tile index and a seed drawn from the
+ * random instance of the builder. Together with joining the tiles in a fixed order, this makes
+ * the built Dungeon the same for the same seed, no matter how many threads the pool has.
+ */
+public class DungeonBuilderParallel implements ModifiedKruskal {
+  /**
+   * The default width and height of a tile, in cells.
+   */
+  public static final int DEFAULT_TILE_SIZE = 64;
+  
+  private final RandomGenerator random;
+  private final int rows;
+  private final int cols;
+  private final int interconnectivity;
+  private final boolean isWrapping;
+  private final int percentOfTreasure;
+  private final int percentOfMonster;
+  private final int tileSize;
+  private final int tileRows;
+  private final int tileCols;
+  private final ForkJoinPool pool;
+  private EdgeList[] tileFinalPaths;
+  private EdgeList[] tileDiscardedPaths;
+  private int[] components;
+  private EdgeList finalPaths;
+  private EdgeList discardedPaths;
+  private DisjointSet selectedPaths;
+  private Location[][] grid;
+  
+  /**
+   * The constructor for a parallel dungeon builder, with the default tile size and the common
+   * fork join pool.
+   * @param rows the number of rows.
+   * @param cols the number of columns.
+   * @param interconnectivity the degree of interconnectivity.
+   * @param isWrapping If the dungeon is of wrapping or non-wrapping type.
+   * @param random the random instance to be used to make random assignments throughout the
+   *         program.
+   * @param percentOfTreasure the percent of caves to have the treasure.
+   * @param percentOfMonster the percent of caves to have monsters.
+   */
+  public DungeonBuilderParallel(int rows, int cols, int interconnectivity, boolean isWrapping,
+                                RandomGenerator random, int percentOfTreasure,
+                                int percentOfMonster) {
+    this(rows, cols, interconnectivity, isWrapping, random, percentOfTreasure, percentOfMonster,
+            DEFAULT_TILE_SIZE, ForkJoinPool.commonPool());
+  }
+  
+  /**
+   * The constructor for a parallel dungeon builder with a chosen tile size and pool.
+   * @param rows the number of rows.
+   * @param cols the number of columns.
+   * @param interconnectivity the degree of interconnectivity.
+   * @param isWrapping If the dungeon is of wrapping or non-wrapping type.
+   * @param random the random instance to be used to make random assignments throughout the
+   *         program.
+   * @param percentOfTreasure the percent of caves to have the treasure.
+   * @param percentOfMonster the percent of caves to have monsters.
+   * @param tileSize the width and height of a tile, in cells.
+   * @param pool the pool to run the tiles on.
+   */
+  public DungeonBuilderParallel(int rows, int cols, int interconnectivity, boolean isWrapping,
+                                RandomGenerator random, int percentOfTreasure,
+                                int percentOfMonster, int tileSize, ForkJoinPool pool) {
+    DungeonBuilderKruskal.validateGameInputs(rows, cols, interconnectivity, isWrapping,
+            percentOfTreasure, percentOfMonster);
+    if (random == null) {
+      throw new IllegalArgumentException("The random instance cannot be null.");
+    }
+    if (tileSize < 1) {
+      throw new IllegalArgumentException("The tile size cannot be 0 or negative.");
+    }
+    if (pool == null) {
+      throw new IllegalArgumentException("The fork join pool cannot be null.");
+    }
+    this.random = random;
+    this.rows = rows;
+    this.cols = cols;
+    this.interconnectivity = interconnectivity;
+    this.isWrapping = isWrapping;
+    this.percentOfTreasure = percentOfTreasure;
+    this.percentOfMonster = percentOfMonster;
+    this.tileSize = tileSize;
+    this.tileRows = (rows + tileSize - 1) / tileSize;
+    this.tileCols = (cols + tileSize - 1) / tileSize;
+    this.pool = pool;
+  }
+  
+  /**
+   * Builds a dungeon by building the tiles in parallel and joining them. The dungeon network of
+   * caves and tunnels is built randomly.
+   * @return a dungeon with cells of cave and tunnel types after populating the treasure.
+   */
+  @Override
+  public Dungeon buildDungeon() {
+    long masterSeed = ((long) random.getRandomInt(0, Integer.MAX_VALUE - 1) << 31)
+            ^ random.getRandomInt(0, Integer.MAX_VALUE - 1);
+    int numTiles = tileRows * tileCols;
+    grid = new Location[rows][cols];
+    components = new int[rows * cols];
+    tileFinalPaths = new EdgeList[numTiles];
+    tileDiscardedPaths = new EdgeList[numTiles];
+    pool.invoke(new TileTask(0, numTiles, masterSeed));
+    
+    finalPaths = new EdgeList(rows * cols + interconnectivity);
+    discardedPaths = new EdgeList(rows * cols + 1);
+    for (int t = 0; t < numTiles; t++) {
+      appendAll(tileFinalPaths[t], finalPaths);
+      appendAll(tileDiscardedPaths[t], discardedPaths);
+    }
+    tileFinalPaths = null;
+    tileDiscardedPaths = null;
+    joinTiles();
+    
+    if (interconnectivity > discardedPaths.size()) {
+      throw new IllegalArgumentException("Invalid degree of interconnectivity. There are not enough"
+              + " paths left to add to this Dungeon.");
+    }
+    for (int i = 0; i < interconnectivity; i++) {
+      int edge = discardedPaths.removeRandom(random);
+      finalPaths.add(edge);
+      addPath(edge);
+    }
+    return new Dungeon(random, grid, rows, cols, interconnectivity, isWrapping, percentOfTreasure,
+            percentOfMonster);
+  }
+  
+  //Join the spanning trees of the tiles with the paths that cross the tile borders, including
+  // the paths that wrap around. The tree of each tile is a single set, named by the cell at its
+  // root, so only those cells are merged.
+  private void joinTiles() {
+    EdgeList borderPaths = new EdgeList(2 * (rows * tileCols + cols * tileRows));
+    for (int r = 0; r < rows; r++) {
+      for (int c = tileSize - 1; c < cols - 1; c += tileSize) {
+        borderPaths.add(EdgeList.encode(r * cols + c, true));
+      }
+      if (isWrapping && cols > 1) {
+        borderPaths.add(EdgeList.encode(r * cols + cols - 1, true));
+      }
+    }
+    for (int r = tileSize - 1; r < rows - 1; r += tileSize) {
+      for (int c = 0; c < cols; c++) {
+        borderPaths.add(EdgeList.encode(r * cols + c, false));
+      }
+    }
+    if (isWrapping && rows > 1) {
+      for (int c = 0; c < cols; c++) {
+        borderPaths.add(EdgeList.encode((rows - 1) * cols + c, false));
+      }
+    }
+    
+    borderPaths.shuffle(random);
+    selectedPaths = new DisjointSet(rows * cols);
+    for (int i = 0; i < borderPaths.size(); i++) {
+      int edge = borderPaths.get(i);
+      int tree = components[EdgeList.anchor(edge)];
+      int otherTree = components[EdgeList.other(edge, rows, cols)];
+      if (selectedPaths.union(tree, otherTree)) {
+        finalPaths.add(edge);
+        addPath(edge);
+      } else {
+        discardedPaths.add(edge);
+      }
+    }
+  }
+  
+  //Build the cells of one tile and a spanning tree of the paths inside it.
+  private void buildTile(int tile, long seed) {
+    int firstRow = (tile / tileCols) * tileSize;
+    int firstCol = (tile % tileCols) * tileSize;
+    int height = Math.min(tileSize, rows - firstRow);
+    int width = Math.min(tileSize, cols - firstCol);
+    for (int r = firstRow; r < firstRow + height; r++) {
+      for (int c = firstCol; c < firstCol + width; c++) {
+        grid[r][c] = new Location(r * cols + c, r, c);
+      }
+    }
+    
+    EdgeList tilePaths = new EdgeList(2 * height * width);
+    for (int r = firstRow; r < firstRow + height; r++) {
+      for (int c = firstCol; c < firstCol + width; c++) {
+        if (c < firstCol + width - 1) {
+          tilePaths.add(EdgeList.encode(r * cols + c, true));
+        }
+        if (r < firstRow + height - 1) {
+          tilePaths.add(EdgeList.encode(r * cols + c, false));
+        }
+      }
+    }
+    
+    RandomGenerator tileRandom = new TrueRandomGenerator();
+    tileRandom.setSeed(seed);
+    tilePaths.shuffle(tileRandom);
+    DisjointSet tileSets = new DisjointSet(height * width);
+    EdgeList tileFinal = new EdgeList(height * width);
+    EdgeList tileDiscarded = new EdgeList(height * width + 1);
+    for (int i = 0; i < tilePaths.size(); i++) {
+      int edge = tilePaths.get(i);
+      int id = EdgeList.anchor(edge);
+      int otherId = EdgeList.other(edge, rows, cols);
+      if (tileSets.union(localId(id, firstRow, firstCol, width),
+              localId(otherId, firstRow, firstCol, width))) {
+        tileFinal.add(edge);
+        addPath(edge);
+      } else {
+        tileDiscarded.add(edge);
+      }
+    }
+    
+    for (int r = firstRow; r < firstRow + height; r++) {
+      for (int c = firstCol; c < firstCol + width; c++) {
+        int root = tileSets.find(localId(r * cols + c, firstRow, firstCol, width));
+        components[r * cols + c] = (firstRow + root / width) * cols + firstCol + root % width;
+      }
+    }
+    tileFinalPaths[tile] = tileFinal;
+    tileDiscardedPaths[tile] = tileDiscarded;
+  }
+  
+  //Get the index of a cell within its tile.
+  private int localId(int id, int firstRow, int firstCol, int width) {
+    return (id / cols - firstRow) * width + id % cols - firstCol;
+  }
+  
+  //Mix the seed of the builder with the index of a tile, so that neighboring tiles get unrelated
+  // random sequences. This is the finalizer of the SplitMix64 generator.
+  private static long tileSeed(long masterSeed, int tile) {
+    long z = masterSeed + (tile + 1) * 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+  
+  //Copy all the edges of one list to the end of another.
+  private static void appendAll(EdgeList from, EdgeList to) {
+    for (int i = 0; i < from.size(); i++) {
+      to.add(from.get(i));
+    }
+  }
+  
+  //Build a path in the grid between the two cells of an edge.
+  private void addPath(int edge) {
+    Location thisCell = getCell(EdgeList.anchor(edge));
+    Location otherCell = getCell(EdgeList.other(edge, rows, cols));
+    if (EdgeList.isHorizontal(edge)) {
+      thisCell.setE(1);
+      thisCell.setNeighbors(Directions.EAST, otherCell, "add");
+      otherCell.setW(1);
+      otherCell.setNeighbors(Directions.WEST, thisCell, "add");
+    } else {
+      thisCell.setS(1);
+      thisCell.setNeighbors(Directions.SOUTH, otherCell, "add");
+      otherCell.setN(1);
+      otherCell.setNeighbors(Directions.NORTH, thisCell, "add");
+    }
+  }
+  
+  //Get the cell in the grid with the given ID.
+  private Location getCell(int id) {
+    return grid[id / cols][id % cols];
+  }
+  
+  /**
+   * Get the list of potential paths used to build the Dungeon. The paths are split between the
+   * tiles while building, so there are no potential paths left to pick from.
+   * @return an empty list.
+   */
+  @Override
+  public List<Set<Location>> getPotentialPaths() {
+    return new ArrayList<>();
+  }
+  
+  /**
+   * Get the paths that were built in the Dungeon.
+   * @return the list of set of cell nodes representing an edge, or an empty list if the Dungeon
+   *         has not been built.
+   */
+  @Override
+  public List<Set<Location>> getFinalPaths() {
+    return toPaths(finalPaths);
+  }
+  
+  /**
+   * Get the list of sets of cells used to build the dungeon. The sets are derived from the trees
+   * of the tiles and the sets they were joined into, so each call returns a new list.
+   * @return the list of sets of cell nodes, or an empty list if the Dungeon has not been built.
+   */
+  @Override
+  public List<Set<Location>> getSelectedPaths() {
+    Map<Integer, Set<Location>> sets = new LinkedHashMap<>();
+    if (grid != null) {
+      for (Location[] row : grid) {
+        for (Location cell : row) {
+          int root = selectedPaths.find(components[cell.getID()]);
+          sets.computeIfAbsent(root, k -> new HashSet<>()).add(cell);
+        }
+      }
+    }
+    return new ArrayList<>(sets.values());
+  }
+  
+  /**
+   * Get the paths that were discarded in the Dungeon.
+   * @return the list of set of cell nodes representing the discarded paths, or an empty list if
+   *         the Dungeon has not been built.
+   */
+  @Override
+  public List<Set<Location>> getDiscardedPaths() {
+    return toPaths(discardedPaths);
+  }
+  
+  /**
+   * Get the Dungeon grid.
+   * @return The grid with cells used to build a new Dungeon object for the game, or null if the
+   *         Dungeon has not been built.
+   */
+  @Override
+  public Location[][] getGrid() {
+    return grid;
+  }
+  
+  //Materialize a list of packed edges as sets of two cells.
+  private List<Set<Location>> toPaths(EdgeList edges) {
+    List<Set<Location>> paths = new ArrayList<>();
+    if (edges == null) {
+      return paths;
+    }
+    for (int i = 0; i < edges.size(); i++) {
+      int edge = edges.get(i);
+      paths.add(Set.of(getCell(EdgeList.anchor(edge)), getCell(EdgeList.other(edge, rows, cols))));
+    }
+    return paths;
+  }
+  
+  //A task that builds a range of tiles, splitting the range in half until only one tile is left.
+  // Each tile writes only to its own cells and its own slot in the tile arrays.
+  private class TileTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private final int from;
+    private final int to;
+    private final long masterSeed;
+    
+    private TileTask(int from, int to, long masterSeed) {
+      this.from = from;
+      this.to = to;
+      this.masterSeed = masterSeed;
+    }
+    
+    @Override
+    protected void compute() {
+      if (to - from == 1) {
+        buildTile(from, tileSeed(masterSeed, from));
+        return;
+      }
+      int middle = (from + to) >>> 1;
+      invokeAll(new TileTask(from, middle, masterSeed), new TileTask(middle, to, masterSeed));
+    }
+  }
+}
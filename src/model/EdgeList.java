@@ -0,0 +1,169 @@
+package model;
+
+import java.util.Arrays;
+
+import random.RandomGenerator;
+
+/**
+ * This is a package private class that represents a compact list of edges between cells in a
+ * Dungeon grid. Each edge is packed into a single int: the ID of the cell it starts from, and one
+ * bit telling if the edge goes to the east (horizontal) or to the south (vertical) of that cell.
+ * The cell at the other end of the edge is worked out from the grid dimensions, so wrapping edges
+ * are stored the same way as the others.
+ */
+class EdgeList {
+  private int[] edges;
+  private int size;
+  
+  /**
+   * Constructor for an empty edge list.
+   * @param capacity the number of edges the list can hold before it needs to grow.
+   */
+  EdgeList(int capacity) {
+    this.edges = new int[Math.max(capacity, 1)];
+    this.size = 0;
+  }
+  
+  /**
+   * Pack an edge into an int.
+   * @param cellId the ID of the cell where the edge starts.
+   * @param horizontal true if the edge goes to the east of the cell, false if it goes south.
+   * @return the packed edge.
+   */
+  static int encode(int cellId, boolean horizontal) {
+    return (cellId << 1) | (horizontal ? 1 : 0);
+  }
+  
+  /**
+   * Get the ID of the cell where an edge starts.
+   * @param edge the packed edge.
+   * @return the cell ID.
+   */
+  static int anchor(int edge) {
+    return edge >>> 1;
+  }
+  
+  /**
+   * Check if an edge goes to the east of its cell.
+   * @param edge the packed edge.
+   * @return true if the edge is horizontal, and false if it is vertical.
+   */
+  static boolean isHorizontal(int edge) {
+    return (edge & 1) == 1;
+  }
+  
+  /**
+   * Get the ID of the cell at the other end of an edge, wrapping around the grid if needed.
+   * @param edge the packed edge.
+   * @param rows the number of rows in the grid.
+   * @param cols the number of columns in the grid.
+   * @return the ID of the east or south neighbor of the anchor cell.
+   */
+  static int other(int edge, int rows, int cols) {
+    int id = anchor(edge);
+    int row = id / cols;
+    int col = id % cols;
+    if (isHorizontal(edge)) {
+      return row * cols + (col + 1) % cols;
+    }
+    return ((row + 1) % rows) * cols + col;
+  }
+  
+  /**
+   * Add an edge to the end of the list.
+   * @param edge the packed edge.
+   */
+  void add(int edge) {
+    if (size == edges.length) {
+      edges = Arrays.copyOf(edges, size * 2);
+    }
+    edges[size] = edge;
+    size += 1;
+  }
+  
+  /**
+   * Get the edge at an index.
+   * @param index the index of the edge.
+   * @return the packed edge.
+   */
+  int get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Invalid edge index: " + index);
+    }
+    return edges[index];
+  }
+  
+  /**
+   * Remove the edge at an index by moving the last edge into its place. This does not keep the
+   * order of the list, but takes constant time.
+   * @param index the index of the edge.
+   * @return the removed edge.
+   */
+  int removeAt(int index) {
+    int edge = get(index);
+    size -= 1;
+    edges[index] = edges[size];
+    return edge;
+  }
+  
+  /**
+   * Remove a random edge from the list.
+   * @param random the random instance to pick the edge with.
+   * @return the removed edge.
+   */
+  int removeRandom(RandomGenerator random) {
+    if (size == 0) {
+      throw new IllegalStateException("There are no edges left to pick from.");
+    }
+    return removeAt(random.getRandomInt(0, size - 1));
+  }
+  
+  /**
+   * Remove the last edge from the list.
+   * @return the removed edge.
+   */
+  int removeLast() {
+    if (size == 0) {
+      throw new IllegalStateException("There are no edges left to pick from.");
+    }
+    size -= 1;
+    return edges[size];
+  }
+  
+  /**
+   * Shuffle the edges in place with a single Fisher-Yates pass, so that they can be read in a
+   * random order from start to end.
+   * @param random the random instance to shuffle the edges with.
+   */
+  void shuffle(RandomGenerator random) {
+    for (int i = size - 1; i > 0; i--) {
+      int j = random.getRandomInt(0, i);
+      int temp = edges[i];
+      edges[i] = edges[j];
+      edges[j] = temp;
+    }
+  }
+  
+  /**
+   * Remove all the edges from the list.
+   */
+  void clear() {
+    size = 0;
+  }
+  
+  /**
+   * Get the number of edges in the list.
+   * @return the number of edges.
+   */
+  int size() {
+    return size;
+  }
+  
+  /**
+   * Check if the list has no edges.
+   * @return true if the list is empty.
+   */
+  boolean isEmpty() {
+    return size == 0;
+  }
+}
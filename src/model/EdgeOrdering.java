@@ -0,0 +1,11 @@
+package model;
+
+/**
+ * This enum represents the order in which a Dungeon builder goes through the potential paths.
+ * RANDOM_PICK picks and removes one random path at a time, while SHUFFLE_ONCE shuffles all the
+ * paths once up front and then reads them in order. Both orders are deterministic for a seeded
+ * random generator.
+ */
+public enum EdgeOrdering {
+  RANDOM_PICK, SHUFFLE_ONCE
+}
@@ -0,0 +1,100 @@
+package model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * This class represents a topology sink that streams the Dungeon layout to a file or any other
+ * output stream, so that the size of a generated Dungeon is not limited by the memory. The layout
+ * is written as a header followed by 2 bits per cell in row order: the lower bit for a path to the
+ * east and the upper bit for a path to the south. Four cells are packed in each byte.
+ */
+public class FileTopologySink implements TopologySink {
+  /**
+   * The magic number at the start of a topology file.
+   */
+  public static final int MAGIC = 0x44544F50;
+  
+  /**
+   * The version of the topology file format.
+   */
+  public static final int VERSION = 1;
+  
+  private final DataOutputStream out;
+  private int packed;
+  private int cellsInByte;
+  
+  /**
+   * Constructor for a topology sink that writes to an output stream. The stream is closed when the
+   * layout is finished.
+   * @param out the stream to write the layout to.
+   */
+  public FileTopologySink(OutputStream out) {
+    if (out == null) {
+      throw new IllegalArgumentException("The output stream cannot be null.");
+    }
+    this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+    this.packed = 0;
+    this.cellsInByte = 0;
+  }
+  
+  /**
+   * Write the header of the topology file.
+   * @param rows the number of rows in the Dungeon.
+   * @param cols the number of columns in the Dungeon.
+   * @param isWrapping if the Dungeon is of wrapping or non-wrapping type.
+   */
+  @Override
+  public void start(int rows, int cols, boolean isWrapping) {
+    try {
+      out.writeInt(MAGIC);
+      out.writeByte(VERSION);
+      out.writeInt(rows);
+      out.writeInt(cols);
+      out.writeBoolean(isWrapping);
+    } catch (IOException e) {
+      throw new IllegalStateException("Writing the Dungeon layout failed", e);
+    }
+  }
+  
+  /**
+   * Write the paths of the next row.
+   * @param row the index of the row.
+   * @param exits one byte for each cell in the row, with the EAST_EXIT and SOUTH_EXIT bits.
+   */
+  @Override
+  public void acceptRow(int row, byte[] exits) {
+    try {
+      for (byte exit : exits) {
+        packed |= (exit & (EAST_EXIT | SOUTH_EXIT)) << (2 * cellsInByte);
+        cellsInByte += 1;
+        if (cellsInByte == 4) {
+          out.writeByte(packed);
+          packed = 0;
+          cellsInByte = 0;
+        }
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Writing the Dungeon layout failed", e);
+    }
+  }
+  
+  /**
+   * Write the last partly filled byte, if any, and close the stream.
+   */
+  @Override
+  public void finish() {
+    try {
+      if (cellsInByte > 0) {
+        out.writeByte(packed);
+        packed = 0;
+        cellsInByte = 0;
+      }
+      out.close();
+    } catch (IOException e) {
+      throw new IllegalStateException("Writing the Dungeon layout failed", e);
+    }
+  }
+}
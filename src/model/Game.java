@@ -1,7 +1,8 @@
 package model;
 
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.BitSet;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -14,7 +15,9 @@ import model.gameobjects.actors.Status;
 import model.gameobjects.actors.Thief;
 import model.gameobjects.actors.Thieves;
 import model.gameobjects.cell.Cell;
+import model.gameobjects.cell.CellStore;
 import model.gameobjects.cell.CellTypes;
+import model.gameobjects.cell.Inventory;
 import model.gameobjects.cell.Location;
 import model.gameobjects.cell.Smell;
 import model.gameobjects.cell.Treasure;
@@ -37,14 +40,19 @@ import random.TrueRandomGenerator;
  * treasure that is located in their same location.
  */
 public class Game implements AdventureGame {
+  private static final int DEADLY_HAZARDS = HazardMap.MONSTER | HazardMap.WOUNDED_MONSTER
+          | HazardMap.PIT;
   private final RandomGenerator random;
   private final Cell startPosition;
   private final Cell endPosition;
   private final Players player;
   private Dungeon dungeonGrid;
   private boolean gameOver;
-  private int endCaveNotFoundCount;
-  private Thieves[] thieves;
+  private DistanceField startDistances;
+  private DistanceField goalDistances;
+  private CommandLog commandLog;
+  private long builtVersion;
+  private final Inventory treasureStolen = new Inventory(Treasure.values());
   
   
   /**
@@ -59,6 +67,24 @@ public class Game implements AdventureGame {
    */
   public Game(int rows, int cols, int interconnectivity, boolean isWrapped, int percentOfTreasure,
               int percentOfMonsters, Players player, int seed) {
+    this(rows, cols, interconnectivity, isWrapped, percentOfTreasure, percentOfMonsters, player,
+            seed, false);
+  }
+  
+  /**
+   * The constructor for a Dungeon game that can record the commands played in it, so the game can
+   * be replayed and saved with its history.
+   * @param rows Number of rows in the desired Dungeon.
+   * @param cols Number of columns in the desired Dungeon.
+   * @param interconnectivity The degree of interconnectivity of the desired Dungeon.
+   * @param isWrapped Whether the Dungeon is of wrapping type or not.
+   * @param percentOfTreasure The percentage of caves with treasures.
+   * @param player The player that will enter the Dungeon to explore.
+   * @param seed The seed value to set seed for the random variable.
+   * @param isRecorded Whether the commands played are kept in a command log or not.
+   */
+  public Game(int rows, int cols, int interconnectivity, boolean isWrapped, int percentOfTreasure,
+              int percentOfMonsters, Players player, int seed, boolean isRecorded) {
     
     validateGameInputs(rows, cols, interconnectivity, isWrapped, percentOfTreasure,
             percentOfMonsters, player);
@@ -69,16 +95,20 @@ public class Game implements AdventureGame {
     //Sets the dungeon grid.
     setDungeon(rows, cols, interconnectivity, isWrapped, random, percentOfTreasure,
             percentOfMonsters);
-    this.endCaveNotFoundCount = 0;
     startPosition = getStartNode();
     endPosition = getEndNode(startPosition);
+    dungeonGrid.getHazardMap().setGoal(endPosition);
     movePlayerTo(startPosition);
     moveMonsterTo(new Monster("Otyugh", 1), endPosition);
     setMonsters(); //Set additional monsters to random caves.
     setPits(percentOfMonsters);
     setThieves(percentOfMonsters);
     gameOver = false;
-    
+    if (isRecorded) {
+      commandLog = new CommandLog(rows, cols, interconnectivity, isWrapped, percentOfTreasure,
+              percentOfMonsters, seed);
+    }
+    builtVersion = dungeonGrid.getCellStore().getVersion();
   }
   
   
@@ -101,9 +131,9 @@ public class Game implements AdventureGame {
     //Sets the dungeon grid.
     setDungeon(rows, cols, interconnectivity, isWrapped, random, percentOfTreasure,
             percentOfMonsters);
-    this.endCaveNotFoundCount = 0;
     startPosition = getStartNode();
     endPosition = getEndNode(startPosition);
+    dungeonGrid.getHazardMap().setGoal(endPosition);
     movePlayerTo(startPosition);
     moveMonsterTo(new Monster("Otyugh", 1), endPosition);
     setMonsters(); //Set additional monsters to random caves.
@@ -121,7 +151,6 @@ public class Game implements AdventureGame {
     this.random = null;
     //Sets the dungeon grid.
     this.dungeonGrid = null;
-    this.endCaveNotFoundCount = 0;
     startPosition = null;
     endPosition = null;
     gameOver = false;
@@ -148,9 +177,9 @@ public class Game implements AdventureGame {
     this.random = random;
     setDungeon(rows, cols, interconnectivity, isWrapped, random, percentOfTreasure,
             percentOfMonsters);
-    this.endCaveNotFoundCount = 0;
     startPosition = getStartNode();
     endPosition = getEndNode(startPosition);
+    dungeonGrid.getHazardMap().setGoal(endPosition);
     
     movePlayerTo(startPosition);
     
@@ -164,6 +193,40 @@ public class Game implements AdventureGame {
     setThieves(percentOfMonsters);
   }
   
+  /**
+   * Constructor for a game that was saved part way through, over its Dungeon as it was saved. The
+   * player must already be in its cell.
+   * @param dungeon the Dungeon of the game.
+   * @param player the player in the Dungeon.
+   * @param start the start cave of the game.
+   * @param end the destination cave of the game.
+   * @param treasureStolen the treasure stolen from the player so far.
+   * @param gameOver whether the game is over.
+   * @param commandLog the log of the commands played so far, or null if it is not kept.
+   */
+  Game(Dungeon dungeon, Players player, Cell start, Cell end,
+       Map<Treasure, Integer> treasureStolen, boolean gameOver, CommandLog commandLog) {
+    this.dungeonGrid = dungeon;
+    this.random = dungeon.random;
+    this.player = player;
+    this.startPosition = start;
+    this.endPosition = end;
+    this.treasureStolen.setTreasure(treasureStolen);
+    this.gameOver = gameOver;
+    this.commandLog = commandLog;
+    //Every cell may differ from a game newly built from the settings.
+    this.builtVersion = -1;
+    dungeonGrid.getHazardMap().setGoal(endPosition);
+  }
+  
+  /**
+   * Get the Dungeon of this game.
+   * @return the Dungeon, or null if the game has no settings yet.
+   */
+  Dungeon getDungeon() {
+    return this.dungeonGrid;
+  }
+  
   /**
    * Get the randomly selected start position in this game.
    * @return Map of Integers for x and y position.
@@ -192,6 +255,192 @@ public class Game implements AdventureGame {
     return this.player;
   }
   
+  /**
+   * Pick up a treasure in the current location of the player.
+   * @param treasure the treasure to pick up.
+   */
+  @Override
+  public void pickTreasure(Treasure treasure) {
+    player.pickTreasure(treasure);
+    if (commandLog != null) {
+      commandLog.recordTreasure(treasure);
+      recordKeyframe();
+    }
+  }
+  
+  /**
+   * Pick up the arrows in the current location of the player.
+   */
+  @Override
+  public void pickArrows() {
+    player.pickArrows();
+    if (commandLog != null) {
+      commandLog.recordArrows();
+      recordKeyframe();
+    }
+  }
+  
+  /**
+   * Get the log of the commands played in this game, which is only kept for a game built from a
+   * seed to be recorded.
+   * @return the command log, or null if the game is not recorded.
+   */
+  @Override
+  public CommandLog getCommandLog() {
+    return this.commandLog;
+  }
+  
+  /**
+   * Get the state of this game that changes as it is played: the random generator, the player,
+   * the stolen treasure, and every cell that changed since the game was built, with its monster
+   * and thief. Only a recorded game has a state that can be restored.
+   * @return the state in a compact binary form.
+   */
+  byte[] captureState() {
+    if (commandLog == null) {
+      throw new IllegalStateException("Only a recorded game can be captured.");
+    }
+    VarIntBuffer out = new VarIntBuffer();
+    out.writeLong(((TrueRandomGenerator) random).getState());
+    out.writeInt(gameOver ? 1 : 0);
+    out.writeInt(player.getLocation().getID());
+    out.writeInt(player.getStatus().ordinal());
+    writeInventory(out, player.getInventory());
+    writeInventory(out, treasureStolen);
+    
+    //Write the cells that changed, each as the gap from the ID of the cell before.
+    CellStore store = dungeonGrid.getCellStore();
+    int changed = 0;
+    for (int id = 0; id < store.size(); id++) {
+      if (isChangedSinceBuilt(id)) {
+        changed += 1;
+      }
+    }
+    out.writeInt(changed);
+    int last = 0;
+    for (int id = 0; id < store.size(); id++) {
+      if (isChangedSinceBuilt(id)) {
+        Cell cell = store.getCell(id);
+        out.writeInt(id - last);
+        out.writeInt(cell.isVisited() ? 1 : 0);
+        out.writeInt(cell.getArrows());
+        writeTreasure(out, cell.getTreasures());
+        out.writeInt(cell.getSmellUnits());
+        out.writeInt(cell.getMonster() == null ? 0 : cell.getMonster().getHits());
+        if (cell.hasThief()) {
+          writeTreasure(out, cell.getThief().getTreasureCollected());
+        }
+        last = id;
+      }
+    }
+    return out.toByteArray();
+  }
+  
+  /**
+   * Restore a state captured from a game built from the same settings and seed. This game must
+   * be recorded, and must not have been played yet.
+   * @param state the state in the form given by captureState().
+   * @param log the log of the commands played up to the state, which is kept on recording.
+   */
+  void restoreState(byte[] state, CommandLog log) {
+    if (commandLog == null || dungeonGrid.getCellStore().getVersion() != builtVersion) {
+      throw new IllegalStateException("Only a new recorded game can be restored.");
+    }
+    VarIntBuffer.Cursor in = new VarIntBuffer(state, state.length).cursor(0);
+    ((TrueRandomGenerator) random).setState(in.readLong());
+    gameOver = in.readInt() == 1;
+    CellStore store = dungeonGrid.getCellStore();
+    player.getLocation().setPlayer(false);
+    player.setLocation(store.getCell(in.readInt()));
+    player.getLocation().setPlayer(true);
+    player.setStatus(Status.values()[in.readInt()]);
+    readInventory(in, player.getInventory());
+    readInventory(in, treasureStolen);
+    
+    int changed = in.readInt();
+    int id = 0;
+    for (int i = 0; i < changed; i++) {
+      id += in.readInt();
+      Cell cell = store.getCell(id);
+      cell.setVisited(in.readInt() == 1);
+      cell.setArrows(in.readInt());
+      cell.setTreasure(readTreasure(in));
+      cell.setSmell(Smell.PUNGENT, in.readInt() - cell.getSmellUnits());
+      int hits = in.readInt();
+      if (cell.getMonster() != null) {
+        for (int hit = cell.getMonster().getHits(); hit < hits; hit++) {
+          cell.getMonster().takeHit();
+        }
+        dungeonGrid.markChanged(cell);
+      }
+      if (cell.hasThief()) {
+        cell.getThief().getInventory().setTreasure(readTreasure(in));
+      }
+    }
+    commandLog = log;
+  }
+  
+  /**
+   * Check if a cell may differ from the same cell in a game newly built from the settings.
+   * @param id the ID of the cell.
+   * @return true or false.
+   */
+  boolean isChangedSinceBuilt(int id) {
+    return dungeonGrid.getCellStore().getChangeVersion(id) > builtVersion;
+  }
+  
+  /**
+   * Set the cells that differ from a game newly built from the settings, for a game that was
+   * saved part way through, so the keyframes it records only hold those cells.
+   * @param changed a bit for every cell, in order of ID, set if the cell changed.
+   */
+  void setChangedSinceBuilt(BitSet changed) {
+    CellStore store = dungeonGrid.getCellStore();
+    builtVersion = store.getVersion();
+    for (int id = changed.nextSetBit(0); id >= 0; id = changed.nextSetBit(id + 1)) {
+      store.markChanged(id);
+    }
+  }
+  
+  //Keep a keyframe in the log when the last command recorded ends a keyframe interval.
+  private void recordKeyframe() {
+    if (commandLog.isKeyframeDue()) {
+      commandLog.addKeyframe(captureState());
+    }
+  }
+  
+  //Write the arrows and the listed treasure of an inventory.
+  private static void writeInventory(VarIntBuffer out, Inventory inventory) {
+    out.writeInt(inventory.getArrows());
+    writeTreasure(out, inventory.getTreasureView());
+  }
+  
+  //Read the arrows and the listed treasure of an inventory.
+  private static void readInventory(VarIntBuffer.Cursor in, Inventory inventory) {
+    inventory.setArrows(in.readInt());
+    inventory.setTreasure(readTreasure(in));
+  }
+  
+  //Write a map of treasure as its size, then the treasure and quantity of each entry.
+  private static void writeTreasure(VarIntBuffer out, Map<Treasure, Integer> treasures) {
+    out.writeInt(treasures.size());
+    for (Map.Entry<Treasure, Integer> entry : treasures.entrySet()) {
+      out.writeInt(entry.getKey().ordinal());
+      out.writeInt(entry.getValue());
+    }
+  }
+  
+  //Read a map of treasure written by writeTreasure.
+  private static Map<Treasure, Integer> readTreasure(VarIntBuffer.Cursor in) {
+    Map<Treasure, Integer> treasures = new EnumMap<>(Treasure.class);
+    int size = in.readInt();
+    for (int i = 0; i < size; i++) {
+      Treasure treasure = Treasure.values()[in.readInt()];
+      treasures.put(treasure, in.readInt());
+    }
+    return treasures;
+  }
+  
   
   /**
    * Check if the game is over.
@@ -297,6 +546,15 @@ public class Game implements AdventureGame {
     return this.dungeonGrid.getGridCopy();
   }
   
+  /**
+   * Get a snapshot of the Dungeon grid that cannot be changed.
+   * @return the snapshot of the Dungeon grid.
+   */
+  @Override
+  public BoardSnapshot getSnapshot() {
+    return this.dungeonGrid.getSnapshot();
+  }
+  
   /**
    * Get the copy of the current location of the player.
    * @return the copy of current location of the player.
@@ -306,6 +564,26 @@ public class Game implements AdventureGame {
     return new Location(player.getLocation());
   }
   
+  /**
+   * Get the first move on a shortest route from the current location of the player to the
+   * destination.
+   * @return the direction to move in, or null if the player is at the destination.
+   */
+  @Override
+  public Directions getDirectionToGoal() {
+    return getGoalDistances().getMoveToSource(player.getLocation());
+  }
+  
+  /**
+   * Get the number of moves on a shortest route from the current location of the player to the
+   * destination.
+   * @return the number of moves left to the destination.
+   */
+  @Override
+  public int getStepsToGoal() {
+    return getGoalDistances().getDistance(player.getLocation());
+  }
+  
   /**
    * Get the copy of the cell at a location in Dungeon grid.
    * @param x the x coordinate.
@@ -325,46 +603,8 @@ public class Game implements AdventureGame {
     Cell currentLoc = player.getLocation();
     if (currentLoc.getNeighbors().containsKey(direction) && player.getStatus()
             .equals(Status.ALIVE)) {
-      //movePlayerTo(dungeonGrid.getCellAt(x, y));
       //Get neighbor in this direction
       movePlayerTo(currentLoc.getNeighbors().get(direction));
-      
-      //Check if the new location has a monster. If so, then the player will die if the Monster
-      // is Alive, and if it is wounded, it has 50% chance of survival.
-      Cell currentCell = player.getLocation();
-      
-      if (currentCell.getMonster() != null) {
-        //if non-null monster is present
-        if (currentCell.getMonster().getStatus() == Status.ALIVE) {
-          player.setStatus(Status.DEAD);
-          setGameOver(true);
-        }
-        if (currentCell.getMonster().getStatus() == Status.WOUNDED) {
-          //50% chance of survival.
-          int val = random.getRandomInt(1, 100);
-          if (val <= 50) {
-            player.setStatus(Status.ALIVE);
-          } else {
-            player.setStatus(Status.DEAD);
-            setGameOver(true);
-          }
-        }
-      }
-      
-      if (currentCell.getType().equals(CellTypes.PIT)) {
-        player.setStatus(Status.DEAD);
-        setGameOver(true);
-      }
-      
-      if (currentCell.hasThief()) {
-        currentCell.getThief().stealTreasure(player.getTreasureCollected());
-        player.resetTreasure();
-      }
-      
-      if (currentCell.getID() == endPosition.getID() && player.getStatus().equals(Status.ALIVE)) {
-        player.setStatus(Status.WON);
-        setGameOver(true);
-      }
     } else if (player.getStatus().equals(Status.DEAD)) {
       // Don't do anything if the player is dead
     } else {
@@ -373,7 +613,6 @@ public class Game implements AdventureGame {
     }
   }
   
-  
   /**
    * Move player to a cell in the Dungeon by x and y coordinate.
    */
@@ -383,115 +622,131 @@ public class Game implements AdventureGame {
       throw new IllegalArgumentException("Cannot move player. Invalid x or y coordinate.");
     }
     ///get the cell at this location
-    Cell location = getCellAt(x, y);
-    
+    movePlayerTo(getCellAt(x, y));
+  }
+  
+  /**
+   * Move player to a cell in the Dungeon.
+   */
+  @Override
+  public void movePlayerTo(Cell location) {
     if (this.player.getStatus() == Status.ALIVE) {
       if (this.player.getLocation() != null) {
-        if (! this.getCurrentLocation().getNeighbors().containsValue(location)) {
+        Directions direction = findDirection(this.player.getLocation(), location);
+        if (direction == null) {
           throw new IllegalArgumentException("Illegal Move");
         } else {
           this.player.getLocation().setPlayer(false);
         }
+        if (commandLog != null) {
+          commandLog.recordMove(direction);
+        }
       }
       this.player.setLocation(location);
       location.setVisited(true);
       location.setPlayer(true);
       
-      //Check if the new location has a monster. If so, then the player will die if the Monster
-      // is Alive, and if it is wounded, it has 50% chance of survival.
-      Cell currentCell = player.getLocation();
-      
-      if (currentCell.getMonster() != null) {
-        //if non-null monster is present
-        if (currentCell.getMonster().getStatus() == Status.ALIVE) {
-          player.setStatus(Status.DEAD);
-          setGameOver(true);
-        }
-        if (currentCell.getMonster().getStatus() == Status.WOUNDED) {
-          //50% chance of survival.
-          int val = random.getRandomInt(1, 100);
-          if (val <= 50) {
-            player.setStatus(Status.ALIVE);
-          } else {
-            player.setStatus(Status.DEAD);
-            setGameOver(true);
-          }
-        }
-      }
-      
-      if (currentCell.getType().equals(CellTypes.PIT)) {
-        player.setStatus(Status.DEAD);
-        setGameOver(true);
-      }
-      
-      if (currentCell.hasThief()) {
-        currentCell.getThief().stealTreasure(player.getTreasureCollected());
-        player.resetTreasure();
-      }
-      
-      if (currentCell.equals(endPosition) && player.getStatus() == Status.ALIVE) {
-        player.setStatus(Status.WON);
-        setGameOver(true);
+      resolveEncounter(location);
+      if (commandLog != null) {
+        recordKeyframe();
       }
     }
     //do nothing if player is dead
   }
   
   /**
-   * Move player to a cell in the Dungeon.
+   * Move the player along a shortest route to a cell by x and y coordinate, one move at a time.
+   * The route only passes through visited cells, so travelling never uncovers a new cell on the
+   * way. A cell next to the player is reached with one move, as with a single move, and the cell
+   * of the player cannot be travelled to. On a longer route, the player stops before a cell with a
+   * monster or a pit, and stops in the first cell with a smell, a pit nearby or a thief, or when
+   * the game is over.
    */
   @Override
-  public void movePlayerTo(Cell location) {
-    if (this.player.getStatus() == Status.ALIVE) {
-      if (this.player.getLocation() != null) {
-        if (! this.getCurrentLocation().getNeighbors().containsValue(location)) {
-          throw new IllegalArgumentException("Illegal Move");
-        } else {
-          this.player.getLocation().setPlayer(false);
-        }
-      }
-      this.player.setLocation(location);
-      location.setVisited(true);
-      location.setPlayer(true);
-      
-      //Check if the new location has a monster. If so, then the player will die if the Monster
-      // is Alive, and if it is wounded, it has 50% chance of survival.
-      Cell currentCell = player.getLocation();
-      
-      if (currentCell.getMonster() != null) {
-        //if non-null monster is present
-        if (currentCell.getMonster().getStatus() == Status.ALIVE) {
-          player.setStatus(Status.DEAD);
-          setGameOver(true);
-        }
-        if (currentCell.getMonster().getStatus() == Status.WOUNDED) {
-          //50% chance of survival.
-          int val = random.getRandomInt(1, 100);
-          if (val <= 50) {
-            player.setStatus(Status.ALIVE);
-          } else {
-            player.setStatus(Status.DEAD);
-            setGameOver(true);
-          }
-        }
+  public int travelTo(int y, int x) {
+    if (x < 0 || x >= dungeonGrid.rows || y < 0 || y >= dungeonGrid.columns) {
+      throw new IllegalArgumentException("Cannot move player. Invalid x or y coordinate.");
+    }
+    Cell destination = getCellAt(x, y);
+    Cell currentLoc = player.getLocation();
+    if (player.getStatus() != Status.ALIVE) {
+      return 0;
+    }
+    if (currentLoc.getNeighbors().containsValue(destination)) {
+      movePlayerTo(destination);
+      return 1;
+    }
+    if (destination == currentLoc || ! destination.isVisited()) {
+      throw new IllegalArgumentException("Illegal Move");
+    }
+    List<Cell> route = dungeonGrid.getPathService().getPath(currentLoc, destination,
+            Cell::isVisited);
+    HazardMap hazardMap = dungeonGrid.getHazardMap();
+    int moves = 0;
+    for (int i = 1; i < route.size(); i++) {
+      Cell next = route.get(i);
+      if ((hazardMap.getHazards(next) & DEADLY_HAZARDS) != 0) {
+        break;
       }
-      
-      if (currentCell.getType().equals(CellTypes.PIT)) {
-        player.setStatus(Status.DEAD);
-        setGameOver(true);
+      movePlayerTo(next);
+      moves += 1;
+      if (player.getStatus() != Status.ALIVE || gameOver || next.getSmellLevel() != Smell.NONE
+              || next.isNextToPit() || (hazardMap.getHazards(next) & HazardMap.THIEF) != 0) {
+        break;
       }
-      
-      if (currentCell.hasThief()) {
-        currentCell.getThief().stealTreasure(player.getTreasureCollected());
-        player.resetTreasure();
+    }
+    return moves;
+  }
+  
+  //Find the direction of a neighbor of a cell, or null if the other cell is not a neighbor.
+  private static Directions findDirection(Cell from, Cell to) {
+    for (Map.Entry<Directions, Cell> entry : from.getNeighbors().entrySet()) {
+      if (entry.getValue() == to) {
+        return entry.getKey();
       }
-      
-      if (currentCell.equals(endPosition) && player.getStatus() == Status.ALIVE) {
-        player.setStatus(Status.WON);
+    }
+    return null;
+  }
+  
+  //Resolve what happens to the player on entering a cell, from the hazards in the cell. A monster
+  // that is alive kills the player, and a wounded monster gives the player a 50% chance of
+  // survival. A pit kills the player, a thief steals the player's treasure, and a player that
+  // is still alive in the goal cell wins.
+  private void resolveEncounter(Cell cell) {
+    int hazards = dungeonGrid.getHazardMap().getHazards(cell);
+    if (hazards == 0) {
+      return;
+    }
+    if ((hazards & HazardMap.MONSTER) != 0) {
+      player.setStatus(Status.DEAD);
+      setGameOver(true);
+    } else if ((hazards & HazardMap.WOUNDED_MONSTER) != 0) {
+      //50% chance of survival.
+      int val = random.getRandomInt(1, 100);
+      if (val <= 50) {
+        player.setStatus(Status.ALIVE);
+      } else {
+        player.setStatus(Status.DEAD);
         setGameOver(true);
       }
     }
-    //do nothing if player is dead
+    if ((hazards & HazardMap.PIT) != 0) {
+      player.setStatus(Status.DEAD);
+      setGameOver(true);
+    }
+    if ((hazards & HazardMap.THIEF) != 0) {
+      stealTreasure(cell.getThief());
+    }
+    if ((hazards & HazardMap.GOAL) != 0 && player.getStatus() == Status.ALIVE) {
+      player.setStatus(Status.WON);
+      setGameOver(true);
+    }
+  }
+  
+  //Let a thief steal all the treasure collected by the player, and add it to the total stolen.
+  private void stealTreasure(Thieves thief) {
+    treasureStolen.merge(player.getInventory());
+    thief.getInventory().stealAll(player.getInventory());
   }
   
   //Helper method to move the monster to a cell in the Dungeon and update the smell accordingly.
@@ -514,7 +769,6 @@ public class Game implements AdventureGame {
       //Set less pungent smell in neighbors 2 positions away from the current cell and 1
       // position away from this neighbor.
       Map<Directions, Cell> secondNeighbors = firstNeighbor.getNeighbors();
-      secondNeighbors.remove(locationOfMonster);
       
       for (Map.Entry<Directions, Cell> secondEntry : secondNeighbors.entrySet()) {
         Cell secondNeighbor = secondEntry.getValue();
@@ -531,21 +785,7 @@ public class Game implements AdventureGame {
    */
   @Override
   public Map<Treasure, Integer> getTreasureStolen() {
-    Map<Treasure, Integer> total = new HashMap<>();
-    total.put(Treasure.DIAMONDS, 0);
-    total.put(Treasure.RUBIES, 0);
-    total.put(Treasure.SAPPHIRES, 0);
-    if (thieves != null) {
-      for (Thieves thief : thieves) {
-        total.put(Treasure.DIAMONDS,
-                total.get(Treasure.DIAMONDS) + thief.getTreasureCollected().get(Treasure.DIAMONDS));
-        total.put(Treasure.RUBIES,
-                total.get(Treasure.RUBIES) + thief.getTreasureCollected().get(Treasure.RUBIES));
-        total.put(Treasure.SAPPHIRES, total.get(Treasure.SAPPHIRES) + thief.getTreasureCollected()
-                .get(Treasure.SAPPHIRES));
-      }
-    }
-    return total;
+    return treasureStolen.getTreasureView();
   }
   
   /**
@@ -580,8 +820,14 @@ public class Game implements AdventureGame {
     if (distance < 1 || player.getArrowCount() <= 0) {
       throw new IllegalArgumentException("Player has no arrow left or the distance is invalid.");
     }
+    if (commandLog != null) {
+      commandLog.recordShot(direction, distance);
+    }
     
     String out = shoot(direction, distance);
+    if (commandLog != null) {
+      recordKeyframe();
+    }
     return out;
   }
   
@@ -591,61 +837,22 @@ public class Game implements AdventureGame {
       return "";
     }
     output.append("You shoot an arrow into the darkness");
-    Cell currentLoc = player.getLocation(); //The shooting location
-    Directions incomingDir = direction;
-    //Directions reverseDir = direction.getReverse(); //Reverse direction
-    int distChecked = 0;
-    
-    Cell neighbor = currentLoc.getNeighbors().get(direction);
+    //Only caves count toward the distance, and the arrow stops in a cave with no way on.
+    Cell target = dungeonGrid.getArrowRays().getTarget(player.getLocation(), direction, distance);
     
-    CellTypes type;
-    while (distChecked != distance) {
-      type = neighbor.getType();
+    //Check if the cave the arrow lands in has a monster
+    if (target != null && target.getMonster() != null
+            && target.getMonster().getStatus() != Status.DEAD) {
       
-      if (type == CellTypes.CAVE) {
-        distChecked += 1; //If it's a cave type, the distance is counted.
-        
-        //get the neighbor in the same direction.
-        if (distChecked != distance && neighbor.getNeighbors().containsKey(direction)) {
-          currentLoc = neighbor;
-          neighbor = neighbor.getNeighbors().get(direction);
-        } else if (distChecked != distance && ! neighbor.getNeighbors().containsKey(direction)) {
-          //player.decreaseNumArrows();
-          break;
-        }
-      }
-      if (type == CellTypes.TUNNEL) {
-        //if it's a tunnel, get the other neighbor that is not the neighbor where the arrow was
-        // thrown
-        if (distChecked != distance) {
-          Map<Directions, Cell> neighbors = new HashMap<>();
-          neighbors.putAll(neighbor.getNeighbors()); //First get a copy of neighbors
-          neighbors.remove(
-                  incomingDir.getReverse()); //Then remove the neighbor where the arrow came from.
-          //break;
-          currentLoc = neighbor;
-          incomingDir = neighbors.keySet().iterator().next();
-          neighbor = neighbors.get(incomingDir); //The arrow will pass
-        }
-        //The cell that is not the neighbor the arrow came from.
-        //distChecked += 1; //distance not counted for tunnels
-      }
+      //Monster is attacked
+      target.getMonster().takeHit();
+      dungeonGrid.markChanged(target);
+      output.append("\nYou hear a great howl in the distance.");
       
-      //Check if the current location has a monster
-      if (distChecked == distance) {
-        if (neighbor.getMonster() != null && neighbor.getMonster().getStatus() != Status.DEAD) {
-          
-          //Monster is attacked
-          neighbor.getMonster().takeHit();
-          output.append("\nYou hear a great howl in the distance.");
-          
-          if (neighbor.getMonster().getStatus() == Status.DEAD) {
-            output.append("\nYou killed a monster nearby.");
-            //neighbor.setMonster(null);
-            //If the monster is dead, update smell in neighboring cells.
-            updateSmell(neighbor, - 1);
-          }
-        }
+      if (target.getMonster().getStatus() == Status.DEAD) {
+        output.append("\nYou killed a monster nearby.");
+        //If the monster is dead, update smell in neighboring cells.
+        updateSmell(target, - 1);
       }
     }
     player.decreaseNumArrows();
@@ -676,79 +883,84 @@ public class Game implements AdventureGame {
     }
   }
   
-  //Get the start cell.
+  //Get the start cell. A random cave is picked, and if no cave is far enough from it to be the
+  // end, the other caves are tried in a random order.
   private Cell getStartNode() {
-    List<Cell> caves = getCaveCells();
-    int randomIndex = random.getRandomInt(0, caves.size() - 1);
-    return caves.get(randomIndex);
+    CellRegistry caves = dungeonGrid.getCellRegistry();
+    int randomIndex = random.getRandomInt(0, caves.getCaveCount() - 1);
+    Cell start = caves.getCave(randomIndex);
+    if (countEndNodes(start) > 0) {
+      return start;
+    }
+    caves.startCaveDraw(start);
+    while (caves.getDrawsLeft() > 0) {
+      start = caves.draw(random);
+      if (countEndNodes(start) > 0) {
+        return start;
+      }
+    }
+    throw new IllegalArgumentException("No end location that meets the required distance of 5 "
+            + "could be found. Please try again, or try to create a bigger sized Dungeon.");
   }
   
-  //Get the end cell.
+  //Get the end cell, picked at random from the caves that are far enough from the start.
   private Cell getEndNode(Cell startLocation) {
-    boolean endLocationFound = false;
-    Cell endLocation = null;
-    List<Cell> caves = getCaveCells();
-    int numChecks = 0;
-    boolean conditionMet = false;
-    while (! conditionMet) {
-      int randomIndex = random.getRandomInt(0, caves.size() - 1);
-      endLocation = caves.get(randomIndex);
-      //Check if it's a valid end location based on manhattan distance.
-      endLocationFound = isDestinationValid(startLocation, endLocation);
-      numChecks += 1;
-      if ((endLocationFound) || (numChecks >= caves.size())) {
-        conditionMet = true;
-        
+    CellRegistry caves = dungeonGrid.getCellRegistry();
+    int endIndex = random.getRandomInt(0, countEndNodes(startLocation) - 1);
+    for (int i = 0; i < caves.getCaveCount(); i++) {
+      Cell cave = caves.getCave(i);
+      if (startDistances.getDistance(cave) >= 5) {
+        if (endIndex == 0) {
+          return cave;
+        }
+        endIndex -= 1;
       }
     }
-    
-    if (! endLocationFound) {
-      endCaveNotFoundCount += 1;
-      
-      if (endCaveNotFoundCount > 5) {
-        throw new IllegalArgumentException("No end location that meets the required distance of 5 "
-                + "could be found. Please try again, or try to create a bigger sized Dungeon.");
+    throw new IllegalStateException("The end cave could not be found.");
+  }
+  
+  //Count the caves that are far enough from the start to be the end.
+  private int countEndNodes(Cell startLocation) {
+    CellRegistry caves = dungeonGrid.getCellRegistry();
+    computeStartDistances(startLocation);
+    int count = 0;
+    for (int i = 0; i < caves.getCaveCount(); i++) {
+      if (startDistances.getDistance(caves.getCave(i)) >= 5) {
+        count += 1;
       }
-      return getEndNode(getStart());
     }
-    return endLocation;
+    return count;
+  }
+  
+  //Get the distances to the destination, which are found once, the first time they are needed.
+  private DistanceField getGoalDistances() {
+    if (goalDistances == null) {
+      goalDistances = new DistanceField(dungeonGrid.getGrid());
+      goalDistances.compute(endPosition);
+    }
+    return goalDistances;
+  }
+  
+  //Compute the distances through the paths from a start cell, reusing the buffers of the field.
+  private void computeStartDistances(Cell startLocation) {
+    if (startDistances == null) {
+      startDistances = new DistanceField(dungeonGrid.getGrid());
+    }
+    startDistances.compute(startLocation);
   }
   
-  //https://stackoverflow.com/questions/55398562/how-to-efficiently-calculate-distance-in-toroidal-
-  // space/55398869
   //Check if the destination is
   
   /**
-   * Check if the destination is valid.
+   * Check if the destination is valid, that is if it takes at least 5 moves through the paths of
+   * the Dungeon to get there from the start.
    * @param startLocation start cell.
    * @param endLocation end cell.
    * @return true or false.
    */
   public boolean isDestinationValid(Cell startLocation, Cell endLocation) {
-    int dist = 0;
-    if (! dungeonGrid.isWrapped()) {
-      dist = Math.abs(startLocation.getX() - endLocation.getX()) + Math.abs(
-              startLocation.getY() - endLocation.getY());
-    }
-    if (dungeonGrid.isWrapped()) {
-      int distX = Math.abs(startLocation.getX() - endLocation.getX());
-      if (distX > (dungeonGrid.getRows() / 2)) {
-        distX = dungeonGrid.getRows() - distX;
-      }
-      int distY = Math.abs(startLocation.getY() - endLocation.getY());
-      if (distY > (dungeonGrid.getColumns() / 2)) {
-        distY = dungeonGrid.getColumns() - distY;
-      }
-      dist = (int) Math.ceil(Math.sqrt(Math.pow(distX, 2) + Math.pow(distY, 2)));
-    }
-    return dist >= 5;
-  }
-  
-  //Get all the cells of cave type.
-  private List<Cell> getCaveCells() {
-    //Get all the caves
-    return Arrays.stream(dungeonGrid.getGrid()).flatMap(Arrays::stream)
-            .filter(s -> s.getType().equals(CellTypes.CAVE)).collect(Collectors.toList());
+    computeStartDistances(startLocation);
+    return startDistances.getDistance(endLocation) >= 5;
   }
   
   //Add a dungeon to the game.
@@ -763,29 +975,22 @@ public class Game implements AdventureGame {
   //Set additional objects in random cave and tunnel cells in the dungeon. Note: one Monster is
   // already set in the end Cave during initialization.
   private void setMonsters() {
-    //Get all the cave cells
-    List<Cell> cells = Arrays.stream(this.dungeonGrid.getGrid()).flatMap(Arrays::stream)
-            .filter(s -> s.getType().equals(CellTypes.CAVE)).collect(Collectors.toList());
-    
-    //Remove start and end caves from this list
-    cells.remove(startPosition);
-    cells.remove(endPosition);
+    //Draw from all the caves apart from the start and end caves
+    CellRegistry caves = dungeonGrid.getCellRegistry();
+    int numCaves = caves.startCaveDraw(startPosition, endPosition);
     
     //get the number of cells to assign the arrows.
     if (this.dungeonGrid.getPercentOfMonsters() != 0) {
-      int numCells =
-              (int) Math.ceil((cells.size() * this.dungeonGrid.getPercentOfMonsters()) / 100);
+      int numCells = (int) Math.ceil((numCaves * this.dungeonGrid.getPercentOfMonsters()) / 100);
       numCells -= 1; //Decrease 1 from number as one monster is already in end cave.
       
       //Assign monsters to random caves apart from start cell, which shouldn't have any monster,
       // and end cave, which already has one monster.
       for (int i = 0; i < numCells; i++) {
-        int randomIndex = random.getRandomInt(0, cells.size() - 1);
-        Cell cell = cells.get(randomIndex);
+        Cell cell = caves.draw(random);
         
         //assign a monster to this cave.
         moveMonsterTo(new Monster("Otyugh", i + 2), cell); //ID starting from 2.
-        cells.remove(cell); //remove from the list of cells to assign monsters.
       }
     }
   }
@@ -851,29 +1056,21 @@ public class Game implements AdventureGame {
   //Add a thief to a random cave
   private void setThieves(int percentOfThieves) {
     //Get all the caves
-    List<Cell> caveCells = Arrays.stream(dungeonGrid.getGrid()).flatMap(Arrays::stream)
-            .filter(s -> s.getType().equals(CellTypes.CAVE)).collect(Collectors.toList());
+    CellRegistry caves = dungeonGrid.getCellRegistry();
     
     if (percentOfThieves != 0) {
       //get the number of caves to assign pits (assigning by percentage of monsters)
-      int numCavesWithThieves = (int) Math.ceil((caveCells.size() * percentOfThieves) / 100);
+      int numCavesWithThieves = (int) Math.ceil((caves.getCaveCount() * percentOfThieves) / 100);
       
-      //Remove start and end caves from this list
-      caveCells.remove(startPosition);
-      caveCells.remove(endPosition);
+      //Draw from all the caves apart from the start and end caves
+      caves.startCaveDraw(startPosition, endPosition);
       
-      thieves = new Thieves[numCavesWithThieves];
       for (int i = 0; i < numCavesWithThieves; i++) {
-        int upperbound = caveCells.size() - 1;
-        int randomIndex = 0;
-        if (upperbound > 0) {
-          randomIndex = random.getRandomInt(0, upperbound);
-          Cell cave = caveCells.get(randomIndex);
+        if (caves.getDrawsLeft() > 1) {
+          Cell cave = caves.draw(random);
           Thieves thief = new Thief(i);
           cave.setThief(thief);
           thief.setLocation(cave);
-          thieves[i] = cave.getThief();
-          caveCells.remove(cave);
         }
         
       }
@@ -886,26 +1083,26 @@ public class Game implements AdventureGame {
     int pitInt = 0;
     
     //Get all the caves
-    List<Cell> caveCells = Arrays.stream(this.dungeonGrid.getGrid()).flatMap(Arrays::stream)
-            .filter(s -> s.getType().equals(CellTypes.CAVE)).collect(Collectors.toList());
+    CellRegistry caves = dungeonGrid.getCellRegistry();
     if (percentOfPits != 0) {
       //get the number of caves to assign pits (assigning by percentage of monsters)
-      int numCavesWithPits = (int) Math.ceil((caveCells.size() * percentOfPits) / 100);
+      int numCavesWithPits = (int) Math.ceil((caves.getCaveCount() * percentOfPits) / 100);
       
-      //Remove start and end caves from this list
-      caveCells.remove(startPosition);
-      caveCells.remove(endPosition);
+      //Draw from all the caves apart from the start and end caves
+      caves.startCaveDraw(startPosition, endPosition);
       
-      //Assign random caves as pit type
+      //Draw the random caves first, as making a pit moves the caves around in the index.
+      Cell[] pitCaves = new Cell[numCavesWithPits];
       for (int i = 0; i < numCavesWithPits; i++) {
-        int randomIndex = random.getRandomInt(0, caveCells.size() - 1);
-        Cell cave = caveCells.get(randomIndex);
-        //Assign this cave as pit type
-        cave.setType(CellTypes.PIT);
+        pitCaves[i] = caves.draw(random);
+      }
+      
+      //Assign these caves as pit type
+      for (Cell cave : pitCaves) {
+        caves.markPit(cave);
         for (Cell neighbor : cave.getNeighbors().values()) {
           neighbor.setAsPitNeighbor(true);
         }
-        caveCells.remove(cave);
       }
     }
     
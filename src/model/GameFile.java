@@ -0,0 +1,277 @@
+package model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.Map;
+
+import model.gameobjects.actors.Monster;
+import model.gameobjects.actors.Monsters;
+import model.gameobjects.actors.Player;
+import model.gameobjects.actors.Players;
+import model.gameobjects.actors.Status;
+import model.gameobjects.actors.Thief;
+import model.gameobjects.actors.Thieves;
+import model.gameobjects.cell.Cell;
+import model.gameobjects.cell.CellStore;
+import model.gameobjects.cell.Inventory;
+import model.gameobjects.cell.Treasure;
+import random.RandomGenerator;
+import random.TrueRandomGenerator;
+
+/**
+ * This class saves a game part way through to a file, and loads it back. A save file starts with
+ * a magic number and a format version, then the settings of the game, the state of the random
+ * generator, the player and the treasure stolen from it. The cells follow as written by the cell
+ * store: the shape of the Dungeon in 2 bits for each cell, then the contents of the cells as
+ * arrays of primitives. The monsters and the thieves come last, each with the ID of its cell, and
+ * then the command log of the game if it keeps one, with its keyframes. A game with a log also
+ * keeps a bit for every cell that differs from a game newly built from its settings, so the
+ * keyframes the loaded game goes on to record only hold those cells. Every number is written
+ * little-endian, the order of the arrays in memory on most machines.
+ *
+ * <p>A file is written and read through a memory map of the whole file, and the arrays of the
+ * cells are copied in bulk straight between the map and the cell store, so a Dungeon of millions
+ * of cells is saved and loaded in a fraction of a second. A save file cannot be larger than 2 GB.
+ */
+public final class GameFile {
+  private static final int MAGIC = 0x44475346;
+  private static final int VERSION = 2;
+  private static final Treasure[] TREASURES = Treasure.values();
+  private static final int HEADER_LENGTH = 8 + 5 * Integer.BYTES + 2 + Long.BYTES + 1
+          + 2 * Integer.BYTES;
+  private static final int INVENTORY_LENGTH = (2 + TREASURES.length) * Integer.BYTES;
+  private static final int PLAYER_LENGTH = 3 * Integer.BYTES + INVENTORY_LENGTH;
+  private static final int MONSTER_LENGTH = 3 * Integer.BYTES;
+  private static final int THIEF_LENGTH = 2 * Integer.BYTES + INVENTORY_LENGTH;
+  
+  //A class of static methods is not made.
+  private GameFile() {
+  }
+  
+  /**
+   * Save a game to a file, which is replaced if it exists.
+   * @param game the game to save.
+   * @param path the path of the file.
+   * @throws IOException if the file cannot be written, or the game is too large for one file.
+   */
+  public static void save(Game game, Path path) throws IOException {
+    Dungeon dungeon = game.getDungeon();
+    if (dungeon == null) {
+      throw new IllegalStateException("The game has no Dungeon to save.");
+    }
+    CellStore store = dungeon.getCellStore();
+    byte[] log = new byte[0];
+    if (game.getCommandLog() != null) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      game.getCommandLog().writeTo(out);
+      log = out.toByteArray();
+    }
+    long length = HEADER_LENGTH + PLAYER_LENGTH + INVENTORY_LENGTH
+            + CellStore.getWrittenLength(store.getRows(), store.getColumns())
+            + Integer.BYTES + (long) store.getMonsterCells().size() * MONSTER_LENGTH
+            + Integer.BYTES + (long) store.getThiefCells().size() * THIEF_LENGTH
+            + Integer.BYTES + log.length + (log.length > 0 ? getChangedLength(store.size()) : 0);
+    if (length > Integer.MAX_VALUE) {
+      throw new IOException("The game is too large to save in one file.");
+    }
+    
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+      ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length)
+              .order(ByteOrder.LITTLE_ENDIAN);
+      buffer.putInt(MAGIC);
+      buffer.putInt(VERSION);
+      buffer.putInt(store.getRows());
+      buffer.putInt(store.getColumns());
+      buffer.putInt(dungeon.getInterconnectivity());
+      buffer.putInt(dungeon.getPercentOfTreasure());
+      buffer.putInt(dungeon.getPercentOfMonsters());
+      buffer.put((byte) (dungeon.isWrapped() ? 1 : 0));
+      //A generator that cannot be read is not saved, and the loaded game gets a new one.
+      boolean hasState = dungeon.random instanceof TrueRandomGenerator;
+      buffer.put((byte) (hasState ? 1 : 0));
+      buffer.putLong(hasState ? ((TrueRandomGenerator) dungeon.random).getState() : 0);
+      buffer.put((byte) (game.isGameOver() ? 1 : 0));
+      buffer.putInt(game.getStart().getID());
+      buffer.putInt(game.getDestination().getID());
+      Players player = game.getPlayer();
+      buffer.putInt(player.getID());
+      buffer.putInt(player.getLocation().getID());
+      buffer.putInt(player.getStatus().ordinal());
+      putInventory(buffer, player.getInventory().getArrows(), player.getTreasureCollected());
+      putInventory(buffer, 0, game.getTreasureStolen());
+      store.writeTo(buffer);
+      
+      buffer.putInt(store.getMonsterCells().size());
+      for (int id : store.getMonsterCells()) {
+        Monsters monster = store.getCell(id).getMonster();
+        buffer.putInt(id);
+        buffer.putInt(monster.getID());
+        buffer.putInt(monster.getHits());
+      }
+      buffer.putInt(store.getThiefCells().size());
+      for (int id : store.getThiefCells()) {
+        Thieves thief = store.getCell(id).getThief();
+        buffer.putInt(id);
+        buffer.putInt(thief.getID());
+        putInventory(buffer, thief.getInventory().getArrows(), thief.getTreasureCollected());
+      }
+      buffer.putInt(log.length);
+      buffer.put(log);
+      if (log.length > 0) {
+        BitSet changed = new BitSet(store.size());
+        for (int id = 0; id < store.size(); id++) {
+          if (game.isChangedSinceBuilt(id)) {
+            changed.set(id);
+          }
+        }
+        byte[] bits = changed.toByteArray();
+        buffer.put(bits);
+        buffer.put(new byte[getChangedLength(store.size()) - bits.length]);
+      }
+    }
+  }
+  
+  /**
+   * Load a game saved to a file.
+   * @param path the path of the file.
+   * @return the game as it was saved.
+   * @throws IOException if the file cannot be read, or does not hold a saved game.
+   */
+  public static Game load(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("The file is too large to hold a saved game.");
+      }
+      ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+              .order(ByteOrder.LITTLE_ENDIAN);
+      return read(buffer);
+    } catch (BufferUnderflowException | IllegalArgumentException
+            | IndexOutOfBoundsException e) {
+      throw new IOException("The saved game is corrupt.", e);
+    }
+  }
+  
+  //Read a game from a buffer over the whole of a save file.
+  private static Game read(ByteBuffer buffer) throws IOException {
+    if (buffer.remaining() < 2 * Integer.BYTES || buffer.getInt() != MAGIC) {
+      throw new IOException("The file does not hold a saved game.");
+    }
+    int version = buffer.getInt();
+    if (version != VERSION) {
+      throw new IOException(String.format("Unsupported saved game version: %d", version));
+    }
+    int rows = buffer.getInt();
+    int cols = buffer.getInt();
+    int interconnectivity = buffer.getInt();
+    int percentOfTreasure = buffer.getInt();
+    int percentOfMonsters = buffer.getInt();
+    boolean isWrapped = buffer.get() == 1;
+    boolean hasState = buffer.get() == 1;
+    long state = buffer.getLong();
+    boolean gameOver = buffer.get() == 1;
+    int start = buffer.getInt();
+    int end = buffer.getInt();
+    Players player = new Player(buffer.getInt());
+    int location = buffer.getInt();
+    player.setStatus(Status.values()[buffer.getInt()]);
+    getInventory(buffer, player.getInventory());
+    Inventory treasureStolen = new Inventory();
+    getInventory(buffer, treasureStolen);
+    if (rows < 1 || cols < 1 || (long) rows * cols > Integer.MAX_VALUE
+            || CellStore.getWrittenLength(rows, cols) > buffer.remaining()) {
+      throw new IOException("The saved game is corrupt.");
+    }
+    CellStore store = CellStore.readFrom(rows, cols, buffer);
+    
+    int monsters = buffer.getInt();
+    for (int i = 0; i < monsters; i++) {
+      //Every monster in a game is an Otyugh, so only its ID is saved.
+      Cell cell = store.getCell(buffer.getInt());
+      Monsters monster = new Monster("Otyugh", buffer.getInt());
+      for (int hits = buffer.getInt(); hits > 0; hits--) {
+        monster.takeHit();
+      }
+      monster.setLocation(cell);
+      cell.setMonster(monster);
+    }
+    int thieves = buffer.getInt();
+    for (int i = 0; i < thieves; i++) {
+      Cell cell = store.getCell(buffer.getInt());
+      Thieves thief = new Thief(buffer.getInt());
+      getInventory(buffer, thief.getInventory());
+      thief.setLocation(cell);
+      cell.setThief(thief);
+    }
+    CommandLog log = null;
+    BitSet changed = null;
+    int logLength = buffer.getInt();
+    if (logLength > 0) {
+      byte[] bytes = new byte[logLength];
+      buffer.get(bytes);
+      log = CommandLog.readFrom(new ByteArrayInputStream(bytes));
+      byte[] bits = new byte[getChangedLength(store.size())];
+      buffer.get(bits);
+      changed = BitSet.valueOf(bits);
+    }
+    
+    RandomGenerator random = new TrueRandomGenerator();
+    if (hasState) {
+      ((TrueRandomGenerator) random).setState(state);
+    }
+    Dungeon dungeon = new Dungeon(random, store, interconnectivity, isWrapped, percentOfTreasure,
+            percentOfMonsters);
+    player.setLocation(store.getCell(location));
+    Game game = new Game(dungeon, player, store.getCell(start), store.getCell(end),
+            treasureStolen.getTreasureView(), gameOver, log);
+    if (changed != null) {
+      game.setChangedSinceBuilt(changed);
+    }
+    return game;
+  }
+  
+  //Get the number of bytes of a bit for every cell.
+  private static int getChangedLength(int cells) {
+    return (cells + Byte.SIZE - 1) / Byte.SIZE;
+  }
+  
+  //Write the arrows of an inventory, a bit for each listed treasure, and the count of every
+  // treasure.
+  private static void putInventory(ByteBuffer buffer, int arrows,
+                                   Map<Treasure, Integer> treasures) {
+    buffer.putInt(arrows);
+    int listed = 0;
+    for (Treasure treasure : treasures.keySet()) {
+      listed |= 1 << treasure.ordinal();
+    }
+    buffer.putInt(listed);
+    for (Treasure treasure : TREASURES) {
+      Integer count = treasures.get(treasure);
+      buffer.putInt(count == null ? 0 : count);
+    }
+  }
+  
+  //Read an inventory written by putInventory.
+  private static void getInventory(ByteBuffer buffer, Inventory inventory) {
+    inventory.setArrows(buffer.getInt());
+    int listed = buffer.getInt();
+    Map<Treasure, Integer> treasures = new EnumMap<>(Treasure.class);
+    for (Treasure treasure : TREASURES) {
+      int count = buffer.getInt();
+      if ((listed & (1 << treasure.ordinal())) != 0) {
+        treasures.put(treasure, count);
+      }
+    }
+    inventory.setTreasure(treasures);
+  }
+}
@@ -0,0 +1,146 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import model.gameobjects.Directions;
+import model.gameobjects.actors.Player;
+import model.gameobjects.cell.Treasure;
+
+/**
+ * This class plays the commands of a command log again on a new game built from the same settings
+ * and seed, with no view attached. The game it gives back is in the same state as the game the log
+ * was recorded from, after the same number of commands.
+ *
+ * <p>A replay to a turn starts from the nearest keyframe before it: the captured state of the
+ * game at a multiple of the keyframe interval, and the position of the next command in the log.
+ * A replayer with the interval of the log starts with the keyframes recorded in the log, so
+ * seeking to any turn of a recorded session plays fewer commands than the interval no matter how
+ * long the session is. Every time a replay passes a multiple of the interval that has no keyframe
+ * yet, the replayer keeps one.
+ */
+public class GameReplayer {
+  private static final Directions[] DIRECTIONS = Directions.values();
+  private static final Treasure[] TREASURES = Treasure.values();
+  private final CommandLog log;
+  private final int interval;
+  private final List<Keyframe> keyframes;
+  
+  /**
+   * Constructor for a replayer of a command log, with the keyframe interval of the log.
+   * @param log the log to play again.
+   */
+  public GameReplayer(CommandLog log) {
+    this(log, CommandLog.KEYFRAME_INTERVAL);
+  }
+  
+  /**
+   * Constructor for a replayer of a command log.
+   * @param log the log to play again.
+   * @param interval the number of commands between keyframes.
+   */
+  public GameReplayer(CommandLog log, int interval) {
+    if (log == null) {
+      throw new IllegalArgumentException("The command log cannot be null.");
+    }
+    if (interval < 1) {
+      throw new IllegalArgumentException("The keyframe interval must be at least 1.");
+    }
+    this.log = log;
+    this.interval = interval;
+    this.keyframes = new ArrayList<>();
+    keyframes.add(new Keyframe(0, null));
+    if (interval == CommandLog.KEYFRAME_INTERVAL) {
+      for (int i = 0; i < log.getKeyframeCount(); i++) {
+        keyframes.add(new Keyframe(log.getKeyframePosition(i), log.getKeyframeState(i)));
+      }
+    }
+  }
+  
+  /**
+   * Get the number of keyframes kept so far, including the start of the game.
+   * @return count of keyframes.
+   */
+  public int getKeyframeCount() {
+    return keyframes.size();
+  }
+  
+  /**
+   * Build the game again and play every command in the log.
+   * @return the game after the last command.
+   */
+  public Game replay() {
+    return replayTo(log.getCommandCount());
+  }
+  
+  /**
+   * Build the game again and play the commands in the log up to a turn.
+   * @param turn the number of commands to play.
+   * @return the game after that many commands.
+   */
+  public Game replayTo(int turn) {
+    if (turn < 0 || turn > log.getCommandCount()) {
+      throw new IllegalArgumentException(String.format("Invalid turn: %d", turn));
+    }
+    int index = Math.min(turn / interval, keyframes.size() - 1);
+    Keyframe keyframe = keyframes.get(index);
+    Game game = new Game(log.getRows(), log.getColumns(), log.getInterconnectivity(),
+            log.isWrapped(), log.getPercentOfTreasure(), log.getPercentOfMonsters(),
+            new Player(1), log.getSeed(), true);
+    if (keyframe.state != null) {
+      game.restoreState(keyframe.state, log.copyOf(index * interval, keyframe.position));
+    }
+    VarIntBuffer.Cursor cursor = log.cursor(keyframe.position);
+    for (int played = index * interval; played < turn; played++) {
+      apply(game, cursor);
+      if ((played + 1) % interval == 0 && (played + 1) / interval == keyframes.size()) {
+        keyframes.add(new Keyframe(cursor.getPosition(), getState(game, played + 1)));
+      }
+    }
+    return game;
+  }
+  
+  //Get the state of a game at a turn, from the keyframes the game recorded in its own log if it
+  // kept one at that turn.
+  private static byte[] getState(Game game, int turn) {
+    CommandLog recorded = game.getCommandLog();
+    int index = turn / CommandLog.KEYFRAME_INTERVAL - 1;
+    if (turn % CommandLog.KEYFRAME_INTERVAL == 0 && index < recorded.getKeyframeCount()) {
+      return recorded.getKeyframeState(index);
+    }
+    return game.captureState();
+  }
+  
+  //Read the next command and play it on the game.
+  private static void apply(Game game, VarIntBuffer.Cursor cursor) {
+    int opcode = cursor.readInt();
+    switch (opcode) {
+      case CommandLog.MOVE:
+        game.movePlayer(DIRECTIONS[cursor.readInt()]);
+        break;
+      case CommandLog.SHOOT:
+        Directions direction = DIRECTIONS[cursor.readInt()];
+        game.shootArrow(direction, cursor.readInt());
+        break;
+      case CommandLog.PICK_TREASURE:
+        game.pickTreasure(TREASURES[cursor.readInt()]);
+        break;
+      case CommandLog.PICK_ARROWS:
+        game.pickArrows();
+        break;
+      default:
+        throw new IllegalStateException(String.format("Unknown command: %d", opcode));
+    }
+  }
+  
+  //The state of the game at a multiple of the interval, and the position of the next command.
+  private static final class Keyframe {
+    private final int position;
+    private final byte[] state;
+    
+    private Keyframe(int position, byte[] state) {
+      this.position = position;
+      this.state = state;
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package model;
+
+import model.gameobjects.Directions;
+import model.gameobjects.cell.Location;
+
+/**
+ * This class represents a topology sink that keeps the Dungeon layout in memory as a grid of
+ * cells, with the entrances and neighbors of every cell set from the rows it receives.
+ */
+public class GridTopologySink implements TopologySink {
+  private Location[][] grid;
+  private byte[] previousExits;
+  private int cols;
+  
+  /**
+   * Get the grid built from the rows received so far.
+   * @return the 2d array of cells, or null if no Dungeon has been started.
+   */
+  public Location[][] getGrid() {
+    return grid;
+  }
+  
+  /**
+   * Start receiving the layout of a new Dungeon.
+   * @param rows the number of rows in the Dungeon.
+   * @param cols the number of columns in the Dungeon.
+   * @param isWrapping if the Dungeon is of wrapping or non-wrapping type.
+   */
+  @Override
+  public void start(int rows, int cols, boolean isWrapping) {
+    this.grid = new Location[rows][cols];
+    this.previousExits = new byte[cols];
+    this.cols = cols;
+  }
+  
+  /**
+   * Add the cells of the next row to the grid, and build their paths to the east and to the row
+   * above.
+   * @param row the index of the row.
+   * @param exits one byte for each cell in the row, with the EAST_EXIT and SOUTH_EXIT bits.
+   */
+  @Override
+  public void acceptRow(int row, byte[] exits) {
+    if (grid == null) {
+      throw new IllegalStateException("The sink has not been started.");
+    }
+    for (int c = 0; c < cols; c++) {
+      grid[row][c] = new Location(row * cols + c, row, c);
+    }
+    for (int c = 0; c < cols; c++) {
+      if ((exits[c] & EAST_EXIT) != 0) {
+        addPath(grid[row][c], grid[row][(c + 1) % cols], Directions.EAST);
+      }
+      if (row > 0 && (previousExits[c] & SOUTH_EXIT) != 0) {
+        addPath(grid[row - 1][c], grid[row][c], Directions.SOUTH);
+      }
+    }
+    System.arraycopy(exits, 0, previousExits, 0, cols);
+  }
+  
+  /**
+   * Build the paths from the last row that wrap around to the first row.
+   */
+  @Override
+  public void finish() {
+    int last = grid.length - 1;
+    for (int c = 0; c < cols; c++) {
+      if ((previousExits[c] & SOUTH_EXIT) != 0) {
+        addPath(grid[last][c], grid[0][c], Directions.SOUTH);
+      }
+    }
+  }
+  
+  //Build a path from a cell to its east or south neighbor.
+  private void addPath(Location cell, Location other, Directions direction) {
+    if (direction == Directions.EAST) {
+      cell.setE(1);
+      other.setW(1);
+    } else {
+      cell.setS(1);
+      other.setN(1);
+    }
+    cell.setNeighbors(direction, other, "add");
+    other.setNeighbors(direction.getReverse(), cell, "add");
+  }
+}
@@ -0,0 +1,91 @@
+package model;
+
+import java.util.Arrays;
+
+import model.gameobjects.actors.Status;
+import model.gameobjects.cell.Cell;
+import model.gameobjects.cell.CellStore;
+import model.gameobjects.cell.CellTypes;
+
+/**
+ * This is a package private class that represents the hazards a player meets on entering each
+ * cell of a Dungeon, as one bitmask per cell. A cell with no hazards has a mask of 0, so entering
+ * it costs a single check.
+ *
+ * <p>The mask of a cell is worked out again only when the cell store says the type, monster or
+ * thief of the cell changed since the mask was last worked out, so any such change made through a
+ * cell is picked up. A change to the status of a monster is not a change to its cell, so it has
+ * to be marked in the store.
+ */
+class HazardMap {
+  static final int MONSTER = 1;
+  static final int WOUNDED_MONSTER = 2;
+  static final int PIT = 4;
+  static final int THIEF = 8;
+  static final int GOAL = 16;
+  private final CellStore store;
+  private final byte[] hazards;
+  private final long[] versions;
+  private int goalId;
+  
+  /**
+   * Constructor for a hazard map of the cells in a store.
+   * @param store the store with the cells of the Dungeon.
+   */
+  HazardMap(CellStore store) {
+    this.store = store;
+    this.hazards = new byte[store.size()];
+    this.versions = new long[store.size()];
+    this.goalId = -1;
+    Arrays.fill(versions, -1);
+  }
+  
+  /**
+   * Set the cell the player has to reach to win.
+   * @param goal the goal cell.
+   */
+  void setGoal(Cell goal) {
+    if (goalId != -1) {
+      versions[goalId] = -1;
+    }
+    goalId = goal.getID();
+    versions[goalId] = -1;
+  }
+  
+  /**
+   * Get the hazards in a cell.
+   * @param cell the cell to get the hazards of.
+   * @return the bitmask of hazards in the cell.
+   */
+  int getHazards(Cell cell) {
+    int id = cell.getID();
+    long version = store.getHazardChangeVersion(id);
+    if (versions[id] != version) {
+      hazards[id] = (byte) findHazards(cell);
+      versions[id] = version;
+    }
+    return hazards[id];
+  }
+  
+  //Work out the hazards in a cell from its contents.
+  private int findHazards(Cell cell) {
+    int mask = 0;
+    if (cell.getMonster() != null) {
+      if (cell.getMonster().getStatus() == Status.ALIVE) {
+        mask |= MONSTER;
+      } else if (cell.getMonster().getStatus() == Status.WOUNDED) {
+        mask |= WOUNDED_MONSTER;
+      }
+    }
+    if (cell.getType() == CellTypes.PIT) {
+      mask |= PIT;
+    }
+    if (cell.hasThief()) {
+      mask |= THIEF;
+    }
+    if (cell.getID() == goalId) {
+      mask |= GOAL;
+    }
+    return mask;
+  }
+}
@@ -0,0 +1,434 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import model.gameobjects.Directions;
+import model.gameobjects.cell.Cell;
+
+/**
+ * This class finds the shortest routes between cells of a Dungeon, counted in moves through the
+ * built paths. A route is found with an A* search, guided by the number of rows and columns
+ * between the two cells, which takes the short way around the edges of a wrapping Dungeon.
+ *
+ * <p>A route through any of the cells is searched for on the cave graph of the Dungeon, where a
+ * chain of tunnels is one edge between the caves at its ends, so the search only steps from cave
+ * to cave. A cell in a tunnel is joined to the caves at the ends of its chain by walking the chain
+ * from the cell, and the tunnels of every edge on the route are walked again to build the route.
+ * A route that may only pass through some of the cells is searched for on the grid, since a chain
+ * may be only partly allowed.
+ *
+ * <p>The searches work on arrays of primitives that are kept from one search to the next, and
+ * every search stamps the cells or caves it has seen with its own number, so nothing has to be
+ * cleared between searches. The Dungeon does not change shape after it is built, so every route
+ * through any of the cells is kept in a cache of the most recently used routes and never has to be
+ * found again while it stays there. A route that may only pass through some of the cells depends
+ * on more than the two cells, so it is found again every time. A path service is not safe to use
+ * from more than one thread.
+ */
+public class PathService {
+  private static final Directions[] DIRECTIONS = Directions.values();
+  private static final int[] NO_PATH = new int[0];
+  private static final int DIRECT = 2;
+  private final Cell[] cells;
+  private final CaveGraph graph;
+  private final int rows;
+  private final int cols;
+  private final boolean isWrapped;
+  private final int[] costs;
+  private final int[] parents;
+  private final int[] seen;
+  private final int[] closed;
+  private final int[] edges;
+  private final int[] goalNodes;
+  private final int[] goalCosts;
+  private final int[] goalExits;
+  private long[] open;
+  private int openSize;
+  private int search;
+  private final Map<Long, int[]> paths;
+  
+  /**
+   * Constructor for a path service over a Dungeon grid. The ID of every cell must be its row times
+   * the number of columns plus its column.
+   * @param grid the Dungeon grid.
+   * @param isWrapped whether the Dungeon is of wrapping type or not.
+   * @param cacheSize the number of routes to keep.
+   */
+  public PathService(Cell[][] grid, boolean isWrapped, int cacheSize) {
+    if (grid == null || grid.length == 0) {
+      throw new IllegalArgumentException("The grid cannot be null or empty.");
+    }
+    if (cacheSize < 0) {
+      throw new IllegalArgumentException("The cache size cannot be negative.");
+    }
+    this.rows = grid.length;
+    this.cols = grid[0].length;
+    this.isWrapped = isWrapped;
+    this.cells = new Cell[rows * cols];
+    for (Cell[] row : grid) {
+      for (Cell cell : row) {
+        cells[cell.getID()] = cell;
+      }
+    }
+    this.costs = new int[cells.length];
+    this.parents = new int[cells.length];
+    this.seen = new int[cells.length];
+    this.closed = new int[cells.length];
+    this.graph = new CaveGraph(grid);
+    this.edges = new int[graph.getNodeCount()];
+    this.goalNodes = new int[2];
+    this.goalCosts = new int[2];
+    this.goalExits = new int[2];
+    this.open = new long[16];
+    this.openSize = 0;
+    this.search = 0;
+    this.paths = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, int[]> eldest) {
+        return size() > cacheSize;
+      }
+    };
+  }
+  
+  /**
+   * Get the number of moves on the shortest route between two cells.
+   * @param from the cell to start from.
+   * @param to the cell to reach.
+   * @return the number of moves, or -1 if the cell cannot be reached.
+   */
+  public int getDistance(Cell from, Cell to) {
+    return findPath(from, to).length - 1;
+  }
+  
+  /**
+   * Get the cells on the shortest route between two cells, starting with the cell to start from
+   * and ending with the cell to reach.
+   * @param from the cell to start from.
+   * @param to the cell to reach.
+   * @return the cells on the route, which is empty if the cell cannot be reached.
+   */
+  public List<Cell> getPath(Cell from, Cell to) {
+    return toCells(findPath(from, to));
+  }
+  
+  /**
+   * Get the cells on the shortest route between two cells that only passes through allowed
+   * cells, starting with the cell to start from and ending with the cell to reach. The cell to
+   * start from does not have to be allowed, but the cell to reach does.
+   * @param from the cell to start from.
+   * @param to the cell to reach.
+   * @param allowed tells the cells the route may pass through.
+   * @return the cells on the route, which is empty if the cell cannot be reached.
+   */
+  public List<Cell> getPath(Cell from, Cell to, Predicate<Cell> allowed) {
+    if (allowed == null) {
+      throw new IllegalArgumentException("The allowed cells cannot be null.");
+    }
+    return toCells(search(from.getID(), to.getID(), allowed));
+  }
+  
+  //Get a list of the cells of a route.
+  private List<Cell> toCells(int[] path) {
+    return new AbstractList<>() {
+      @Override
+      public Cell get(int index) {
+        return cells[path[index]];
+      }
+      
+      @Override
+      public int size() {
+        return path.length;
+      }
+    };
+  }
+  
+  /**
+   * Get the moves on the shortest route between two cells.
+   * @param from the cell to start from.
+   * @param to the cell to reach.
+   * @return the direction of each move, which is empty if the cells are the same or the cell
+   *         cannot be reached.
+   */
+  public List<Directions> getMoves(Cell from, Cell to) {
+    int[] path = findPath(from, to);
+    List<Directions> moves = new ArrayList<>(Math.max(path.length - 1, 0));
+    for (int i = 1; i < path.length; i++) {
+      Map<Directions, Cell> neighbors = cells[path[i - 1]].getNeighbors();
+      for (Directions direction : DIRECTIONS) {
+        Cell neighbor = neighbors.get(direction);
+        if (neighbor != null && neighbor.getID() == path[i]) {
+          moves.add(direction);
+          break;
+        }
+      }
+    }
+    return moves;
+  }
+  
+  //Get the IDs of the cells on the route between two cells, from the cache if it is there.
+  private int[] findPath(Cell from, Cell to) {
+    Long key = ((long) from.getID() << 32) | to.getID();
+    int[] path = paths.get(key);
+    if (path == null) {
+      path = searchCaves(from.getID(), to.getID());
+      paths.put(key, path);
+    }
+    return path;
+  }
+  
+  //Run an A* search over the cave graph between two cells, and build the route by walking the
+  // tunnels of every edge on it. The route ends when the cell to reach is a cave on the route, at
+  // the end of a walk from a cave into its chain, or at the end of a walk from the cell to start
+  // from along the chain they share.
+  private int[] searchCaves(int source, int target) {
+    if (source == target) {
+      return new int[] {source};
+    }
+    nextSearch();
+    int best = Integer.MAX_VALUE;
+    int bestGoal = -1;
+    int directExit = -1;
+    
+    //Join the cell to start from to the caves at the ends of its chain.
+    int sourceNode = graph.getNode(cells[source]);
+    if (sourceNode != -1) {
+      reach(sourceNode, 0, -1, -1, target);
+    } else {
+      for (Directions exit : cells[source].getNeighbors().keySet()) {
+        long walk = walkChain(source, exit, target);
+        int end = (int) walk;
+        int steps = (int) (walk >>> 32);
+        if (end == target) {
+          if (steps < best) {
+            best = steps;
+            bestGoal = DIRECT;
+            directExit = exit.ordinal();
+          }
+        } else if (end != source) {
+          reach(graph.getNode(cells[end]), steps, -1, -2 - exit.ordinal(), target);
+        }
+      }
+    }
+    
+    //Join the cell to reach to the caves at the ends of its chain.
+    Arrays.fill(goalNodes, -1);
+    int targetNode = graph.getNode(cells[target]);
+    if (targetNode != -1) {
+      goalNodes[0] = targetNode;
+      goalCosts[0] = 0;
+    } else {
+      int goal = 0;
+      for (Directions exit : cells[target].getNeighbors().keySet()) {
+        long walk = walkChain(target, exit, -1);
+        if ((int) walk != target) {
+          goalNodes[goal] = graph.getNode(cells[(int) walk]);
+          goalCosts[goal] = (int) (walk >>> 32);
+          goalExits[goal] = exit.ordinal();
+        }
+        goal += 1;
+      }
+    }
+    
+    while (openSize > 0 && (int) (open[0] >>> 32) < best) {
+      int node = pop();
+      if (closed[node] == search) {
+        continue;
+      }
+      closed[node] = search;
+      for (int goal = 0; goal < goalNodes.length; goal++) {
+        if (goalNodes[goal] == node && costs[node] + goalCosts[goal] < best) {
+          best = costs[node] + goalCosts[goal];
+          bestGoal = goal;
+        }
+      }
+      for (int edge = graph.getFirstEdge(node); edge < graph.getEndEdge(node); edge++) {
+        int next = graph.getTarget(edge);
+        if (closed[next] != search) {
+          reach(next, costs[node] + graph.getLength(edge), node, edge, target);
+        }
+      }
+    }
+    if (bestGoal == -1) {
+      return NO_PATH;
+    }
+    
+    //Build the route from both ends toward the middle, walking the tunnels of every edge.
+    int[] path = new int[best + 1];
+    path[0] = source;
+    path[best] = target;
+    if (bestGoal == DIRECT) {
+      walkRoute(source, DIRECTIONS[directExit], best, path, 0, 1);
+      return path;
+    }
+    int node = goalNodes[bestGoal];
+    walkRoute(target, DIRECTIONS[goalExits[bestGoal]], goalCosts[bestGoal], path, best, -1);
+    while (parents[node] != -1) {
+      int edge = edges[node];
+      int parent = parents[node];
+      walkRoute(graph.getCellId(parent), graph.getExit(edge), graph.getLength(edge), path,
+              costs[parent], 1);
+      node = parent;
+    }
+    if (edges[node] < -1) {
+      walkRoute(source, DIRECTIONS[-2 - edges[node]], costs[node], path, 0, 1);
+    }
+    return path;
+  }
+  
+  //Reach a cave at a cost, from a cave along an edge or from the cell to start from, and add it
+  // to the open set if that is the cheapest way found to it so far.
+  private void reach(int node, int cost, int parent, int edge, int target) {
+    if (seen[node] != search || cost < costs[node]) {
+      seen[node] = search;
+      costs[node] = cost;
+      parents[node] = parent;
+      edges[node] = edge;
+      push(cost + estimate(graph.getCellId(node), target), node);
+    }
+  }
+  
+  //Walk from a cell in a tunnel along its chain until the first cave, the cell to stop at, or the
+  // cell itself on a loop of tunnels with no cave, as the number of moves times 2^32 plus the ID of
+  // the cell the walk ends on.
+  private long walkChain(int from, Directions exit, int stopAt) {
+    Directions heading = exit;
+    Cell cell = cells[from];
+    long steps = 0;
+    while (true) {
+      cell = cell.getNeighbors().get(heading);
+      steps += 1;
+      int id = cell.getID();
+      if (id == stopAt || id == from || graph.getNode(cell) != -1) {
+        return (steps << 32) | id;
+      }
+      heading = getOtherExit(cell, heading);
+    }
+  }
+  
+  //Walk from a cell, leaving by a direction and then going on through tunnels, and put the cell
+  // reached after each move into a route, a step apart from a start position.
+  private void walkRoute(int from, Directions exit, int moves, int[] path, int start, int step) {
+    Directions heading = exit;
+    Cell cell = cells[from];
+    for (int i = 1; i <= moves; i++) {
+      cell = cell.getNeighbors().get(heading);
+      path[start + step * i] = cell.getID();
+      if (i < moves) {
+        heading = getOtherExit(cell, heading);
+      }
+    }
+  }
+  
+  //Get the direction to leave a tunnel by, given the direction it was entered moving in.
+  private static Directions getOtherExit(Cell tunnel, Directions heading) {
+    for (Directions exit : tunnel.getNeighbors().keySet()) {
+      if (exit != heading.getReverse()) {
+        return exit;
+      }
+    }
+    throw new IllegalStateException("A tunnel must have two entrances.");
+  }
+  
+  //Run an A* search on the grid between two cells through the allowed cells, and build the route
+  // from the parents of the cells.
+  private int[] search(int source, int target, Predicate<Cell> allowed) {
+    nextSearch();
+    seen[source] = search;
+    costs[source] = 0;
+    parents[source] = -1;
+    push(estimate(source, target), source);
+    while (openSize > 0) {
+      int id = pop();
+      if (closed[id] == search) {
+        continue;
+      }
+      if (id == target) {
+        return buildPath(target);
+      }
+      closed[id] = search;
+      int cost = costs[id] + 1;
+      for (Cell neighbor : cells[id].getNeighbors().values()) {
+        int next = neighbor.getID();
+        if (closed[next] != search && (seen[next] != search || cost < costs[next])
+                && allowed.test(neighbor)) {
+          seen[next] = search;
+          costs[next] = cost;
+          parents[next] = id;
+          push(cost + estimate(next, target), next);
+        }
+      }
+    }
+    return NO_PATH;
+  }
+  
+  //Start a new search with an empty open set, clearing the stamps when the numbers run out.
+  private void nextSearch() {
+    if (search == Integer.MAX_VALUE) {
+      Arrays.fill(seen, 0);
+      Arrays.fill(closed, 0);
+      search = 0;
+    }
+    search += 1;
+    openSize = 0;
+  }
+  
+  //Get the number of rows and columns between two cells, going around the edges if they wrap.
+  private int estimate(int id, int target) {
+    int rowGap = Math.abs(id / cols - target / cols);
+    int colGap = Math.abs(id % cols - target % cols);
+    if (isWrapped) {
+      rowGap = Math.min(rowGap, rows - rowGap);
+      colGap = Math.min(colGap, cols - colGap);
+    }
+    return rowGap + colGap;
+  }
+  
+  //Follow the parents back from the target to build the route.
+  private int[] buildPath(int target) {
+    int[] path = new int[costs[target] + 1];
+    for (int id = target, i = path.length - 1; id != -1; id = parents[id], i--) {
+      path[i] = id;
+    }
+    return path;
+  }
+  
+  //Add a cell to the open set, ordered by its estimated route length and then by its ID.
+  private void push(int estimate, int id) {
+    if (openSize == open.length) {
+      open = Arrays.copyOf(open, openSize * 2);
+    }
+    long entry = ((long) estimate << 32) | id;
+    int index = openSize++;
+    while (index > 0 && open[(index - 1) / 2] > entry) {
+      open[index] = open[(index - 1) / 2];
+      index = (index - 1) / 2;
+    }
+    open[index] = entry;
+  }
+  
+  //Take the cell with the shortest estimated route out of the open set.
+  private int pop() {
+    long top = open[0];
+    long last = open[--openSize];
+    int index = 0;
+    while (2 * index + 1 < openSize) {
+      int child = 2 * index + 1;
+      if (child + 1 < openSize && open[child + 1] < open[child]) {
+        child += 1;
+      }
+      if (open[child] >= last) {
+        break;
+      }
+      open[index] = open[child];
+      index = child;
+    }
+    open[index] = last;
+    return (int) top;
+  }
+}
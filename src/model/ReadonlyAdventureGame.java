@@ -3,6 +3,7 @@ package model;
 import java.util.List;
 import java.util.Map;
 
+import model.gameobjects.Directions;
 import model.gameobjects.actors.Status;
 import model.gameobjects.cell.Cell;
 import model.gameobjects.cell.Treasure;
@@ -96,12 +97,33 @@ public interface ReadonlyAdventureGame {
    */
   Cell[][] getGridCopy();
   
+  /**
+   * Get a snapshot of the Dungeon grid that cannot be changed. The same snapshot is returned
+   * until the grid changes, and a new snapshot shares the cells that did not change.
+   * @return the snapshot of the Dungeon grid.
+   */
+  BoardSnapshot getSnapshot();
+  
   /**
    * Get the current location of the player.
    * @return the current location of the player.
    */
   Cell getCurrentLocation();
   
+  /**
+   * Get the first move on a shortest route from the current location of the player to the
+   * destination.
+   * @return the direction to move in, or null if the player is at the destination.
+   */
+  Directions getDirectionToGoal();
+  
+  /**
+   * Get the number of moves on a shortest route from the current location of the player to the
+   * destination.
+   * @return the number of moves left to the destination.
+   */
+  int getStepsToGoal();
+  
   /**
    * Get a description of the current location of player.
    * @return Map with descriptions of Type of cell, location, treasures, & available moves.
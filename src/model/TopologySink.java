@@ -0,0 +1,41 @@
+package model;
+
+/**
+ * This interface represents a destination for the layout of a Dungeon that is generated one row
+ * at a time. Each row is given as one byte per cell, telling if the cell has a path to its east
+ * neighbor, its south neighbor, or both. The neighbors of the cells in the last column and the last
+ * row wrap around to the first column and the first row, which only happens for wrapping Dungeons.
+ */
+public interface TopologySink {
+  
+  /**
+   * The bit of a cell's byte that is set when there is a path to the east neighbor.
+   */
+  int EAST_EXIT = 1;
+  
+  /**
+   * The bit of a cell's byte that is set when there is a path to the south neighbor.
+   */
+  int SOUTH_EXIT = 2;
+  
+  /**
+   * Start receiving the layout of a new Dungeon.
+   * @param rows the number of rows in the Dungeon.
+   * @param cols the number of columns in the Dungeon.
+   * @param isWrapping if the Dungeon is of wrapping or non-wrapping type.
+   */
+  void start(int rows, int cols, boolean isWrapping);
+  
+  /**
+   * Receive the paths of the next row. Rows are given in order, starting from row 0. The array may
+   * be reused by the caller after this method returns.
+   * @param row the index of the row.
+   * @param exits one byte for each cell in the row, with the EAST_EXIT and SOUTH_EXIT bits.
+   */
+  void acceptRow(int row, byte[] exits);
+  
+  /**
+   * Finish receiving the layout after the last row.
+   */
+  void finish();
+}
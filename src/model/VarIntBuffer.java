@@ -0,0 +1,170 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * This is a package private class that represents a growing buffer of numbers that are not
+ * negative, each written in 7-bit groups, lowest group first, with the high bit set on every byte
+ * but the last. Small numbers take a single byte. Numbers are only ever added at the end, and are
+ * read back in order with a cursor.
+ */
+final class VarIntBuffer {
+  private byte[] bytes;
+  private int length;
+  
+  /**
+   * Constructor for an empty buffer.
+   */
+  VarIntBuffer() {
+    this(new byte[64], 0);
+  }
+  
+  /**
+   * Constructor for a buffer over bytes that were written before.
+   * @param bytes the bytes of the buffer, which are not copied.
+   * @param length the number of bytes in use.
+   */
+  VarIntBuffer(byte[] bytes, int length) {
+    if (length < 0 || length > bytes.length) {
+      throw new IllegalArgumentException("Invalid buffer length.");
+    }
+    this.bytes = bytes;
+    this.length = length;
+  }
+  
+  /**
+   * Get the number of bytes written.
+   * @return the length of the buffer.
+   */
+  int length() {
+    return length;
+  }
+  
+  /**
+   * Get the bytes of the buffer. Only the first length() bytes are in use.
+   * @return the bytes, which are not copied.
+   */
+  byte[] getBytes() {
+    return bytes;
+  }
+  
+  /**
+   * Get a copy of the first bytes of the buffer, in a new buffer.
+   * @param length the number of bytes to copy.
+   * @return the new buffer.
+   */
+  VarIntBuffer copyOf(int length) {
+    if (length < 0 || length > this.length) {
+      throw new IllegalArgumentException("Invalid buffer length.");
+    }
+    return new VarIntBuffer(Arrays.copyOf(bytes, Math.max(length, 64)), length);
+  }
+  
+  /**
+   * Get a copy of the bytes in use.
+   * @return the bytes.
+   */
+  byte[] toByteArray() {
+    return Arrays.copyOf(bytes, length);
+  }
+  
+  /**
+   * Write a number that is not negative.
+   * @param value the number.
+   */
+  void writeInt(int value) {
+    if (value < 0) {
+      throw new IllegalArgumentException("The value cannot be negative.");
+    }
+    writeLong(value);
+  }
+  
+  /**
+   * Write a long number that is not negative.
+   * @param value the number.
+   */
+  void writeLong(long value) {
+    if (length + 10 > bytes.length) {
+      bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + 10));
+    }
+    while ((value & ~0x7FL) != 0) {
+      bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    bytes[length++] = (byte) value;
+  }
+  
+  /**
+   * Get a cursor that reads the numbers from a position. The cursor reads up to the bytes that
+   * were in the buffer when it was made.
+   * @param position the position of the first byte to read.
+   * @return the cursor.
+   */
+  Cursor cursor(int position) {
+    if (position < 0 || position > length) {
+      throw new IllegalArgumentException("Invalid buffer position.");
+    }
+    return new Cursor(position, length);
+  }
+  
+  /**
+   * This class reads the numbers of a buffer one at a time.
+   */
+  final class Cursor {
+    private final int end;
+    private int position;
+    
+    //Constructor for a cursor between two positions.
+    private Cursor(int position, int end) {
+      this.position = position;
+      this.end = end;
+    }
+    
+    /**
+     * Check if there are numbers left to read.
+     * @return true or false.
+     */
+    boolean hasNext() {
+      return position < end;
+    }
+    
+    /**
+     * Get the position of the next byte to read.
+     * @return the position.
+     */
+    int getPosition() {
+      return position;
+    }
+    
+    /**
+     * Read the next number.
+     * @return the number.
+     */
+    int readInt() {
+      long value = readLong();
+      if (value > Integer.MAX_VALUE) {
+        throw new IllegalStateException("The number is too large.");
+      }
+      return (int) value;
+    }
+    
+    /**
+     * Read the next long number.
+     * @return the number.
+     */
+    long readLong() {
+      long value = 0;
+      int shift = 0;
+      byte current;
+      do {
+        if (position >= end || shift > 63) {
+          throw new IllegalStateException("The buffer does not hold a valid number.");
+        }
+        current = bytes[position++];
+        value |= (current & 0x7FL) << shift;
+        shift += 7;
+      } while (current < 0);
+      return value;
+    }
+  }
+}
@@ -1,8 +1,8 @@
 package model.gameobjects.actors;
 
-import java.util.HashMap;
 import java.util.Map;
 
+import model.gameobjects.cell.Inventory;
 import model.gameobjects.cell.Treasure;
 
 /**
@@ -11,8 +11,7 @@ import model.gameobjects.cell.Treasure;
  * by a player.
  */
 public class Player extends Actor implements Players {
-  private Map<Treasure, Integer> treasureCollected;
-  private int arrowCount;
+  private final Inventory inventory;
   
   /**
    * Constructor for a player taking part in the Dungeon game.
@@ -20,9 +19,8 @@ public class Player extends Actor implements Players {
    */
   public Player(int id) {
     super("Player ", id);
-    initializeTreasureCollected();
-    this.arrowCount = 3;
-    
+    this.inventory = new Inventory(Treasure.values());
+    this.inventory.setArrows(3);
   }
   
   /**
@@ -58,13 +56,8 @@ public class Player extends Actor implements Players {
   public void pickTreasure(Treasure t) {
     //add the treasure found in a cave;
     if (! location.getTreasures().isEmpty() && getStatus() == Status.ALIVE) {
-      int newAmount = location.getTreasures().get(t);
-      int currentAmount = treasureCollected.get(t);
-      treasureCollected.put(t, currentAmount + newAmount);
-      //Remove the collected treasure from the cell
-      Map<Treasure, Integer> updatedTreasure = location.getTreasures();
-      updatedTreasure.put(t, 0);
-      location.setTreasure(updatedTreasure);
+      //Move the treasure from the cell to the player.
+      inventory.addTreasure(t, location.takeTreasure(t));
     } else {
       throw new IllegalArgumentException("Cannot pick treasure");
     }
@@ -77,17 +70,7 @@ public class Player extends Actor implements Players {
    */
   @Override
   public Map<Treasure, Integer> getTreasureCollected() {
-    return this.treasureCollected;
-  }
-  
-  //Private method to initialize the treasure collected.
-  private void initializeTreasureCollected() {
-    treasureCollected = new HashMap<>();
-    for (Treasure t : Treasure.values()) {
-      //Assume the quantity of each treasure in a cave to be between 1, and 5
-      int quantity = 0;
-      treasureCollected.put(t, quantity); //Add the treasure and a random quantity;
-    }
+    return this.inventory.getTreasureView();
   }
   
   /**
@@ -95,7 +78,16 @@ public class Player extends Actor implements Players {
    */
   @Override
   public void resetTreasure() {
-    initializeTreasureCollected();
+    inventory.clearTreasure();
+  }
+  
+  /**
+   * Get the inventory of the treasure and arrows held by the player.
+   * @return the inventory of the player.
+   */
+  @Override
+  public Inventory getInventory() {
+    return this.inventory;
   }
   
   /**
@@ -104,7 +96,7 @@ public class Player extends Actor implements Players {
    */
   @Override
   public int getArrowCount() {
-    return arrowCount;
+    return inventory.getArrows();
   }
   
   /**
@@ -112,10 +104,10 @@ public class Player extends Actor implements Players {
    */
   @Override
   public void decreaseNumArrows() {
-    if (arrowCount == 0) {
+    if (inventory.getArrows() == 0) {
       throw new IllegalStateException("There are no arrows with the player.");
     }
-    this.arrowCount -= 1;
+    inventory.addArrows(- 1);
   }
   
   /**
@@ -126,7 +118,7 @@ public class Player extends Actor implements Players {
     if (getStatus() == Status.ALIVE) {
       //add the arrows found in a cave or tunnel;
       int arrowsFound = location.getArrows();
-      this.arrowCount += arrowsFound;
+      inventory.addArrows(arrowsFound);
       location.setArrows(0);
     } else {
       throw new IllegalArgumentException("Cannot pick arrows");
@@ -136,6 +128,6 @@ public class Player extends Actor implements Players {
   
   
 }
-  
-  
-  
+
+
+
@@ -2,6 +2,7 @@ package model.gameobjects.actors;
 
 import java.util.Map;
 
+import model.gameobjects.cell.Inventory;
 import model.gameobjects.cell.Treasure;
 
 /**
@@ -39,6 +40,12 @@ public interface Players extends Actors {
    */
   void resetTreasure();
   
+  /**
+   * Get the inventory of the treasure and arrows held by the player.
+   * @return the inventory of the player.
+   */
+  Inventory getInventory();
+  
   /**
    * Gets the number of arrows at player's disposal.
    * @return the count of arrows held by the player.
@@ -1,8 +1,8 @@
 package model.gameobjects.actors;
 
-import java.util.HashMap;
 import java.util.Map;
 
+import model.gameobjects.cell.Inventory;
 import model.gameobjects.cell.Treasure;
 
 /**
@@ -11,7 +11,7 @@ import model.gameobjects.cell.Treasure;
  * a thief might be present.
  */
 public class Thief extends Actor implements Thieves {
-  private Map<Treasure, Integer> treasureCollected;
+  private final Inventory inventory;
   
   
   /**
@@ -20,7 +20,7 @@ public class Thief extends Actor implements Thieves {
    */
   public Thief(int id) {
     super("Thief ", id);
-    initializeTreasureCollected();
+    this.inventory = new Inventory(Treasure.values());
   }
   
   /**
@@ -63,10 +63,8 @@ public class Thief extends Actor implements Thieves {
   @Override
   public void stealTreasure(Map<Treasure, Integer> treasures) {
     //steal the treasure from a player
-    for (Treasure t : treasures.keySet()) {
-      int newAmount = treasures.get(t);
-      int currentAmount = treasureCollected.get(t);
-      treasureCollected.put(t, currentAmount + newAmount);
+    for (Map.Entry<Treasure, Integer> entry : treasures.entrySet()) {
+      inventory.addTreasure(entry.getKey(), entry.getValue());
     }
   }
   
@@ -76,17 +74,16 @@ public class Thief extends Actor implements Thieves {
    */
   @Override
   public Map<Treasure, Integer> getTreasureCollected() {
-    return this.treasureCollected;
+    return this.inventory.getTreasureView();
   }
   
-  //Private method to initialize the treasure collected.
-  private void initializeTreasureCollected() {
-    treasureCollected = new HashMap<>();
-    for (Treasure t : Treasure.values()) {
-      //Assume the quantity of each treasure in a cave to be between 1, and 5
-      int quantity = 0;
-      treasureCollected.put(t, quantity); //Add the treasure and a random quantity;
-    }
+  /**
+   * Get the inventory of the treasure stolen by the thief.
+   * @return the inventory of the thief.
+   */
+  @Override
+  public Inventory getInventory() {
+    return this.inventory;
   }
   
 }
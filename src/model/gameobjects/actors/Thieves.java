@@ -2,6 +2,7 @@ package model.gameobjects.actors;
 
 import java.util.Map;
 
+import model.gameobjects.cell.Inventory;
 import model.gameobjects.cell.Treasure;
 
 /**
@@ -39,4 +40,10 @@ public interface Thieves extends Actors {
    */
   Map<Treasure, Integer> getTreasureCollected();
   
+  /**
+   * Get the inventory of the treasure stolen by the thief.
+   * @return the inventory of the thief.
+   */
+  Inventory getInventory();
+  
 }
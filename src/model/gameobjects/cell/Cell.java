@@ -99,7 +99,7 @@ public interface Cell {
   int getY();
   
   /**
-   * Get the treasures in this cell if any.
+   * Get the treasures in this cell if any. The map cannot be changed.
    * @return a map of treasure and its quantity.
    */
   Map<Treasure, Integer> getTreasures();
@@ -109,6 +109,14 @@ public interface Cell {
    */
   void setTreasure(Map<Treasure, Integer> treasures);
   
+  /**
+   * Take all of one treasure out of this cell. The treasure stays in the map of treasures with a
+   * quantity of 0.
+   * @param treasure the treasure to take.
+   * @return the quantity taken, which is 0 if the cell does not have the treasure.
+   */
+  int takeTreasure(Treasure treasure);
+  
   /**
    * Get the number of arrows contained in the cell.
    * @return count of arrows.
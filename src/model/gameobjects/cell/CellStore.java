@@ -0,0 +1,367 @@
+package model.gameobjects.cell;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import model.gameobjects.Directions;
+import model.gameobjects.actors.Monsters;
+import model.gameobjects.actors.Thieves;
+
+/**
+ * This class represents the state of all the cells in a Dungeon, kept in parallel arrays of
+ * primitives indexed by the cell ID, instead of one object per cell. The cells are handed out as
+ * light views over the store, which implement the same cell interface as a location, so the rest
+ * of the game does not need to know how the cells are stored. There is one view for each cell,
+ * made the first time it is asked for.
+ *
+ * <p>The entrances and the neighbors of a cell are each kept as a bitmask with one bit for each
+ * direction. A neighbor is always the next cell in its direction, wrapping around the edges of the
+ * grid. Monsters and thieves are only in a few cells, so they are kept in maps by cell ID.
+ *
+ * <p>Every change to a cell gives the store a new version, and the cell remembers the version of
+ * its last change, so a reader can find the cells that changed since it last looked. The cell
+ * also remembers the version of the last change to its type, monster or thief, which are the
+ * hazards for a player entering it.
+ *
+ * <p>The cells can be written to a buffer and read back in bulk. The shape of the Dungeon is
+ * written as 2 bits for each cell, one for the path to its east and one for the path to its south,
+ * since the paths to the west and north are the east and south paths of the next cells. The
+ * contents of the cells follow as the arrays themselves. Monsters and thieves are not written.
+ */
+public class CellStore {
+  static final int VISITED = 1;
+  static final int PLAYER = 2;
+  static final int THIEF = 4;
+  static final int PIT_NEIGHBOR = 8;
+  static final int NUM_TREASURES = Treasure.values().length;
+  private static final int EAST = 1 << Directions.EAST.ordinal();
+  private static final int SOUTH = 1 << Directions.SOUTH.ordinal();
+  private static final int WEST = 1 << Directions.WEST.ordinal();
+  private static final int NORTH = 1 << Directions.NORTH.ordinal();
+  
+  final byte[] exits;
+  final byte[] links;
+  final byte[] types;
+  final byte[] flags;
+  final byte[] smellLevels;
+  final byte[] treasureKeys;
+  final int[] arrows;
+  final int[] smellUnits;
+  final int[] treasures;
+  final Map<Integer, Monsters> monsters;
+  final Map<Integer, Thieves> thieves;
+  private final int rows;
+  private final int cols;
+  private final StoredCell[] views;
+  private final long[] changes;
+  private final long[] hazardChanges;
+  private long version;
+  
+  /**
+   * Constructor for a store of cells with no entrances, no type and nothing in them.
+   * @param rows the number of rows in the Dungeon.
+   * @param cols the number of columns in the Dungeon.
+   */
+  public CellStore(int rows, int cols) {
+    if (rows < 1 || cols < 1) {
+      throw new IllegalArgumentException("Rows and columns cannot be 0 or negative.");
+    }
+    int size = rows * cols;
+    this.rows = rows;
+    this.cols = cols;
+    this.exits = new byte[size];
+    this.links = new byte[size];
+    this.types = new byte[size];
+    this.flags = new byte[size];
+    this.smellLevels = new byte[size];
+    this.treasureKeys = new byte[size];
+    this.arrows = new int[size];
+    this.smellUnits = new int[size];
+    this.treasures = new int[size * NUM_TREASURES];
+    this.monsters = new HashMap<>();
+    this.thieves = new HashMap<>();
+    this.views = new StoredCell[size];
+    this.changes = new long[size];
+    this.hazardChanges = new long[size];
+    this.version = 0;
+    Arrays.fill(types, (byte) - 1);
+  }
+  
+  /**
+   * Make a store with a copy of the state of every cell in a grid. The ID of every cell must be
+   * its row times the number of columns plus its column.
+   * @param grid the grid of cells to copy.
+   * @return the store with the copied cells.
+   */
+  public static CellStore copyOf(Cell[][] grid) {
+    if (grid == null || grid.length == 0) {
+      throw new IllegalArgumentException("The grid cannot be null or empty.");
+    }
+    CellStore store = new CellStore(grid.length, grid[0].length);
+    for (Cell[] row : grid) {
+      for (Cell cell : row) {
+        store.copyCell(cell);
+      }
+    }
+    return store;
+  }
+  
+  /**
+   * Get the number of bytes the cells of a Dungeon take when written to a buffer.
+   * @param rows the number of rows in the Dungeon.
+   * @param cols the number of columns in the Dungeon.
+   * @return the number of bytes.
+   */
+  public static long getWrittenLength(int rows, int cols) {
+    long size = (long) rows * cols;
+    return (size + 3) / 4 + size * 4 + size * Integer.BYTES * (2 + NUM_TREASURES);
+  }
+  
+  /**
+   * Read cells written by writeTo(). The buffer is left after the last byte of the cells.
+   * @param rows the number of rows in the Dungeon.
+   * @param cols the number of columns in the Dungeon.
+   * @param buffer the buffer to read from.
+   * @return the store with the cells that were read.
+   */
+  public static CellStore readFrom(int rows, int cols, ByteBuffer buffer) {
+    CellStore store = new CellStore(rows, cols);
+    
+    //Open the east and south paths of each cell, and the west and north paths they lead to.
+    byte[] shape = new byte[(store.size() + 3) / 4];
+    buffer.get(shape);
+    byte[] links = store.links;
+    for (int row = 0, id = 0; row < rows; row++) {
+      int southRow = row + 1 == rows ? 0 : (row + 1) * cols;
+      for (int col = 0; col < cols; col++, id++) {
+        int bits = shape[id >> 2] >> ((id & 3) << 1);
+        if ((bits & 1) != 0) {
+          links[id] |= EAST;
+          links[row * cols + (col + 1 == cols ? 0 : col + 1)] |= WEST;
+        }
+        if ((bits & 2) != 0) {
+          links[id] |= SOUTH;
+          links[southRow + col] |= NORTH;
+        }
+      }
+    }
+    System.arraycopy(links, 0, store.exits, 0, links.length);
+    buffer.get(store.types);
+    buffer.get(store.flags);
+    buffer.get(store.smellLevels);
+    buffer.get(store.treasureKeys);
+    getInts(buffer, store.arrows);
+    getInts(buffer, store.smellUnits);
+    getInts(buffer, store.treasures);
+    return store;
+  }
+  
+  /**
+   * Write the shape of the Dungeon and the contents of every cell to a buffer. The entrances of
+   * every cell must lead to its neighbors, as in a Dungeon that was built.
+   * @param buffer the buffer to write to, with at least getWrittenLength() bytes left.
+   */
+  public void writeTo(ByteBuffer buffer) {
+    byte[] shape = new byte[(size() + 3) / 4];
+    for (int row = 0, id = 0; row < rows; row++) {
+      int southRow = row + 1 == rows ? 0 : (row + 1) * cols;
+      for (int col = 0; col < cols; col++, id++) {
+        int link = links[id];
+        int east = links[row * cols + (col + 1 == cols ? 0 : col + 1)];
+        int south = links[southRow + col];
+        if (exits[id] != link || ((link & EAST) != 0) != ((east & WEST) != 0)
+                || ((link & SOUTH) != 0) != ((south & NORTH) != 0)) {
+          throw new IllegalStateException("The entrances of a cell do not match its neighbors.");
+        }
+        int bits = ((link & EAST) != 0 ? 1 : 0) | ((link & SOUTH) != 0 ? 2 : 0);
+        shape[id >> 2] |= (byte) (bits << ((id & 3) << 1));
+      }
+    }
+    buffer.put(shape);
+    buffer.put(types);
+    buffer.put(flags);
+    buffer.put(smellLevels);
+    buffer.put(treasureKeys);
+    putInts(buffer, arrows);
+    putInts(buffer, smellUnits);
+    putInts(buffer, treasures);
+  }
+  
+  /**
+   * Get the IDs of the cells with a monster in them.
+   * @return the IDs, which cannot be changed.
+   */
+  public Set<Integer> getMonsterCells() {
+    return Collections.unmodifiableSet(monsters.keySet());
+  }
+  
+  /**
+   * Get the IDs of the cells with a thief in them.
+   * @return the IDs, which cannot be changed.
+   */
+  public Set<Integer> getThiefCells() {
+    return Collections.unmodifiableSet(thieves.keySet());
+  }
+  
+  /**
+   * Get the number of rows in the Dungeon.
+   * @return the number of rows.
+   */
+  public int getRows() {
+    return rows;
+  }
+  
+  /**
+   * Get the number of columns in the Dungeon.
+   * @return the number of columns.
+   */
+  public int getColumns() {
+    return cols;
+  }
+  
+  /**
+   * Get the number of cells in the store.
+   * @return the number of cells.
+   */
+  public int size() {
+    return exits.length;
+  }
+  
+  /**
+   * Get the cell with an ID.
+   * @param id the ID of the cell.
+   * @return the view of the cell in this store.
+   */
+  public Cell getCell(int id) {
+    if (id < 0 || id >= views.length) {
+      throw new IndexOutOfBoundsException("Invalid cell ID: " + id);
+    }
+    StoredCell view = views[id];
+    if (view == null) {
+      view = new StoredCell(this, id);
+      views[id] = view;
+    }
+    return view;
+  }
+  
+  /**
+   * Get the cells of the store as a grid.
+   * @return a new 2d array with the views of the cells.
+   */
+  public Cell[][] getGrid() {
+    Cell[][] grid = new Cell[rows][cols];
+    for (int r = 0; r < rows; r++) {
+      for (int c = 0; c < cols; c++) {
+        grid[r][c] = getCell(r * cols + c);
+      }
+    }
+    return grid;
+  }
+  
+  /**
+   * Get the version of the store, which goes up with every change to a cell.
+   * @return the version of the store.
+   */
+  public long getVersion() {
+    return version;
+  }
+  
+  /**
+   * Get the version of the store when a cell last changed.
+   * @param id the ID of the cell.
+   * @return the version of the last change, or 0 if the cell never changed.
+   */
+  public long getChangeVersion(int id) {
+    return changes[id];
+  }
+  
+  /**
+   * Get the version of the store when the type, monster or thief of a cell last changed.
+   * @param id the ID of the cell.
+   * @return the version of the last change, or 0 if the cell never changed.
+   */
+  public long getHazardChangeVersion(int id) {
+    return hazardChanges[id];
+  }
+  
+  /**
+   * Record a change to a cell that may change its hazards. The views record their own changes,
+   * so this is only needed for changes the store cannot see, like a monster in the cell being
+   * hit.
+   * @param id the ID of the cell that changed.
+   */
+  public void markChanged(int id) {
+    markUpdated(id);
+    hazardChanges[id] = version;
+  }
+  
+  /**
+   * Record a change to a cell that does not change its hazards.
+   * @param id the ID of the cell that changed.
+   */
+  void markUpdated(int id) {
+    version += 1;
+    changes[id] = version;
+  }
+  
+  /**
+   * Get the ID of the next cell in a direction, wrapping around the edges of the grid.
+   * @param id the ID of the cell.
+   * @param direction the direction to look in.
+   * @return the ID of the next cell.
+   */
+  int getNextId(int id, Directions direction) {
+    int row = id / cols;
+    int col = id % cols;
+    switch (direction) {
+      case NORTH:
+        return ((row - 1 + rows) % rows) * cols + col;
+      case SOUTH:
+        return ((row + 1) % rows) * cols + col;
+      case EAST:
+        return row * cols + (col + 1) % cols;
+      default:
+        return row * cols + (col - 1 + cols) % cols;
+    }
+  }
+  
+  //Copy the state of a cell into the arrays.
+  private void copyCell(Cell cell) {
+    int id = cell.getID();
+    Cell view = getCell(id);
+    view.setN(cell.getN());
+    view.setS(cell.getS());
+    view.setE(cell.getE());
+    view.setW(cell.getW());
+    view.setType(cell.getType());
+    for (Directions direction : cell.getNeighbors().keySet()) {
+      view.setNeighbors(direction, getCell(cell.getNeighbors().get(direction).getID()), "add");
+    }
+    view.setTreasure(cell.getTreasures());
+    view.setArrows(cell.getArrows());
+    view.setMonster(cell.getMonster());
+    if (cell.hasThief()) {
+      view.setThief(cell.getThief());
+    }
+    view.setPlayer(cell.hasPlayer());
+    view.setVisited(cell.isVisited());
+    view.setAsPitNeighbor(cell.isNextToPit());
+    view.setSmell(cell.getSmellLevel(), cell.getSmellUnits());
+  }
+  
+  //Write an array of ints to a buffer in bulk.
+  private static void putInts(ByteBuffer buffer, int[] values) {
+    buffer.asIntBuffer().put(values);
+    buffer.position(buffer.position() + values.length * Integer.BYTES);
+  }
+  
+  //Read an array of ints from a buffer in bulk.
+  private static void getInts(ByteBuffer buffer, int[] values) {
+    buffer.asIntBuffer().get(values);
+    buffer.position(buffer.position() + values.length * Integer.BYTES);
+  }
+}
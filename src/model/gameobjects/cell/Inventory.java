@@ -0,0 +1,198 @@
+package model.gameobjects.cell;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * This class represents the treasure and arrows held by a cell, a player or a thief. The counts
+ * are kept in a single array of primitives, with one slot for each treasure and a last slot for
+ * the arrows, so moving treasure around does not box or allocate anything.
+ *
+ * <p>A treasure is listed in the inventory once it has been added, even if its count goes back to
+ * 0. This matches the maps the treasure used to be kept in, where an empty map meant the holder
+ * never had any treasure. The treasure can be read through a map view that cannot be changed.
+ */
+public class Inventory {
+  private static final Treasure[] TREASURES = Treasure.values();
+  private static final int ARROWS = TREASURES.length;
+  private final int[] counts;
+  private final Map<Treasure, Integer> treasureView;
+  private int listed;
+  
+  /**
+   * Constructor for an inventory with no arrows, that lists the given treasures with a count of 0.
+   * @param treasures the treasures to list.
+   */
+  public Inventory(Treasure... treasures) {
+    this.counts = new int[TREASURES.length + 1];
+    this.treasureView = new TreasureView();
+    this.listed = 0;
+    for (Treasure treasure : treasures) {
+      addTreasure(treasure, 0);
+    }
+  }
+  
+  /**
+   * Get the count of a treasure.
+   * @param treasure the treasure to count.
+   * @return the count of the treasure, which is 0 if it is not listed.
+   */
+  public int getTreasure(Treasure treasure) {
+    return counts[treasure.ordinal()];
+  }
+  
+  /**
+   * Add an amount of a treasure, and list the treasure if it was not listed.
+   * @param treasure the treasure to add.
+   * @param amount the amount to add.
+   */
+  public void addTreasure(Treasure treasure, int amount) {
+    listed |= 1 << treasure.ordinal();
+    counts[treasure.ordinal()] += amount;
+  }
+  
+  /**
+   * Replace the treasure with the treasure in a map. Only the treasures in the map are listed
+   * afterwards.
+   * @param treasures the map of treasure and its quantity.
+   */
+  public void setTreasure(Map<Treasure, Integer> treasures) {
+    if (treasures == treasureView) {
+      return;
+    }
+    clearTreasure();
+    listed = 0;
+    for (Map.Entry<Treasure, Integer> entry : treasures.entrySet()) {
+      addTreasure(entry.getKey(), entry.getValue());
+    }
+  }
+  
+  /**
+   * Take all of one treasure out of the inventory. The treasure stays listed with a count of 0.
+   * @param treasure the treasure to take.
+   * @return the amount taken, which is 0 if the treasure is not listed.
+   */
+  public int takeTreasure(Treasure treasure) {
+    int amount = counts[treasure.ordinal()];
+    counts[treasure.ordinal()] = 0;
+    return amount;
+  }
+  
+  /**
+   * Set the count of every treasure to 0. The treasures stay listed.
+   */
+  public void clearTreasure() {
+    for (int i = 0; i < TREASURES.length; i++) {
+      counts[i] = 0;
+    }
+  }
+  
+  /**
+   * Add all the treasure of another inventory to this one, and leave the other inventory with a
+   * count of 0 for every treasure.
+   * @param other the inventory to take the treasure from.
+   */
+  public void stealAll(Inventory other) {
+    merge(other);
+    other.clearTreasure();
+  }
+  
+  /**
+   * Add all the treasure of another inventory to this one. The other inventory is not changed.
+   * @param other the inventory to add the treasure of.
+   */
+  public void merge(Inventory other) {
+    listed |= other.listed;
+    for (int i = 0; i < TREASURES.length; i++) {
+      counts[i] += other.counts[i];
+    }
+  }
+  
+  /**
+   * Get the number of arrows.
+   * @return count of arrows.
+   */
+  public int getArrows() {
+    return counts[ARROWS];
+  }
+  
+  /**
+   * Set the number of arrows.
+   * @param arrows count of arrows.
+   */
+  public void setArrows(int arrows) {
+    counts[ARROWS] = arrows;
+  }
+  
+  /**
+   * Add a number of arrows, which can be negative to remove arrows.
+   * @param arrows the number of arrows to add.
+   */
+  public void addArrows(int arrows) {
+    counts[ARROWS] += arrows;
+  }
+  
+  /**
+   * Get the listed treasures and their counts. The map is a view of this inventory that cannot be
+   * changed, and it follows the changes to the inventory.
+   * @return a map of treasure and its quantity.
+   */
+  public Map<Treasure, Integer> getTreasureView() {
+    return treasureView;
+  }
+  
+  //A live map of the listed treasures, which cannot be changed through the map.
+  private final class TreasureView extends AbstractMap<Treasure, Integer> {
+    
+    @Override
+    public boolean containsKey(Object key) {
+      return key instanceof Treasure && (listed & (1 << ((Treasure) key).ordinal())) != 0;
+    }
+    
+    @Override
+    public Integer get(Object key) {
+      return containsKey(key) ? counts[((Treasure) key).ordinal()] : null;
+    }
+    
+    @Override
+    public int size() {
+      return Integer.bitCount(listed);
+    }
+    
+    @Override
+    public Set<Entry<Treasure, Integer>> entrySet() {
+      return new AbstractSet<>() {
+        @Override
+        public Iterator<Entry<Treasure, Integer>> iterator() {
+          return new Iterator<>() {
+            private int remaining = listed;
+            
+            @Override
+            public boolean hasNext() {
+              return remaining != 0;
+            }
+            
+            @Override
+            public Entry<Treasure, Integer> next() {
+              if (remaining == 0) {
+                throw new NoSuchElementException();
+              }
+              int bit = Integer.numberOfTrailingZeros(remaining);
+              remaining &= remaining - 1;
+              return new SimpleImmutableEntry<>(TREASURES[bit], counts[bit]);
+            }
+          };
+        }
+        
+        @Override
+        public int size() {
+          return TreasureView.this.size();
+        }
+      };
+    }
+  }
+}
@@ -1,10 +1,10 @@
 package model.gameobjects.cell;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 import model.gameobjects.Directions;
 import model.gameobjects.actors.Monsters;
@@ -17,17 +17,15 @@ import model.gameobjects.actors.Thieves;
  * needed for cells of these types, as listed below.
  */
 public class Location implements Cell {
+  static final List<List<Directions>> ENTRANCES = getAllEntrances();
   private final int iD;
   private final Map<Directions, Cell> neighbors;
+  private final Map<Directions, Cell> neighborsView;
   private CellTypes type;
   private int x;
   private int y;
-  private int n;
-  private int s;
-  private int e;
-  private int w;
-  private Map<Treasure, Integer> treasures;
-  private int arrows;
+  private int exits;
+  private final Inventory inventory;
   private Monsters monster;
   private Thieves thief;
   private boolean hasPlayer;
@@ -51,17 +49,14 @@ public class Location implements Cell {
     this.y = y;
     this.iD = iD;
     this.type = null;
-    this.n = 0;
-    this.s = 0;
-    this.e = 0;
-    this.w = 0;
+    this.exits = 0;
     this.monster = null;
     this.thief = null;
     this.smellLevel = Smell.NONE;
     this.smellUnits = 0;
-    this.treasures = new HashMap<>();
-    this.neighbors = new HashMap<>();
-    this.arrows = 0;
+    this.inventory = new Inventory();
+    this.neighbors = new EnumMap<>(Directions.class);
+    this.neighborsView = Collections.unmodifiableMap(neighbors);
     this.isRevealed = false;
     this.isNeighboringAPit = false;
     this.hasThief = false;
@@ -80,17 +75,17 @@ public class Location implements Cell {
     this.y = location.getY();
     this.iD = location.getID();
     this.type = location.getType();
-    this.n = location.getN();
-    this.s = location.getS();
-    this.e = location.getE();
-    this.w = location.getW();
+    this.exits = getExitMask(location);
     this.monster = location.getMonster();
     this.thief = location.getThief();
     this.smellLevel = location.getSmellLevel();
     this.smellUnits = location.getSmellUnits();
-    this.treasures = location.getTreasures();
-    this.neighbors = location.getNeighbors();
-    this.arrows = location.getArrows();
+    this.inventory = new Inventory();
+    this.inventory.setTreasure(location.getTreasures());
+    this.inventory.setArrows(location.getArrows());
+    this.neighbors = new EnumMap<>(Directions.class);
+    this.neighbors.putAll(location.getNeighbors());
+    this.neighborsView = Collections.unmodifiableMap(neighbors);
     this.isRevealed = location.isVisited();
     this.isNeighboringAPit = location.isNextToPit();
     this.hasThief = location.hasThief();
@@ -113,7 +108,7 @@ public class Location implements Cell {
    */
   @Override
   public int getN() {
-    return this.n;
+    return getExit(Directions.NORTH);
   }
   
   /**
@@ -121,8 +116,7 @@ public class Location implements Cell {
    */
   @Override
   public void setN(int n) {
-    this.n = n;
-    updateType();
+    setExit(Directions.NORTH, n);
   }
   
   /**
@@ -131,7 +125,7 @@ public class Location implements Cell {
    */
   @Override
   public int getS() {
-    return this.s;
+    return getExit(Directions.SOUTH);
   }
   
   /**
@@ -139,8 +133,7 @@ public class Location implements Cell {
    */
   @Override
   public void setS(int s) {
-    this.s = s;
-    updateType();
+    setExit(Directions.SOUTH, s);
   }
   
   /**
@@ -149,7 +142,7 @@ public class Location implements Cell {
    */
   @Override
   public int getE() {
-    return this.e;
+    return getExit(Directions.EAST);
   }
   
   /**
@@ -157,8 +150,7 @@ public class Location implements Cell {
    */
   @Override
   public void setE(int e) {
-    this.e = e;
-    updateType();
+    setExit(Directions.EAST, e);
   }
   
   /**
@@ -167,7 +159,7 @@ public class Location implements Cell {
    */
   @Override
   public int getW() {
-    return this.w;
+    return getExit(Directions.WEST);
   }
   
   /**
@@ -175,8 +167,7 @@ public class Location implements Cell {
    */
   @Override
   public void setW(int w) {
-    this.w = w;
-    updateType();
+    setExit(Directions.WEST, w);
   }
   
   /**
@@ -233,12 +224,12 @@ public class Location implements Cell {
   }
   
   /**
-   * Get the treasures in this cell if any.
+   * Get the treasures in this cell if any. The map cannot be changed.
    * @return a map of treasure and its quantity.
    */
   @Override
   public Map<Treasure, Integer> getTreasures() {
-    return this.treasures;
+    return this.inventory.getTreasureView();
   }
   
   /**
@@ -246,7 +237,17 @@ public class Location implements Cell {
    */
   @Override
   public void setTreasure(Map<Treasure, Integer> treasures) {
-    this.treasures = treasures;
+    this.inventory.setTreasure(treasures);
+  }
+  
+  /**
+   * Take all of one treasure out of this cell.
+   * @param treasure the treasure to take.
+   * @return the quantity taken.
+   */
+  @Override
+  public int takeTreasure(Treasure treasure) {
+    return this.inventory.takeTreasure(treasure);
   }
   
   /**
@@ -255,7 +256,7 @@ public class Location implements Cell {
    */
   @Override
   public int getArrows() {
-    return arrows;
+    return this.inventory.getArrows();
   }
   
   /**
@@ -264,7 +265,7 @@ public class Location implements Cell {
    */
   @Override
   public void setArrows(int arrows) {
-    this.arrows = arrows;
+    this.inventory.setArrows(arrows);
   }
   
   /**
@@ -398,12 +399,13 @@ public class Location implements Cell {
   
   
   /**
-   * Get the neighbors of the cell.
+   * Get the neighbors of the cell. The map is a view that cannot be changed, and it follows the
+   * changes made with setNeighbors.
    * @return Map of direction and neighbor in that direction.
    */
   @Override
   public Map<Directions, Cell> getNeighbors() {
-    return this.neighbors;
+    return this.neighborsView;
   }
   
   /**
@@ -413,25 +415,19 @@ public class Location implements Cell {
   public void setNeighbors(Directions dir, Cell cell, String action) {
     if (action.equalsIgnoreCase("remove")) {
       this.neighbors.remove(dir);
-      //
     } else if (action.equalsIgnoreCase("add")) {
       this.neighbors.put(dir, cell);
     }
   }
   
   /**
-   * Get directions of entrances in this cell that a player can take from here.
+   * Get directions of entrances in this cell that a player can take from here. The list cannot be
+   * changed.
    * @return List of directions that can be taken by a player.
    */
   @Override
   public List<Directions> getEntrances() {
-    List<Directions> directions = List.of(Directions.values());
-    List<Integer> entrances = List.of(this.n, this.s, this.e, this.w);
-    //Get directions where entrances are present.
-    List<Directions> actualDirections =
-            IntStream.range(0, directions.size()).filter(i -> (entrances.get(i) == 1))
-                    .mapToObj(i -> directions.get(i)).collect(Collectors.toList());
-    return actualDirections;
+    return ENTRANCES.get(this.exits);
   }
   
   @Override
@@ -449,16 +445,52 @@ public class Location implements Cell {
   }
   
   
-  //Update the type of this cell.
-  private void updateType() {
-    long count = IntStream.of(this.n, this.s, this.e, this.w).filter(i -> i == 1).count();
-    if (count == 2) {
+  //Get the entrance in a direction as 1 or 0.
+  private int getExit(Directions direction) {
+    return (this.exits >> direction.ordinal()) & 1;
+  }
+  
+  //Set the entrance in a direction, and update the type of this cell.
+  private void setExit(Directions direction, int value) {
+    if (value == 1) {
+      this.exits |= 1 << direction.ordinal();
+    } else {
+      this.exits &= ~ (1 << direction.ordinal());
+    }
+    if (Integer.bitCount(this.exits) == 2) {
       this.type = CellTypes.TUNNEL;
-    } else if (count != 2) {
+    } else {
       this.type = CellTypes.CAVE;
     }
-    
-    
+  }
+  
+  //Get the entrances of a cell as a mask with one bit for each direction, in the order of the
+  // directions.
+  private static int getExitMask(Cell cell) {
+    int[] exits = {cell.getN(), cell.getS(), cell.getE(), cell.getW()};
+    int mask = 0;
+    for (int i = 0; i < exits.length; i++) {
+      if (exits[i] == 1) {
+        mask |= 1 << i;
+      }
+    }
+    return mask;
+  }
+  
+  //Get the list of entrances for every mask of entrances.
+  private static List<List<Directions>> getAllEntrances() {
+    Directions[] directions = Directions.values();
+    List<List<Directions>> all = new ArrayList<>(1 << directions.length);
+    for (int mask = 0; mask < 1 << directions.length; mask++) {
+      List<Directions> entrances = new ArrayList<>(directions.length);
+      for (Directions direction : directions) {
+        if ((mask & (1 << direction.ordinal())) != 0) {
+          entrances.add(direction);
+        }
+      }
+      all.add(List.copyOf(entrances));
+    }
+    return List.copyOf(all);
   }
   
 }
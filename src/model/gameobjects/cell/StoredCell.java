@@ -0,0 +1,582 @@
+package model.gameobjects.cell;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import model.gameobjects.Directions;
+import model.gameobjects.actors.Monsters;
+import model.gameobjects.actors.Thieves;
+
+/**
+ * This is a package private class that represents a cell in a dungeon as a view over a cell
+ * store. The view only holds the store and the cell ID, and every operation reads or writes the
+ * arrays of the store. The maps of treasures and neighbors are live views of the store too, and
+ * they cannot be changed, the same as the maps of a location. The maps are made the first time
+ * they are asked for, so a view that is never read costs a single object.
+ */
+final class StoredCell implements Cell {
+  private static final Directions[] DIRECTIONS = Directions.values();
+  private static final Treasure[] TREASURES = Treasure.values();
+  private static final CellTypes[] TYPES = CellTypes.values();
+  private static final Smell[] SMELLS = Smell.values();
+  private final CellStore store;
+  private final int id;
+  private Map<Directions, Cell> neighbors;
+  private Map<Treasure, Integer> treasures;
+  
+  /**
+   * Constructor for a view of a cell in a store.
+   * @param store the store that holds the cell.
+   * @param id the ID of the cell.
+   */
+  StoredCell(CellStore store, int id) {
+    this.store = store;
+    this.id = id;
+  }
+  
+  /**
+   * Get the cell ID.
+   * @return the cell ID.
+   */
+  @Override
+  public int getID() {
+    return id;
+  }
+  
+  /**
+   * Check if the cell has an entrance to the north.
+   * @return 1 if there is an entrance and 0 if not.
+   */
+  @Override
+  public int getN() {
+    return getExit(Directions.NORTH);
+  }
+  
+  /**
+   * Set the entrance to the north. 1 if there is an entrance and 0 if not.
+   */
+  @Override
+  public void setN(int n) {
+    setExit(Directions.NORTH, n);
+  }
+  
+  /**
+   * Check if the cell has an entrance to the south.
+   * @return 1 if there is an entrance and 0 if not.
+   */
+  @Override
+  public int getS() {
+    return getExit(Directions.SOUTH);
+  }
+  
+  /**
+   * Set the entrance to the south. 1 if there is an entrance and 0 if not.
+   */
+  @Override
+  public void setS(int s) {
+    setExit(Directions.SOUTH, s);
+  }
+  
+  /**
+   * Check if the cell has an entrance to the East.
+   * @return 1 if there is an entrance and 0 if not.
+   */
+  @Override
+  public int getE() {
+    return getExit(Directions.EAST);
+  }
+  
+  /**
+   * Set the entrance to the east. 1 if there is an entrance and 0 if not.
+   */
+  @Override
+  public void setE(int e) {
+    setExit(Directions.EAST, e);
+  }
+  
+  /**
+   * Check if the cell has an entrance to the west.
+   * @return 1 if there is an entrance and 0 if not.
+   */
+  @Override
+  public int getW() {
+    return getExit(Directions.WEST);
+  }
+  
+  /**
+   * Set the entrance to the west. 1 if there is an entrance and 0 if not.
+   */
+  @Override
+  public void setW(int w) {
+    setExit(Directions.WEST, w);
+  }
+  
+  /**
+   * Check if the location has been visited by the player.
+   */
+  @Override
+  public boolean isVisited() {
+    return hasFlag(CellStore.VISITED);
+  }
+  
+  /**
+   * Set if the location's has been visited by the player.
+   */
+  @Override
+  public void setVisited(boolean b) {
+    setFlag(CellStore.VISITED, b);
+  }
+  
+  /**
+   * Get the location of the cell.
+   * @return list of x and y coordinates.
+   */
+  @Override
+  public List<Integer> getLocation() {
+    return List.of(getX(), getY());
+  }
+  
+  /**
+   * The location of a stored cell is worked out from its ID, so it cannot be set.
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public void setLocation(int[] location) {
+    throw new UnsupportedOperationException("The location of a stored cell is set by its ID.");
+  }
+  
+  /**
+   * Get the x coordinate of the cell.
+   * @return x coordinate.
+   */
+  @Override
+  public int getX() {
+    return id / store.getColumns();
+  }
+  
+  /**
+   * Get the y coordinate of the cell.
+   * @return y coordinate.
+   */
+  @Override
+  public int getY() {
+    return id % store.getColumns();
+  }
+  
+  /**
+   * Get the treasures in this cell if any. The map is a live view of the store that cannot be
+   * changed.
+   * @return a map of treasure and its quantity.
+   */
+  @Override
+  public Map<Treasure, Integer> getTreasures() {
+    if (treasures == null) {
+      treasures = new TreasureMap();
+    }
+    return this.treasures;
+  }
+  
+  /**
+   * Set the treasures in this cell.
+   */
+  @Override
+  public void setTreasure(Map<Treasure, Integer> treasures) {
+    if (treasures == this.treasures) {
+      return;
+    }
+    //Read the new treasures before clearing, in case the map is a view of another cell.
+    int[] counts = new int[TREASURES.length];
+    int keys = 0;
+    for (Map.Entry<Treasure, Integer> entry : treasures.entrySet()) {
+      counts[entry.getKey().ordinal()] = entry.getValue();
+      keys |= 1 << entry.getKey().ordinal();
+    }
+    store.treasureKeys[id] = (byte) keys;
+    System.arraycopy(counts, 0, store.treasures, id * CellStore.NUM_TREASURES, counts.length);
+    store.markUpdated(id);
+  }
+  
+  /**
+   * Take all of one treasure out of this cell.
+   * @param treasure the treasure to take.
+   * @return the quantity taken.
+   */
+  @Override
+  public int takeTreasure(Treasure treasure) {
+    int index = id * CellStore.NUM_TREASURES + treasure.ordinal();
+    int amount = store.treasures[index];
+    store.treasures[index] = 0;
+    store.markUpdated(id);
+    return amount;
+  }
+  
+  /**
+   * Get the number of arrows contained in the cell.
+   * @return count of arrows.
+   */
+  @Override
+  public int getArrows() {
+    return store.arrows[id];
+  }
+  
+  /**
+   * Set the arrows contained in the cell.
+   * @param arrows count of arrows in the cell
+   */
+  @Override
+  public void setArrows(int arrows) {
+    store.arrows[id] = arrows;
+    store.markUpdated(id);
+  }
+  
+  /**
+   * Get the monster contained in the cell if any.
+   * @return the Monster that may be present in the cell.
+   */
+  @Override
+  public Monsters getMonster() {
+    return store.monsters.get(id);
+  }
+  
+  /**
+   * Set a monster in the cell.
+   */
+  @Override
+  public void setMonster(Monsters monster) {
+    if (monster == null) {
+      store.monsters.remove(id);
+    } else {
+      store.monsters.put(id, monster);
+    }
+    store.markChanged(id);
+  }
+  
+  /**
+   * Get the thief contained in the cell if any.
+   * @return the thief that may be present in the cell.
+   */
+  @Override
+  public Thieves getThief() {
+    return store.thieves.get(id);
+  }
+  
+  /**
+   * Set a thief in the cell.
+   */
+  @Override
+  public void setThief(Thieves thief) {
+    if (thief == null) {
+      throw new IllegalArgumentException("Thief can't be null.");
+    }
+    store.thieves.put(id, thief);
+    setFlag(CellStore.THIEF, true);
+    store.markChanged(id);
+  }
+  
+  /**
+   * Check if the location has any thief.
+   * @return thief at this location.
+   */
+  @Override
+  public boolean hasThief() {
+    return hasFlag(CellStore.THIEF);
+  }
+  
+  /**
+   * Check if the location has any player.
+   * @return true or false.
+   */
+  @Override
+  public boolean hasPlayer() {
+    return hasFlag(CellStore.PLAYER);
+  }
+  
+  /**
+   * Set if there's a player at this location.
+   */
+  @Override
+  public void setPlayer(Boolean b) {
+    setFlag(CellStore.PLAYER, b);
+  }
+  
+  /**
+   * Get the type of this cell.
+   * @return "Cave", "Tunnel" or "Pit", or null if the cell has no entrances yet.
+   */
+  @Override
+  public CellTypes getType() {
+    byte type = store.types[id];
+    return type < 0 ? null : TYPES[type];
+  }
+  
+  /**
+   * Set the type of this cell.
+   */
+  @Override
+  public void setType(CellTypes type) {
+    store.types[id] = (byte) (type == null ? - 1 : type.ordinal());
+    store.markChanged(id);
+  }
+  
+  /**
+   * Get the smell level in this cell.
+   * @return the smell in the cell, based on the presence or absence of a monster nearby.
+   */
+  @Override
+  public Smell getSmellLevel() {
+    return SMELLS[store.smellLevels[id]];
+  }
+  
+  /**
+   * Get the smell units in this cell based on the presence or absence, and quantity and distance of
+   * a monster nearby.
+   * @return the smell units in the cell.
+   */
+  @Override
+  public int getSmellUnits() {
+    return store.smellUnits[id];
+  }
+  
+  /**
+   * Set the smell in this cell.
+   */
+  @Override
+  public void setSmell(Smell smell, int units) {
+    store.smellUnits[id] += units;
+    if (store.smellUnits[id] < 1) {
+      store.smellLevels[id] = (byte) Smell.NONE.ordinal();
+    } else {
+      store.smellLevels[id] = (byte) smell.ordinal();
+    }
+    store.markUpdated(id);
+  }
+  
+  /**
+   * Check if the location is near a pit.
+   */
+  @Override
+  public boolean isNextToPit() {
+    return hasFlag(CellStore.PIT_NEIGHBOR);
+  }
+  
+  /**
+   * Set if the location is near a pit.
+   */
+  @Override
+  public void setAsPitNeighbor(boolean b) {
+    setFlag(CellStore.PIT_NEIGHBOR, b);
+  }
+  
+  /**
+   * Get the neighbors of the cell. The map is a live view of the store that cannot be changed.
+   * @return Map of direction and neighbor in that direction.
+   */
+  @Override
+  public Map<Directions, Cell> getNeighbors() {
+    if (neighbors == null) {
+      neighbors = new NeighborMap();
+    }
+    return this.neighbors;
+  }
+  
+  /**
+   * Set the neighbors of the cell. A neighbor can only be the next cell in its direction.
+   */
+  @Override
+  public void setNeighbors(Directions dir, Cell cell, String action) {
+    if (action.equalsIgnoreCase("remove")) {
+      store.links[id] &= ~ (1 << dir.ordinal());
+      store.markUpdated(id);
+    } else if (action.equalsIgnoreCase("add")) {
+      addNeighbor(dir, cell);
+    }
+  }
+  
+  /**
+   * Get directions of entrances in this cell that a player can take from here. The list cannot be
+   * changed.
+   * @return List of directions that can be taken by a player.
+   */
+  @Override
+  public List<Directions> getEntrances() {
+    return Location.ENTRANCES.get(store.exits[id]);
+  }
+  
+  @Override
+  public String toString() {
+    return String.format("%s %d%d", "Cell ", getX(), getY());
+  }
+  
+  /**
+   * Get the formatted grid for display.
+   * @return formatted grid for display.
+   */
+  @Override
+  public String toFormattedString() {
+    return String.format("%s Cell %d%d", getType().name().charAt(0), getX(), getY());
+  }
+  
+  //Get the entrance in a direction as 1 or 0.
+  private int getExit(Directions direction) {
+    return (store.exits[id] >> direction.ordinal()) & 1;
+  }
+  
+  //Set the entrance in a direction, and update the type of the cell: a cell with two entrances
+  // is a tunnel, and any other cell is a cave.
+  private void setExit(Directions direction, int value) {
+    if (value == 1) {
+      store.exits[id] |= 1 << direction.ordinal();
+    } else {
+      store.exits[id] &= ~ (1 << direction.ordinal());
+    }
+    int count = Integer.bitCount(store.exits[id]);
+    setType(count == 2 ? CellTypes.TUNNEL : CellTypes.CAVE);
+  }
+  
+  //Add a neighbor, which must be the next cell in its direction.
+  private void addNeighbor(Directions direction, Cell cell) {
+    if (cell == null || cell.getID() != store.getNextId(id, direction)) {
+      throw new IllegalArgumentException("A neighbor must be the next cell in its direction.");
+    }
+    store.links[id] |= 1 << direction.ordinal();
+    store.markUpdated(id);
+  }
+  
+  //Get the neighbor in a direction, or null if there is none.
+  private Cell getNeighbor(Directions direction) {
+    if ((store.links[id] & (1 << direction.ordinal())) == 0) {
+      return null;
+    }
+    return store.getCell(store.getNextId(id, direction));
+  }
+  
+  //Check a flag of the cell.
+  private boolean hasFlag(int flag) {
+    return (store.flags[id] & flag) != 0;
+  }
+  
+  //Set or clear a flag of the cell.
+  private void setFlag(int flag, boolean value) {
+    if (value) {
+      store.flags[id] |= flag;
+    } else {
+      store.flags[id] &= ~ flag;
+    }
+    store.markUpdated(id);
+  }
+  
+  //Iterate over the set bits of a mask, in the order of the values they stand for.
+  private abstract static class BitIterator<E> implements Iterator<E> {
+    private int remaining;
+    
+    BitIterator(int mask) {
+      this.remaining = mask;
+    }
+    
+    @Override
+    public boolean hasNext() {
+      return remaining != 0;
+    }
+    
+    @Override
+    public E next() {
+      if (remaining == 0) {
+        throw new NoSuchElementException();
+      }
+      int bit = Integer.numberOfTrailingZeros(remaining);
+      remaining &= remaining - 1;
+      return get(bit);
+    }
+    
+    abstract E get(int bit);
+  }
+  
+  //A live map of the neighbors of this cell, which cannot be changed through the map.
+  private final class NeighborMap extends AbstractMap<Directions, Cell> {
+    
+    @Override
+    public boolean containsKey(Object key) {
+      return key instanceof Directions
+              && (store.links[id] & (1 << ((Directions) key).ordinal())) != 0;
+    }
+    
+    @Override
+    public Cell get(Object key) {
+      return key instanceof Directions ? getNeighbor((Directions) key) : null;
+    }
+    
+    @Override
+    public int size() {
+      return Integer.bitCount(store.links[id]);
+    }
+    
+    @Override
+    public Set<Entry<Directions, Cell>> entrySet() {
+      return new AbstractSet<>() {
+        @Override
+        public Iterator<Entry<Directions, Cell>> iterator() {
+          return new BitIterator<>(store.links[id]) {
+            @Override
+            Entry<Directions, Cell> get(int bit) {
+              return new SimpleImmutableEntry<>(DIRECTIONS[bit], getNeighbor(DIRECTIONS[bit]));
+            }
+          };
+        }
+        
+        @Override
+        public int size() {
+          return NeighborMap.this.size();
+        }
+      };
+    }
+  }
+  
+  //A live map of the treasures in this cell, which cannot be changed through the map.
+  private final class TreasureMap extends AbstractMap<Treasure, Integer> {
+    
+    @Override
+    public boolean containsKey(Object key) {
+      return key instanceof Treasure
+              && (store.treasureKeys[id] & (1 << ((Treasure) key).ordinal())) != 0;
+    }
+    
+    @Override
+    public Integer get(Object key) {
+      if (! containsKey(key)) {
+        return null;
+      }
+      return store.treasures[id * CellStore.NUM_TREASURES + ((Treasure) key).ordinal()];
+    }
+    
+    @Override
+    public int size() {
+      return Integer.bitCount(store.treasureKeys[id]);
+    }
+    
+    @Override
+    public Set<Entry<Treasure, Integer>> entrySet() {
+      return new AbstractSet<>() {
+        @Override
+        public Iterator<Entry<Treasure, Integer>> iterator() {
+          return new BitIterator<>(store.treasureKeys[id]) {
+            @Override
+            Entry<Treasure, Integer> get(int bit) {
+              Treasure treasure = TREASURES[bit];
+              return new SimpleImmutableEntry<>(treasure, TreasureMap.this.get(treasure));
+            }
+          };
+        }
+        
+        @Override
+        public int size() {
+          return TreasureMap.this.size();
+        }
+      };
+    }
+  }
+}
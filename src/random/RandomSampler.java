@@ -0,0 +1,123 @@
+package random;
+
+import java.util.Arrays;
+
+/**
+ * This class draws random indices from a range without replacement, using a partial Fisher-Yates
+ * shuffle. The shuffle is done on a virtual array of the indices: only the slots that have been
+ * swapped are stored, and they are marked with the number of the current draw, so starting a new
+ * draw does not need to fill or copy the array. Drawing k indices takes O(k) time, no matter how
+ * large the range is, and the same random instance gives the same indices every time.
+ */
+public class RandomSampler {
+  private final int[] values;
+  private final int[] stamps;
+  private int epoch;
+  private int remaining;
+  
+  /**
+   * Constructor for a sampler that can draw from ranges of up to a given size.
+   * @param capacity the largest range that can be drawn from.
+   */
+  public RandomSampler(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("The capacity of a sampler cannot be negative.");
+    }
+    this.values = new int[capacity];
+    this.stamps = new int[capacity];
+    this.epoch = 0;
+    this.remaining = 0;
+  }
+  
+  /**
+   * Start drawing from the indices 0 to size - 1. Any draw that was in progress is dropped.
+   * @param size the number of indices to draw from.
+   * @param excluded the indices that should never be drawn. Indices outside the range are
+   *         ignored.
+   * @return the number of indices that can be drawn.
+   */
+  public int start(int size, int... excluded) {
+    if (size < 0 || size > values.length) {
+      throw new IllegalArgumentException("Invalid size of the range to draw from: " + size);
+    }
+    if (epoch == Integer.MAX_VALUE) {
+      Arrays.fill(stamps, 0);
+      epoch = 0;
+    }
+    epoch += 1;
+    remaining = size;
+    
+    //Move the excluded indices past the end, from the highest down, so that moving one never
+    // moves another that is still to be moved.
+    int[] sorted = excluded.clone();
+    Arrays.sort(sorted);
+    for (int i = sorted.length - 1; i >= 0; i--) {
+      int index = sorted[i];
+      if (index < 0 || index >= size || (i < sorted.length - 1 && index == sorted[i + 1])) {
+        continue;
+      }
+      remaining -= 1;
+      swap(index, remaining);
+    }
+    return remaining;
+  }
+  
+  /**
+   * Get the number of indices left to draw since the last draw was started.
+   * @return the number of indices left.
+   */
+  public int getRemaining() {
+    return remaining;
+  }
+  
+  /**
+   * Draw a random index that has not been drawn since the last draw was started.
+   * @param random the random instance to draw with.
+   * @return the drawn index.
+   */
+  public int draw(RandomGenerator random) {
+    if (remaining == 0) {
+      throw new IllegalStateException("There are no indices left to draw.");
+    }
+    int index = random.getRandomInt(0, remaining - 1);
+    remaining -= 1;
+    swap(index, remaining);
+    return get(remaining);
+  }
+  
+  /**
+   * Draw a number of distinct random indices from the indices 0 to size - 1. If fewer indices
+   * are available than asked for, all of them are drawn.
+   * @param size the number of indices to draw from.
+   * @param count the number of indices to draw.
+   * @param random the random instance to draw with.
+   * @return the drawn indices, in the order they were drawn.
+   */
+  public int[] sample(int size, int count, RandomGenerator random) {
+    if (count < 0) {
+      throw new IllegalArgumentException("The number of indices to draw cannot be negative.");
+    }
+    start(size);
+    int[] drawn = new int[Math.min(count, size)];
+    for (int i = 0; i < drawn.length; i++) {
+      drawn[i] = draw(random);
+    }
+    return drawn;
+  }
+  
+  //Get the index in a slot of the virtual array. A slot that has not been written in this draw
+  // still holds its own index.
+  private int get(int slot) {
+    return stamps[slot] == epoch ? values[slot] : slot;
+  }
+  
+  //Swap two slots of the virtual array.
+  private void swap(int i, int j) {
+    int first = get(i);
+    int second = get(j);
+    values[i] = second;
+    stamps[i] = epoch;
+    values[j] = first;
+    stamps[j] = epoch;
+  }
+}
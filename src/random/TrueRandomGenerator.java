@@ -6,16 +6,23 @@ import java.util.Random;
  * Class to generate random values without seed. Represents a random generator to be used for
  * various operations in the game that need a randomly assigned value. To make the values truly
  * random, only one instance of RandomGenerator class will be shared throughout the game.
+ *
+ * <p>The values are made with the same linear congruential formula as {@link Random}, so a seed
+ * gives the same values it gives a Random, but the state of the generator can be read and set
+ * again, so a game can be saved and restored part way through.
  */
 public class TrueRandomGenerator implements RandomGenerator {
+  private static final long MULTIPLIER = 0x5DEECE66DL;
+  private static final long ADDEND = 0xBL;
+  private static final long MASK = (1L << 48) - 1;
   
-  private final Random random;
+  private long state;
   
   /**
    * Constructor for true random generator.
    */
   public TrueRandomGenerator() {
-    this.random = new Random();
+    setSeed(new Random().nextLong());
   }
   
   /**
@@ -27,7 +34,7 @@ public class TrueRandomGenerator implements RandomGenerator {
   @Override
   public int getRandomInt(int lowerBound, int upperBound) {
     int currentValue;
-    currentValue = lowerBound + random.nextInt(upperBound + 1 - lowerBound);
+    currentValue = lowerBound + nextInt(upperBound + 1 - lowerBound);
     return currentValue;
   }
   
@@ -36,7 +43,45 @@ public class TrueRandomGenerator implements RandomGenerator {
    */
   @Override
   public void setSeed(long seed) {
-    random.setSeed(seed);
+    this.state = (seed ^ MULTIPLIER) & MASK;
+  }
+  
+  /**
+   * Get the state of the generator, which gives the values still to come.
+   * @return the state.
+   */
+  public long getState() {
+    return state;
+  }
+  
+  /**
+   * Set the state of the generator to a state read before.
+   * @param state the state.
+   */
+  public void setState(long state) {
+    this.state = state & MASK;
+  }
+  
+  //Get a value from 0 (inclusive) up to a bound (exclusive), the same way Random does.
+  private int nextInt(int bound) {
+    if (bound <= 0) {
+      throw new IllegalArgumentException("bound must be positive");
+    }
+    int value = next(31);
+    int max = bound - 1;
+    if ((bound & max) == 0) {
+      return (int) ((bound * (long) value) >> 31);
+    }
+    for (int u = value; u - (value = u % bound) + max < 0; u = next(31)) {
+      //Draw again to keep the values even.
+    }
+    return value;
+  }
+  
+  //Move to the next state and get its highest bits.
+  private int next(int bits) {
+    state = (state * MULTIPLIER + ADDEND) & MASK;
+    return (int) (state >>> (48 - bits));
   }
   
 }
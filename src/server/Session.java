@@ -0,0 +1,86 @@
+package server;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.util.NoSuchElementException;
+
+import controller.ConsoleController;
+import model.AdventureGame;
+
+/**
+ * This is a package private class that represents the connection of one player to a session
+ * server. A session plays one text game over its socket with a console controller, and ends when
+ * the game ends, the player quits or leaves, or the server closes it for being idle.
+ */
+final class Session implements Runnable {
+  private final long id;
+  private final Socket socket;
+  private final SessionServer server;
+  private volatile long lastActive;
+  
+  /**
+   * Constructor for a session over a connected socket.
+   * @param id the ID of the session in the server.
+   * @param socket the socket of the player.
+   * @param server the server that holds the session.
+   */
+  Session(long id, Socket socket, SessionServer server) {
+    this.id = id;
+    this.socket = socket;
+    this.server = server;
+    this.lastActive = System.nanoTime();
+  }
+  
+  /**
+   * Get the ID of the session.
+   * @return the ID.
+   */
+  long getId() {
+    return id;
+  }
+  
+  /**
+   * Get the time the player last sent something, from System.nanoTime().
+   * @return the time of the last activity.
+   */
+  long getLastActive() {
+    return lastActive;
+  }
+  
+  /**
+   * Record that the player sent something.
+   */
+  void touch() {
+    lastActive = System.nanoTime();
+  }
+  
+  /**
+   * Play the game of the session, and remove the session from the server when it ends.
+   */
+  @Override
+  public void run() {
+    try {
+      AdventureGame game = server.newGame();
+      SessionStreams streams = new SessionStreams(socket.getInputStream(),
+              socket.getOutputStream(), this);
+      new ConsoleController(streams, streams, game).playGame();
+      streams.flush();
+    } catch (IOException | NoSuchElementException | IllegalStateException e) {
+      //The player left, or the session was closed. Either way there is no one to tell.
+    } finally {
+      close();
+      server.remove(this);
+    }
+  }
+  
+  /**
+   * Close the socket of the session, which ends a game waiting on the player.
+   */
+  void close() {
+    try {
+      socket.close();
+    } catch (IOException e) {
+      //The socket is closed anyway.
+    }
+  }
+}
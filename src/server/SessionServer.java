@@ -0,0 +1,200 @@
+package server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import model.AdventureGame;
+
+/**
+ * This class serves text games to many players at once over TCP on the local machine. Every
+ * connection is a session that plays its own game with a console controller, on a thread of its
+ * own. The sessions are kept in a concurrent registry, and a reaper closes every session whose
+ * player has sent nothing for longer than the idle timeout.
+ *
+ * <p>A session spends nearly all its time waiting on its player, so the sessions run on virtual
+ * threads when the Java runtime has them, which take a few kilobytes each while they wait instead
+ * of a whole thread stack. On an older runtime the sessions run on daemon platform threads with a
+ * small stack. The streams of a session keep small buffers, so ten thousand idle sessions of small
+ * games fit in a modest heap.
+ */
+public class SessionServer implements Closeable {
+  private static final long PLATFORM_STACK_SIZE = 256 * 1024;
+  private static final long ACCEPT_RETRY_MILLIS = 50;
+  private final ServerSocket serverSocket;
+  private final Supplier<AdventureGame> games;
+  private final long idleTimeoutNanos;
+  private final Map<Long, Session> sessions;
+  private final ThreadFactory sessionThreads;
+  private final boolean isVirtual;
+  private final ScheduledExecutorService reaper;
+  private Thread acceptor;
+  private long nextId;
+  
+  /**
+   * Constructor for a server on a port of the loopback address. The server does not accept
+   * players until it is started.
+   * @param port the port to listen on, or 0 for any free port.
+   * @param games makes a new game for every session.
+   * @param idleTimeoutMillis the time a player may send nothing before the session is closed.
+   * @throws IOException if the port cannot be listened on.
+   */
+  public SessionServer(int port, Supplier<AdventureGame> games, long idleTimeoutMillis)
+          throws IOException {
+    if (games == null) {
+      throw new IllegalArgumentException("The game supplier cannot be null.");
+    }
+    if (idleTimeoutMillis <= 0) {
+      throw new IllegalArgumentException("The idle timeout must be positive.");
+    }
+    this.games = games;
+    this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+    this.sessions = new ConcurrentHashMap<>();
+    ThreadFactory virtual = makeVirtualThreadFactory();
+    this.isVirtual = virtual != null;
+    this.sessionThreads = isVirtual ? virtual : runnable -> {
+      Thread thread = new Thread(null, runnable, "session", PLATFORM_STACK_SIZE);
+      thread.setDaemon(true);
+      return thread;
+    };
+    this.reaper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "session-reaper");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.serverSocket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+  }
+  
+  /**
+   * Start accepting players, and start closing idle sessions.
+   */
+  public synchronized void start() {
+    if (acceptor != null) {
+      throw new IllegalStateException("The server has already been started.");
+    }
+    acceptor = new Thread(this::acceptPlayers, "session-acceptor");
+    acceptor.setDaemon(true);
+    acceptor.start();
+    //Check a few times within a timeout, so an idle session is closed soon after it times out.
+    long period = Math.max(idleTimeoutNanos / 4, TimeUnit.MILLISECONDS.toNanos(10));
+    reaper.scheduleAtFixedRate(this::closeIdleSessions, period, period, TimeUnit.NANOSECONDS);
+  }
+  
+  /**
+   * Get the port the server listens on.
+   * @return the port.
+   */
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+  
+  /**
+   * Get the number of sessions that are open.
+   * @return the number of sessions.
+   */
+  public int getSessionCount() {
+    return sessions.size();
+  }
+  
+  /**
+   * Check if the sessions run on virtual threads.
+   * @return true or false.
+   */
+  public boolean isVirtual() {
+    return isVirtual;
+  }
+  
+  /**
+   * Stop accepting players and close every session.
+   * @throws IOException if the server socket cannot be closed.
+   */
+  @Override
+  public void close() throws IOException {
+    reaper.shutdownNow();
+    try {
+      serverSocket.close();
+    } finally {
+      for (Session session : sessions.values()) {
+        session.close();
+      }
+    }
+  }
+  
+  /**
+   * Get a new game for a session.
+   * @return the game.
+   */
+  AdventureGame newGame() {
+    return games.get();
+  }
+  
+  /**
+   * Remove a session that has ended from the registry.
+   * @param session the session.
+   */
+  void remove(Session session) {
+    sessions.remove(session.getId());
+  }
+  
+  //Accept players until the server socket is closed, starting a session for each. Any other
+  // failure to accept, such as running out of file descriptors, is waited out before trying again.
+  private void acceptPlayers() {
+    while (true) {
+      Socket socket;
+      try {
+        socket = serverSocket.accept();
+      } catch (IOException e) {
+        if (serverSocket.isClosed()) {
+          return;
+        }
+        try {
+          Thread.sleep(ACCEPT_RETRY_MILLIS);
+        } catch (InterruptedException ie) {
+          return;
+        }
+        continue;
+      }
+      Session session = new Session(nextId++, socket, this);
+      sessions.put(session.getId(), session);
+      try {
+        sessionThreads.newThread(session).start();
+      } catch (OutOfMemoryError | RuntimeException e) {
+        //Turn the player away rather than stop accepting.
+        session.close();
+        remove(session);
+      }
+    }
+  }
+  
+  //Close every session whose player has sent nothing for longer than the idle timeout.
+  private void closeIdleSessions() {
+    long now = System.nanoTime();
+    for (Session session : sessions.values()) {
+      if (now - session.getLastActive() > idleTimeoutNanos) {
+        session.close();
+      }
+    }
+  }
+  
+  //Get a factory of virtual threads through reflection, or null if the runtime has none.
+  private static ThreadFactory makeVirtualThreadFactory() {
+    try {
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+      Method factory = builderType.getMethod("factory");
+      return (ThreadFactory) factory.invoke(builder);
+    } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+      return null;
+    }
+  }
+}
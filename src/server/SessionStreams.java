@@ -0,0 +1,104 @@
+package server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This is a package private class that adapts the socket of a session to the readable and the
+ * appendable of a console controller. The text the controller appends is kept until the
+ * controller next reads, and is sent in one write just before the read, so the player always sees
+ * a whole prompt. The streams keep small buffers of their own instead of the 8 KB buffers of the
+ * standard readers and writers, since a server holds thousands of sessions that are mostly idle.
+ */
+final class SessionStreams implements Readable, Appendable {
+  private static final int INPUT_BUFFER_SIZE = 256;
+  private final InputStream input;
+  private final OutputStream output;
+  private final Session session;
+  private final ByteBuffer bytes;
+  private final CharsetDecoder decoder;
+  private final StringBuilder pending;
+  
+  /**
+   * Constructor for the streams of a session.
+   * @param input the stream of the socket to read from.
+   * @param output the stream of the socket to write to.
+   * @param session the session, which is told every time the player sends something.
+   */
+  SessionStreams(InputStream input, OutputStream output, Session session) {
+    this.input = input;
+    this.output = output;
+    this.session = session;
+    this.bytes = ByteBuffer.allocate(INPUT_BUFFER_SIZE);
+    this.decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    this.pending = new StringBuilder();
+  }
+  
+  /**
+   * Send the text appended so far, then read what the player sends next.
+   * @param target the buffer to read into.
+   * @return the number of characters read, or -1 if the player closed the connection.
+   * @throws IOException if the socket cannot be read or written.
+   */
+  @Override
+  public int read(CharBuffer target) throws IOException {
+    flush();
+    if (! target.hasRemaining()) {
+      return 0;
+    }
+    while (true) {
+      //Decode what is left from the last read first, which may end part way through a character.
+      int start = target.position();
+      bytes.flip();
+      decoder.decode(bytes, target, false);
+      bytes.compact();
+      if (target.position() > start) {
+        return target.position() - start;
+      }
+      int count = input.read(bytes.array(), bytes.position(), bytes.remaining());
+      if (count < 0) {
+        return -1;
+      }
+      bytes.position(bytes.position() + count);
+      session.touch();
+    }
+  }
+  
+  @Override
+  public Appendable append(CharSequence text) {
+    pending.append(text);
+    return this;
+  }
+  
+  @Override
+  public Appendable append(CharSequence text, int start, int end) {
+    pending.append(text, start, end);
+    return this;
+  }
+  
+  @Override
+  public Appendable append(char c) {
+    pending.append(c);
+    return this;
+  }
+  
+  /**
+   * Send the text appended since the last read.
+   * @throws IOException if the socket cannot be written.
+   */
+  void flush() throws IOException {
+    if (pending.length() > 0) {
+      output.write(pending.toString().getBytes(StandardCharsets.UTF_8));
+      output.flush();
+      pending.setLength(0);
+    }
+  }
+}
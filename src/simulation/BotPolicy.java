@@ -0,0 +1,22 @@
+package simulation;
+
+import model.AdventureGame;
+import random.RandomGenerator;
+
+/**
+ * This interface represents a bot that plays a Dungeon game without a person, one turn at a time.
+ * A simulation runner asks the bot for a turn until the game is over or it runs out of turns. One
+ * bot plays many games at once on different threads, so a bot must not keep any state between
+ * turns. Any random choice must be made with the random generator it is given, which belongs to
+ * the game being played, so a simulation gives the same results every time it is run.
+ */
+public interface BotPolicy {
+  
+  /**
+   * Play one turn of a game, by picking up items, moving or shooting an arrow. A command that the
+   * game does not allow is dropped, and the bot is asked for another turn.
+   * @param game the game to play.
+   * @param random the random generator of the game, for the choices of the bot.
+   */
+  void takeTurn(AdventureGame game, RandomGenerator random);
+}
@@ -0,0 +1,35 @@
+package simulation;
+
+import model.AdventureGame;
+import model.gameobjects.Directions;
+import model.gameobjects.cell.Cell;
+import random.RandomGenerator;
+
+/**
+ * This class represents a bot that picks up everything it finds and takes the shortest route to
+ * the destination. When it smells a monster in the next cave on its route, it shoots an arrow
+ * along the route before it moves on, for as long as it has arrows.
+ */
+public class GoalSeekingBot implements BotPolicy {
+  
+  /**
+   * Pick up the treasure and arrows in the cell of the player, then shoot or move toward the
+   * destination.
+   * @param game the game to play.
+   * @param random the random generator of the game, which this bot does not need.
+   */
+  @Override
+  public void takeTurn(AdventureGame game, RandomGenerator random) {
+    Cell location = game.getPlayer().getLocation();
+    RandomWalkBot.pickUpItems(game, location);
+    Directions direction = game.getDirectionToGoal();
+    if (direction == null) {
+      throw new IllegalStateException("The destination cannot be reached.");
+    }
+    //A terrible smell means a monster one cave away.
+    if (location.getSmellUnits() > 1 && game.getArrowCount() > 0) {
+      game.shootArrow(direction, 1);
+    }
+    game.movePlayer(direction);
+  }
+}
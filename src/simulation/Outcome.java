@@ -0,0 +1,9 @@
+package simulation;
+
+/**
+ * The ways a simulated game can end. A game that is still going when it runs out of turns has
+ * timed out. Being robbed by a thief does not end a game, so it is counted on its own.
+ */
+public enum Outcome {
+  WON, EATEN, FELL, TIMED_OUT
+}
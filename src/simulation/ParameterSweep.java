@@ -0,0 +1,335 @@
+package simulation;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import random.RandomGenerator;
+import random.TrueRandomGenerator;
+
+/**
+ * This class runs a batch of simulated games for every point of a grid of game settings, and
+ * writes a line of results to a CSV file as soon as each point is finished. A line has the
+ * settings of the point, with its seed and turn limit, the outcomes of its games, and the average
+ * path length, arrows used and treasure lost to thieves in a game.
+ *
+ * <p>The games of every point are split into chunks of about the same work, by giving a chunk
+ * fewer games the more cells its Dungeon has. The chunks are handed to the threads of a pool in
+ * turns, one chunk of every point in each turn, so every point gets the same share of the pool
+ * and the points with large Dungeons do not hold back the others. Every chunk plays into stats of
+ * its own, and the stats of a point are only added up by the thread that finishes its last chunk.
+ *
+ * <p>A line is flushed to the file as soon as it is written. A sweep that is run again with the
+ * same file skips the points that already have a line, so a sweep that was stopped goes on from
+ * the points it finished. A file with a line whose settings, seed or turn limit differ from its
+ * point is from a different sweep, and is not added to.
+ */
+public class ParameterSweep {
+  /**
+   * The header line of the results file.
+   */
+  public static final String HEADER = "point,rows,cols,wrapped,interconnectivity,treasure,"
+          + "monsters,games,seed,max_turns,won,eaten,fell,timed_out,robbed,win_rate,"
+          + "avg_path_length,avg_arrows_used,avg_thief_losses";
+  private static final int SETTINGS_COLUMNS = 10;
+  private static final long CELLS_PER_CHUNK = 4096;
+  private final List<SimulationConfig> points;
+  private final BotPolicy policy;
+  private final ForkJoinPool pool;
+  
+  /**
+   * Constructor for a sweep over a list of points that plays on the common fork join pool.
+   * @param points the settings of the games at each point.
+   * @param policy the bot that plays the games.
+   */
+  public ParameterSweep(List<SimulationConfig> points, BotPolicy policy) {
+    this(points, policy, ForkJoinPool.commonPool());
+  }
+  
+  /**
+   * Constructor for a sweep over a list of points that plays on a chosen pool.
+   * @param points the settings of the games at each point.
+   * @param policy the bot that plays the games.
+   * @param pool the pool to play the games on.
+   */
+  public ParameterSweep(List<SimulationConfig> points, BotPolicy policy, ForkJoinPool pool) {
+    if (points == null || policy == null || pool == null) {
+      throw new IllegalArgumentException("The points, policy and pool cannot be null.");
+    }
+    this.points = List.copyOf(points);
+    this.policy = policy;
+    this.pool = pool;
+  }
+  
+  /**
+   * Make the points of a grid of settings, with every combination of the values given. The rows
+   * change slowest and the percentage of monsters fastest. Every point plays the same seeds, so
+   * the points are compared on the same random values.
+   * @param rows the numbers of rows.
+   * @param cols the numbers of columns.
+   * @param wrapped the wrapping types.
+   * @param interconnectivity the degrees of interconnectivity.
+   * @param treasure the percentages of caves with treasure.
+   * @param monsters the percentages of caves with monsters.
+   * @param games the number of games to play at each point.
+   * @param seed the seed of the first game at each point.
+   * @param maxTurns the number of turns a game is played for before it times out.
+   * @return the points of the grid.
+   */
+  public static List<SimulationConfig> makeGrid(int[] rows, int[] cols, boolean[] wrapped,
+                                                int[] interconnectivity, int[] treasure,
+                                                int[] monsters, int games, int seed,
+                                                int maxTurns) {
+    List<SimulationConfig> grid = new ArrayList<>();
+    for (int row : rows) {
+      for (int col : cols) {
+        for (boolean isWrapped : wrapped) {
+          for (int degree : interconnectivity) {
+            for (int percentOfTreasure : treasure) {
+              for (int percentOfMonsters : monsters) {
+                grid.add(new SimulationConfig(row, col, degree, isWrapped, percentOfTreasure,
+                        percentOfMonsters, games, seed, maxTurns));
+              }
+            }
+          }
+        }
+      }
+    }
+    return grid;
+  }
+  
+  /**
+   * Get the points of the sweep.
+   * @return the settings of the games at each point, which cannot be changed.
+   */
+  public List<SimulationConfig> getPoints() {
+    return points;
+  }
+  
+  /**
+   * Play the points that do not have a line in a results file yet, and add their lines to it.
+   * @param output the path of the results file, which is made if it does not exist.
+   * @return the number of points played.
+   * @throws IOException if the file cannot be read or written, or holds the results of a
+   *         different sweep.
+   * @throws IllegalArgumentException if the settings of a point are not valid for a game.
+   */
+  public int run(Path output) throws IOException {
+    Set<Integer> done = readFinishedPoints(output);
+    List<Integer> pending = new ArrayList<>();
+    for (int point = 0; point < points.size(); point++) {
+      if (! done.contains(point)) {
+        pending.add(point);
+      }
+    }
+    
+    try (BufferedWriter writer = Files.newBufferedWriter(output, StandardOpenOption.CREATE,
+            StandardOpenOption.APPEND)) {
+      if (Files.size(output) == 0) {
+        writer.write(HEADER);
+        writer.newLine();
+        writer.flush();
+      }
+      Schedule schedule = new Schedule(pending, writer);
+      List<ForkJoinTask<?>> workers = new ArrayList<>();
+      for (int i = 0; i < pool.getParallelism(); i++) {
+        workers.add(pool.submit(schedule::work));
+      }
+      //Wait for every worker before the file is closed, even after one of them has failed.
+      for (ForkJoinTask<?> worker : workers) {
+        worker.join();
+      }
+      if (schedule.failure.get() != null) {
+        throw schedule.failure.get();
+      }
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    return pending.size();
+  }
+  
+  //Read the points that already have a line in a results file. A last line that was cut short
+  // has no line break after it, and is dropped from the file.
+  private Set<Integer> readFinishedPoints(Path output) throws IOException {
+    if (! Files.exists(output) || Files.size(output) == 0) {
+      return Collections.emptySet();
+    }
+    List<String> lines = new ArrayList<>(Files.readAllLines(output));
+    if (! endsWithLineBreak(output)) {
+      lines.remove(lines.size() - 1);
+      Path temp = Files.createTempFile(output.toAbsolutePath().getParent(), "sweep", ".csv");
+      Files.write(temp, lines);
+      Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING);
+      if (lines.isEmpty()) {
+        return Collections.emptySet();
+      }
+    }
+    if (! lines.get(0).equals(HEADER)) {
+      throw new IOException("The results file does not start with the expected header.");
+    }
+    Set<Integer> done = new HashSet<>();
+    int width = HEADER.split(",").length;
+    for (int i = 1; i < lines.size(); i++) {
+      String[] columns = lines.get(i).split(",", -1);
+      int point;
+      try {
+        point = Integer.parseInt(columns[0]);
+      } catch (NumberFormatException e) {
+        throw new IOException(String.format("Invalid line %d in the results file.", i + 1), e);
+      }
+      if (columns.length != width || point < 0 || point >= points.size()
+              || ! String.join(",", List.of(columns).subList(0, SETTINGS_COLUMNS))
+              .equals(formatSettings(point))) {
+        throw new IOException("The results file is from a different sweep.");
+      }
+      done.add(point);
+    }
+    return done;
+  }
+  
+  //Check if a file that is not empty ends with a line break.
+  private static boolean endsWithLineBreak(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      ByteBuffer last = ByteBuffer.allocate(1);
+      channel.read(last, channel.size() - 1);
+      return last.get(0) == '\n';
+    }
+  }
+  
+  //Format the number and the settings of a point, as the first columns of its line.
+  private String formatSettings(int point) {
+    SimulationConfig config = points.get(point);
+    return String.format(Locale.ROOT, "%d,%d,%d,%b,%d,%d,%d,%d,%d,%d", point, config.getRows(),
+            config.getColumns(), config.isWrapped(), config.getInterconnectivity(),
+            config.getPercentOfTreasure(), config.getPercentOfMonsters(), config.getGames(),
+            config.getSeed(), config.getMaxTurns());
+  }
+  
+  //Format the line of results of a point.
+  private String formatLine(int point, SimulationStats stats) {
+    double games = Math.max(stats.getGames(), 1);
+    return String.format(Locale.ROOT, "%s,%d,%d,%d,%d,%d,%.4f,%.3f,%.3f,%.3f",
+            formatSettings(point), stats.getCount(Outcome.WON), stats.getCount(Outcome.EATEN),
+            stats.getCount(Outcome.FELL), stats.getCount(Outcome.TIMED_OUT),
+            stats.getRobbedCount(), stats.getWinRate(), stats.getTotalMoves() / games,
+            stats.getTotalArrowsUsed() / games, stats.getTotalTreasureLost() / games);
+  }
+  
+  //The chunks of the pending points in the order they are played, and the stats played so far.
+  private class Schedule {
+    private final BufferedWriter writer;
+    private final int[] chunkPoints;
+    private final int[] chunkStarts;
+    private final int[] chunkEnds;
+    private final SimulationStats[] chunkStats;
+    private final List<List<Integer>> pointChunks;
+    private final AtomicIntegerArray chunksLeft;
+    private final AtomicInteger next;
+    private final AtomicReference<RuntimeException> failure;
+    private final SimulationRunner[] runners;
+    
+    //Split every pending point into chunks and deal them out one chunk of every point at a time.
+    private Schedule(List<Integer> pending, BufferedWriter writer) {
+      this.writer = writer;
+      this.runners = new SimulationRunner[points.size()];
+      this.pointChunks = new ArrayList<>();
+      this.chunksLeft = new AtomicIntegerArray(points.size());
+      this.next = new AtomicInteger();
+      this.failure = new AtomicReference<>();
+      int[] chunkSizes = new int[points.size()];
+      int total = 0;
+      int rounds = 0;
+      for (int point = 0; point < points.size(); point++) {
+        pointChunks.add(new ArrayList<>());
+      }
+      for (int point : pending) {
+        SimulationConfig config = points.get(point);
+        runners[point] = new SimulationRunner(config, policy, pool);
+        long cells = (long) config.getRows() * config.getColumns();
+        chunkSizes[point] = (int) Math.max(1, Math.min(config.getGames(),
+                CELLS_PER_CHUNK / cells));
+        int chunks = (config.getGames() + chunkSizes[point] - 1) / chunkSizes[point];
+        //A point with no games still gets a chunk, so it gets a line.
+        chunks = Math.max(chunks, 1);
+        chunksLeft.set(point, chunks);
+        total += chunks;
+        rounds = Math.max(rounds, chunks);
+      }
+      this.chunkPoints = new int[total];
+      this.chunkStarts = new int[total];
+      this.chunkEnds = new int[total];
+      this.chunkStats = new SimulationStats[total];
+      int chunk = 0;
+      for (int round = 0; round < rounds; round++) {
+        for (int point : pending) {
+          if (round < chunksLeft.get(point)) {
+            int games = points.get(point).getGames();
+            chunkPoints[chunk] = point;
+            chunkStarts[chunk] = Math.min(round * chunkSizes[point], games);
+            chunkEnds[chunk] = Math.min((round + 1) * chunkSizes[point], games);
+            pointChunks.get(point).add(chunk);
+            chunk += 1;
+          }
+        }
+      }
+    }
+    
+    //Play chunks until there are none left, and write the line of every point finished. A chunk
+    // that fails is kept as the failure of the sweep, and takes the chunks that are left, so every
+    // worker stops after its current chunk.
+    private void work() {
+      RandomGenerator random = new TrueRandomGenerator();
+      try {
+        for (int chunk = next.getAndIncrement(); chunk < chunkPoints.length;
+             chunk = next.getAndIncrement()) {
+          int point = chunkPoints[chunk];
+          SimulationStats stats = new SimulationStats();
+          for (int index = chunkStarts[chunk]; index < chunkEnds[chunk]; index++) {
+            runners[point].playGame(index, random, stats);
+          }
+          chunkStats[chunk] = stats;
+          if (chunksLeft.decrementAndGet(point) == 0) {
+            SimulationStats total = new SimulationStats();
+            for (int finished : pointChunks.get(point)) {
+              total.merge(chunkStats[finished]);
+            }
+            writeLine(formatLine(point, total));
+          }
+        }
+      } catch (RuntimeException e) {
+        failure.compareAndSet(null, e);
+        next.set(chunkPoints.length);
+      }
+    }
+    
+    //Write a line to the results file and flush it, so the point is kept if the sweep stops.
+    private void writeLine(String line) {
+      synchronized (writer) {
+        try {
+          writer.write(line);
+          writer.newLine();
+          writer.flush();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package simulation;
+
+import java.util.List;
+import java.util.Map;
+
+import model.AdventureGame;
+import model.gameobjects.Directions;
+import model.gameobjects.cell.Cell;
+import model.gameobjects.cell.Treasure;
+import random.RandomGenerator;
+
+/**
+ * This class represents a bot that picks up everything it finds and moves through a random
+ * entrance of its cell on every turn. It never shoots, so it shows how dangerous a Dungeon is to a
+ * player who does not pay attention.
+ */
+public class RandomWalkBot implements BotPolicy {
+  
+  /**
+   * Pick up the treasure and arrows in the cell of the player, then move through a random entrance.
+   * @param game the game to play.
+   * @param random the random generator of the game, for the choices of the bot.
+   */
+  @Override
+  public void takeTurn(AdventureGame game, RandomGenerator random) {
+    Cell location = game.getPlayer().getLocation();
+    pickUpItems(game, location);
+    List<Directions> entrances = location.getEntrances();
+    game.movePlayer(entrances.get(random.getRandomInt(0, entrances.size() - 1)));
+  }
+  
+  /**
+   * Pick up all the treasure and arrows in a cell.
+   * @param game the game to play.
+   * @param location the cell of the player.
+   */
+  static void pickUpItems(AdventureGame game, Cell location) {
+    for (Map.Entry<Treasure, Integer> entry : location.getTreasures().entrySet()) {
+      if (entry.getValue() > 0) {
+        game.pickTreasure(entry.getKey());
+      }
+    }
+    if (location.getArrows() > 0) {
+      game.pickArrows();
+    }
+  }
+}
@@ -0,0 +1,123 @@
+package simulation;
+
+/**
+ * This class represents the settings of a batch of simulated games: the settings every game is
+ * built from, the number of games, the seed of the first game and the number of turns a game is
+ * played for before it times out. Game i of the batch is built from the seed plus i, so the same
+ * configuration always plays the same games.
+ */
+public final class SimulationConfig {
+  private final int rows;
+  private final int cols;
+  private final int interconnectivity;
+  private final boolean isWrapped;
+  private final int percentOfTreasure;
+  private final int percentOfMonsters;
+  private final int games;
+  private final int seed;
+  private final int maxTurns;
+  
+  /**
+   * Constructor for the settings of a batch of games.
+   * @param rows Number of rows in each Dungeon.
+   * @param cols Number of columns in each Dungeon.
+   * @param interconnectivity The degree of interconnectivity of each Dungeon.
+   * @param isWrapped Whether the Dungeons are of wrapping type or not.
+   * @param percentOfTreasure The percentage of caves with treasures.
+   * @param percentOfMonsters The percentage of caves with monsters.
+   * @param games the number of games to play.
+   * @param seed the seed of the first game.
+   * @param maxTurns the number of turns a game is played for before it times out.
+   */
+  public SimulationConfig(int rows, int cols, int interconnectivity, boolean isWrapped,
+                          int percentOfTreasure, int percentOfMonsters, int games, int seed,
+                          int maxTurns) {
+    if (games < 0) {
+      throw new IllegalArgumentException("The number of games cannot be negative.");
+    }
+    if (maxTurns < 1) {
+      throw new IllegalArgumentException("A game must be played for at least 1 turn.");
+    }
+    this.rows = rows;
+    this.cols = cols;
+    this.interconnectivity = interconnectivity;
+    this.isWrapped = isWrapped;
+    this.percentOfTreasure = percentOfTreasure;
+    this.percentOfMonsters = percentOfMonsters;
+    this.games = games;
+    this.seed = seed;
+    this.maxTurns = maxTurns;
+  }
+  
+  /**
+   * Get the rows in each Dungeon.
+   * @return number of rows.
+   */
+  public int getRows() {
+    return rows;
+  }
+  
+  /**
+   * Get the columns in each Dungeon.
+   * @return number of columns.
+   */
+  public int getColumns() {
+    return cols;
+  }
+  
+  /**
+   * Get the interconnectivity of each Dungeon.
+   * @return the degree of interconnectivity.
+   */
+  public int getInterconnectivity() {
+    return interconnectivity;
+  }
+  
+  /**
+   * Check if the Dungeons are wrapping.
+   * @return true or false.
+   */
+  public boolean isWrapped() {
+    return isWrapped;
+  }
+  
+  /**
+   * Get the percent of caves in each Dungeon with treasure.
+   * @return percentage.
+   */
+  public int getPercentOfTreasure() {
+    return percentOfTreasure;
+  }
+  
+  /**
+   * Get the percent of caves in each Dungeon with monsters.
+   * @return percentage.
+   */
+  public int getPercentOfMonsters() {
+    return percentOfMonsters;
+  }
+  
+  /**
+   * Get the number of games to play.
+   * @return count of games.
+   */
+  public int getGames() {
+    return games;
+  }
+  
+  /**
+   * Get the seed of the first game.
+   * @return the seed.
+   */
+  public int getSeed() {
+    return seed;
+  }
+  
+  /**
+   * Get the number of turns a game is played for before it times out.
+   * @return the turn limit.
+   */
+  public int getMaxTurns() {
+    return maxTurns;
+  }
+}
@@ -0,0 +1,164 @@
+package simulation;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import model.AdventureGame;
+import model.Game;
+import model.gameobjects.actors.Player;
+import model.gameobjects.actors.Status;
+import model.gameobjects.cell.Cell;
+import model.gameobjects.cell.CellTypes;
+import random.RandomGenerator;
+import random.TrueRandomGenerator;
+
+/**
+ * This class plays a batch of games without a view, with a bot making every move, and gathers the
+ * outcomes of the games. The games are split into ranges that are played as tasks on a fork join
+ * pool. Every task plays its games into stats of its own, and the stats are added together as the
+ * tasks are joined, so the threads of the pool never wait on each other.
+ *
+ * <p>Every game is built from its own seed, and the bot makes its choices with a random generator
+ * seeded from the same seed, so a batch gives the same stats no matter how many threads the pool
+ * has.
+ */
+public class SimulationRunner {
+  private static final int GAMES_PER_TASK = 32;
+  private static final long BOT_SEED_MIX = 0x9E3779B97F4A7C15L;
+  private final SimulationConfig config;
+  private final BotPolicy policy;
+  private final ForkJoinPool pool;
+  
+  /**
+   * Constructor for a runner that plays on the common fork join pool.
+   * @param config the settings of the games.
+   * @param policy the bot that plays the games.
+   */
+  public SimulationRunner(SimulationConfig config, BotPolicy policy) {
+    this(config, policy, ForkJoinPool.commonPool());
+  }
+  
+  /**
+   * Constructor for a runner that plays on a chosen pool.
+   * @param config the settings of the games.
+   * @param policy the bot that plays the games.
+   * @param pool the pool to play the games on.
+   */
+  public SimulationRunner(SimulationConfig config, BotPolicy policy, ForkJoinPool pool) {
+    if (config == null || policy == null || pool == null) {
+      throw new IllegalArgumentException("The config, policy and pool cannot be null.");
+    }
+    this.config = config;
+    this.policy = policy;
+    this.pool = pool;
+  }
+  
+  /**
+   * Play all the games of the batch.
+   * @return the stats of the games.
+   * @throws IllegalArgumentException if the settings of the games are not valid for a game.
+   */
+  public SimulationStats run() {
+    return run(0, config.getGames());
+  }
+  
+  /**
+   * Play a range of the games of the batch.
+   * @param from the index of the first game to play.
+   * @param to the index after the last game to play.
+   * @return the stats of the games.
+   * @throws IllegalArgumentException if the settings of the games are not valid for a game.
+   */
+  public SimulationStats run(int from, int to) {
+    if (from < 0 || to > config.getGames() || from > to) {
+      throw new IllegalArgumentException(String.format("Invalid range of games: %d to %d", from,
+              to));
+    }
+    return pool.invoke(new GamesTask(from, to));
+  }
+  
+  /**
+   * Play one game of the batch and record it.
+   * @param index the index of the game in the batch.
+   * @param random the random generator for the choices of the bot, which is seeded again.
+   * @param stats the stats to record the game in.
+   */
+  void playGame(int index, RandomGenerator random, SimulationStats stats) {
+    int seed = config.getSeed() + index;
+    AdventureGame game = new Game(config.getRows(), config.getColumns(),
+            config.getInterconnectivity(), config.isWrapped(), config.getPercentOfTreasure(),
+            config.getPercentOfMonsters(), new Player(1), seed);
+    random.setSeed(seed * BOT_SEED_MIX);
+    //Only a shot takes an arrow out of the game, so the arrows held at the start and the arrows
+    // picked up, less the arrows held at the end, are the arrows that were shot.
+    int arrows = game.getArrowCount();
+    int turns = 0;
+    int moves = 0;
+    while (! game.isGameOver() && turns < config.getMaxTurns()) {
+      Cell before = game.getPlayer().getLocation();
+      int lying = before.getArrows();
+      try {
+        policy.takeTurn(game, random);
+      } catch (IllegalArgumentException e) {
+        //The game did not allow the command, so the turn is lost.
+      }
+      turns += 1;
+      arrows += lying - before.getArrows();
+      if (game.getPlayer().getLocation() != before) {
+        moves += 1;
+      }
+    }
+    stats.record(getOutcome(game), turns, moves, arrows - game.getArrowCount(),
+            countStolen(game));
+  }
+  
+  //Get how a game ended.
+  private static Outcome getOutcome(AdventureGame game) {
+    if (! game.isGameOver()) {
+      return Outcome.TIMED_OUT;
+    }
+    if (game.getPlayerStatus() == Status.WON) {
+      return Outcome.WON;
+    }
+    return game.getPlayer().getLocation().getType() == CellTypes.PIT ? Outcome.FELL
+            : Outcome.EATEN;
+  }
+  
+  //Count the treasure thieves took from the player in a game.
+  private static int countStolen(AdventureGame game) {
+    int stolen = 0;
+    for (int amount : game.getTreasureStolen().values()) {
+      stolen += amount;
+    }
+    return stolen;
+  }
+  
+  //A task that plays a range of games, splitting it in halves until the range is small.
+  private class GamesTask extends RecursiveTask<SimulationStats> {
+    private static final long serialVersionUID = 1L;
+    private final int from;
+    private final int to;
+    
+    private GamesTask(int from, int to) {
+      this.from = from;
+      this.to = to;
+    }
+    
+    @Override
+    protected SimulationStats compute() {
+      if (to - from <= GAMES_PER_TASK) {
+        SimulationStats stats = new SimulationStats();
+        RandomGenerator random = new TrueRandomGenerator();
+        for (int index = from; index < to; index++) {
+          playGame(index, random, stats);
+        }
+        return stats;
+      }
+      int middle = (from + to) >>> 1;
+      GamesTask second = new GamesTask(middle, to);
+      second.fork();
+      SimulationStats stats = new GamesTask(from, middle).compute();
+      return stats.merge(second.join());
+    }
+  }
+}
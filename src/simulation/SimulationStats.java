@@ -0,0 +1,137 @@
+package simulation;
+
+/**
+ * This class represents the outcome statistics of a batch of simulated games. Every thread of a
+ * simulation records its games in stats of its own, and the stats of the threads are merged when
+ * they finish, so the threads never share a counter.
+ */
+public final class SimulationStats {
+  private static final Outcome[] OUTCOMES = Outcome.values();
+  private final long[] outcomes;
+  private long games;
+  private long robbed;
+  private long turns;
+  private long moves;
+  private long arrowsUsed;
+  private long treasureLost;
+  
+  /**
+   * Constructor for the stats of no games.
+   */
+  public SimulationStats() {
+    this.outcomes = new long[OUTCOMES.length];
+  }
+  
+  /**
+   * Record a game that ended.
+   * @param outcome how the game ended.
+   * @param turns the number of turns played.
+   * @param moves the number of moves the player made.
+   * @param arrowsUsed the number of arrows the player shot.
+   * @param treasureLost the amount of treasure thieves took from the player.
+   */
+  void record(Outcome outcome, int turns, int moves, int arrowsUsed, int treasureLost) {
+    outcomes[outcome.ordinal()] += 1;
+    games += 1;
+    if (treasureLost > 0) {
+      this.robbed += 1;
+    }
+    this.turns += turns;
+    this.moves += moves;
+    this.arrowsUsed += arrowsUsed;
+    this.treasureLost += treasureLost;
+  }
+  
+  /**
+   * Add the games of other stats to these stats. The other stats are not changed.
+   * @param other the stats to add.
+   * @return these stats.
+   */
+  SimulationStats merge(SimulationStats other) {
+    for (int i = 0; i < outcomes.length; i++) {
+      outcomes[i] += other.outcomes[i];
+    }
+    games += other.games;
+    robbed += other.robbed;
+    turns += other.turns;
+    moves += other.moves;
+    arrowsUsed += other.arrowsUsed;
+    treasureLost += other.treasureLost;
+    return this;
+  }
+  
+  /**
+   * Get the number of games played.
+   * @return count of games.
+   */
+  public long getGames() {
+    return games;
+  }
+  
+  /**
+   * Get the number of games that ended in a way.
+   * @param outcome how the games ended.
+   * @return count of games.
+   */
+  public long getCount(Outcome outcome) {
+    return outcomes[outcome.ordinal()];
+  }
+  
+  /**
+   * Get the number of games in which a thief took treasure from the player.
+   * @return count of games.
+   */
+  public long getRobbedCount() {
+    return robbed;
+  }
+  
+  /**
+   * Get the number of turns played in all the games.
+   * @return count of turns.
+   */
+  public long getTotalTurns() {
+    return turns;
+  }
+  
+  /**
+   * Get the number of moves made in all the games.
+   * @return count of moves.
+   */
+  public long getTotalMoves() {
+    return moves;
+  }
+  
+  /**
+   * Get the number of arrows shot in all the games.
+   * @return count of arrows.
+   */
+  public long getTotalArrowsUsed() {
+    return arrowsUsed;
+  }
+  
+  /**
+   * Get the amount of treasure thieves took from the player in all the games.
+   * @return amount of treasure.
+   */
+  public long getTotalTreasureLost() {
+    return treasureLost;
+  }
+  
+  /**
+   * Get the share of the games that were won.
+   * @return the win rate from 0 to 1, which is 0 if no games were played.
+   */
+  public double getWinRate() {
+    return games == 0 ? 0 : (double) getCount(Outcome.WON) / games;
+  }
+  
+  @Override
+  public String toString() {
+    StringBuilder out = new StringBuilder(String.format("Games: %d", games));
+    for (Outcome outcome : OUTCOMES) {
+      out.append(String.format(", %s: %d", outcome, getCount(outcome)));
+    }
+    return out.append(String.format(", ROBBED: %d, Moves: %d, Arrows used: %d, Treasure lost: %d",
+            robbed, moves, arrowsUsed, treasureLost)).toString();
+  }
+}
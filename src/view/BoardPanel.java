@@ -18,10 +18,11 @@ import javax.swing.ImageIcon;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 
+import model.BoardSnapshot;
+import model.CellSnapshot;
 import model.ReadonlyAdventureGame;
 import model.gameobjects.Directions;
 import model.gameobjects.actors.Status;
-import model.gameobjects.cell.Cell;
 import model.gameobjects.cell.CellTypes;
 import model.gameobjects.cell.Smell;
 import model.gameobjects.cell.Treasure;
@@ -38,6 +39,7 @@ public class BoardPanel extends JPanel {
   private final int CELLHEIGHT;
   private final int extraSpace;
   private final BufferedImage[][] grid;
+  private final CellSnapshot[][] gridCells;
   private ReadonlyAdventureGame model;
   private boolean viewInCheatMode;
   private String displayMessage;
@@ -65,6 +67,7 @@ public class BoardPanel extends JPanel {
     
     //this.grid = new JLabel[model.getRows()][model.getColumns()];
     this.grid = new BufferedImage[model.getRows()][model.getColumns()];
+    this.gridCells = new CellSnapshot[model.getRows()][model.getColumns()];
     this.playerInfoIcons = new BufferedImage[9];
     //Set preferred size to inform scroll pane if scrolling is needed.
     this.setPreferredSize(new Dimension(WIDTH, HEIGHT));
@@ -106,7 +109,7 @@ public class BoardPanel extends JPanel {
     g2d.setColor(Color.white);
     
     //Get the Dungeon grid
-    Cell[][] board = model.getGridCopy();
+    BoardSnapshot board = model.getSnapshot();
     
     //Reset the player description icons
     
@@ -140,7 +143,7 @@ public class BoardPanel extends JPanel {
   
   
   //Helper method to draw the Dungeon board elements
-  private void drawDungeonComponents(Cell[][] board, Graphics2D g2d) {
+  private void drawDungeonComponents(BoardSnapshot board, Graphics2D g2d) {
     //Reset the treasure info
     setTreasureInfo();
     
@@ -273,7 +276,7 @@ public class BoardPanel extends JPanel {
       }
     }
     
-    //If player has reached the destination and won 
+    //If player has reached the destination and won
     if (model.getPlayerStatus().equals(Status.WON)) {
       out.append("\nYou are at the destination. You won!\n");
     }
@@ -368,7 +371,7 @@ public class BoardPanel extends JPanel {
   }
   
   //Helper method to set the dungeon grid components.
-  private void setGridComponents(Cell[][] board, Graphics2D g2d) {
+  private void setGridComponents(BoardSnapshot board, Graphics2D g2d) {
     //this.grid = new JLabel[model.getRows()][model.getColumns()];
     
     ////get the appropriate url for the cell
@@ -377,14 +380,17 @@ public class BoardPanel extends JPanel {
     for (int r = 0; r < model.getRows(); r++) {
       for (int c = 0; c < model.getColumns(); c++) {
         
-        Cell cell = board[r][c];
+        CellSnapshot cell = board.getCell(r, c);
         int x = Math.round(DISTFROMEDGE + ((c) * CELLHEIGHT));
         int y = Math.round(DISTFROMEDGE + ((r) * CELLWIDTH));
         
         if (cell.isVisited() || this.viewInCheatMode) {
-          setCellComponents(r, c, cell, g2d);
-          g2d.drawImage(grid[r][c].getScaledInstance(CELLWIDTH, CELLHEIGHT, 0), x, y, CELLWIDTH,
-                  CELLHEIGHT, null);
+          //Only make the image of a cell again if the cell changed since it was last drawn.
+          if (gridCells[r][c] != cell) {
+            setCellComponents(r, c, cell, g2d);
+            gridCells[r][c] = cell;
+          }
+          g2d.drawImage(grid[r][c], x, y, CELLWIDTH, CELLHEIGHT, null);
           //grid[r][c].getScaledInstance(CELLWIDTH, CELLHEIGHT,0);
         }
       }
@@ -393,13 +399,13 @@ public class BoardPanel extends JPanel {
   
   
   //Helper method to set the components of each cell in the Dungeon grid.
-  private void setCellComponents(int r, int c, Cell cell, Graphics2D g2d) {
+  private void setCellComponents(int r, int c, CellSnapshot cell, Graphics2D g2d) {
     //get the appropriate url for the cell
     //Cell[][] board = model.getGrid();
     
     //Filter neighbors to set appropriate url for image of the cell
     String entrances =
-            cell.getNeighbors().keySet().stream().map(k -> k.name().substring(0, 1)).sorted()
+            cell.getNeighbors().stream().map(k -> k.name().substring(0, 1)).sorted()
                     .collect(Collectors.joining(""));
     //component 1: Image
     //Add an image icon to jlabel
@@ -450,7 +456,7 @@ public class BoardPanel extends JPanel {
       }
       
       //Treasure
-      if (cell.getTreasures().values().stream().reduce(0, Integer::sum) > 0) {
+      if (cell.getTreasureCount() > 0) {
         g.drawImage(imgTreasure, 2 * (combined.getWidth() / 3), (combined.getHeight() / 3),
                 imgTreasure.getWidth() / 12, imgTreasure.getHeight() / 12, null);
       }
@@ -462,8 +468,8 @@ public class BoardPanel extends JPanel {
       }
       
       //Treasure: Monster
-      if (cell.getMonster() != null) {
-        if (cell.getMonster().getStatus().equals(Status.ALIVE)) {
+      if (cell.getMonsterStatus() != null) {
+        if (cell.getMonsterStatus().equals(Status.ALIVE)) {
           g.drawImage(imgMonsterO, (combined.getWidth() / 2) + 15 - (combined.getWidth() / 4),
                   (combined.getWidth() / 2), imgMonsterO.getWidth() / 6,
                   imgMonsterO.getHeight() / 6, null);
@@ -479,7 +485,7 @@ public class BoardPanel extends JPanel {
         g.drawImage(imgPlayer, 0, 0, imgPlayer.getWidth() / 6, imgPlayer.getHeight() / 6, null);
       }
       
-      if (cell.getThief() != null) {
+      if (cell.hasThief()) {
         //Player
         g.drawImage(imgThief, 0, 0, imgThief.getWidth() / 6, imgThief.getHeight() / 6, null);
       }
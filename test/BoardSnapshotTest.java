@@ -0,0 +1,92 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import model.BoardSnapshot;
+import model.CellSnapshot;
+import model.Game;
+import model.gameobjects.Directions;
+import model.gameobjects.actors.Player;
+import model.gameobjects.cell.Cell;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for the board snapshots of a game. Testing that a snapshot matches the grid, that it is
+ * reused while nothing changes, and that a new snapshot only copies the cells that changed.
+ */
+public class BoardSnapshotTest {
+  private Game game;
+  
+  /**
+   * Set up a game to take snapshots of.
+   */
+  @Before
+  public void setUp() {
+    game = new Game(8, 8, 2, false, 30, 2, new Player(1), 11);
+  }
+  
+  /**
+   * Test that the snapshot has the state of every cell in the grid.
+   */
+  @Test
+  public void testSnapshotMatchesGrid() {
+    BoardSnapshot snapshot = game.getSnapshot();
+    Cell[][] grid = game.getGridCopy();
+    assertEquals(grid.length, snapshot.getRows());
+    assertEquals(grid[0].length, snapshot.getColumns());
+    for (int r = 0; r < grid.length; r++) {
+      for (int c = 0; c < grid[0].length; c++) {
+        CellSnapshot cell = snapshot.getCell(r, c);
+        assertEquals(grid[r][c].getID(), cell.getID());
+        assertEquals(grid[r][c].getType(), cell.getType());
+        assertEquals(grid[r][c].getEntrances(), cell.getNeighbors());
+        assertEquals(grid[r][c].getTreasures(), cell.getTreasures());
+        assertEquals(grid[r][c].getArrows(), cell.getArrows());
+        assertEquals(grid[r][c].hasPlayer(), cell.hasPlayer());
+        assertEquals(grid[r][c].getSmellUnits(), cell.getSmellUnits());
+      }
+    }
+  }
+  
+  /**
+   * Test that the same snapshot is returned while nothing changes.
+   */
+  @Test
+  public void testUnchangedSnapshotIsReused() {
+    BoardSnapshot first = game.getSnapshot();
+    assertSame(first, game.getSnapshot());
+  }
+  
+  /**
+   * Test that moving the player only copies the cells the player left and entered.
+   */
+  @Test
+  public void testMoveCopiesOnlyChangedCells() {
+    Cell start = game.getCurrentLocation();
+    Directions direction = start.getEntrances().get(0);
+    Cell next = start.getNeighbors().get(direction);
+    BoardSnapshot before = game.getSnapshot();
+    
+    game.movePlayer(direction);
+    BoardSnapshot after = game.getSnapshot();
+    assertTrue(after.getVersion() > before.getVersion());
+    assertFalse(after.getCell(start.getX(), start.getY()).hasPlayer());
+    assertTrue(after.getCell(next.getX(), next.getY()).hasPlayer());
+    
+    int copied = 0;
+    for (int r = 0; r < after.getRows(); r++) {
+      for (int c = 0; c < after.getColumns(); c++) {
+        if (after.getCell(r, c) != before.getCell(r, c)) {
+          copied += 1;
+        }
+      }
+    }
+    assertNotSame(before.getCell(next.getX(), next.getY()),
+            after.getCell(next.getX(), next.getY()));
+    assertEquals(2, copied);
+  }
+}
@@ -0,0 +1,91 @@
+import org.junit.Test;
+
+import model.CaveGraph;
+import model.DungeonBuilderKruskal;
+import model.gameobjects.Directions;
+import model.gameobjects.cell.Cell;
+import model.gameobjects.cell.Location;
+import random.MockRandomGenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for the cave graph. Testing that every edge is a chain of tunnels in the grid, and that the
+ * graph has an edge for every entrance of every cave.
+ */
+public class CaveGraphTest {
+  
+  /**
+   * Test that walking the grid along every edge goes through tunnels only and ends at its target.
+   */
+  @Test
+  public void testEdgesFollowTunnels() {
+    for (boolean wrapping : new boolean[] {false, true}) {
+      Location[][] grid = buildGrid(12, 15, 4, wrapping, 3);
+      CaveGraph graph = new CaveGraph(grid);
+      int cols = grid[0].length;
+      for (int node = 0; node < graph.getNodeCount(); node++) {
+        for (int edge = graph.getFirstEdge(node); edge < graph.getEndEdge(node); edge++) {
+          int id = graph.getCellId(node);
+          Cell cell = grid[id / cols][id % cols];
+          Directions direction = graph.getExit(edge);
+          for (int step = 1; step < graph.getLength(edge); step++) {
+            cell = cell.getNeighbors().get(direction);
+            assertEquals(2, cell.getNeighbors().size());
+            assertEquals(-1, graph.getNode(cell));
+            for (Directions next : cell.getNeighbors().keySet()) {
+              if (next != direction.getReverse()) {
+                direction = next;
+                break;
+              }
+            }
+          }
+          assertEquals(graph.getEntry(edge), direction);
+          cell = cell.getNeighbors().get(direction);
+          assertEquals(graph.getCellId(graph.getTarget(edge)), cell.getID());
+          assertTrue(cell.getNeighbors().size() != 2);
+        }
+      }
+    }
+  }
+  
+  /**
+   * Test that every cell that is not a tunnel is a node, with one edge for each of its neighbors.
+   */
+  @Test
+  public void testNodesAndEdges() {
+    Location[][] grid = buildGrid(10, 10, 2, true, 8);
+    CaveGraph graph = new CaveGraph(grid);
+    int nodes = 0;
+    int edges = 0;
+    for (Location[] row : grid) {
+      for (Location cell : row) {
+        if (cell.getNeighbors().size() != 2) {
+          int node = graph.getNode(cell);
+          assertEquals(cell.getID(), graph.getCellId(node));
+          assertEquals(cell.getNeighbors().size(),
+                  graph.getEndEdge(node) - graph.getFirstEdge(node));
+          for (Directions direction : Directions.values()) {
+            assertEquals(cell.getNeighbors().containsKey(direction),
+                    graph.findEdge(node, direction) != -1);
+          }
+          nodes += 1;
+          edges += cell.getNeighbors().size();
+        }
+      }
+    }
+    assertEquals(nodes, graph.getNodeCount());
+    assertEquals(edges, graph.getEdgeCount());
+    assertTrue(graph.getNodeCount() < 100);
+  }
+  
+  //Build a Dungeon grid with a seeded random instance.
+  private Location[][] buildGrid(int rows, int cols, int interconnectivity, boolean wrapping,
+                                 int seed) {
+    DungeonBuilderKruskal builder = new DungeonBuilderKruskal(rows, cols, interconnectivity,
+            wrapping, new MockRandomGenerator(seed), 20, 0);
+    builder.buildDungeon();
+    return builder.getGrid();
+  }
+}
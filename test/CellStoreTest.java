@@ -0,0 +1,126 @@
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import model.DungeonBuilderKruskal;
+import model.gameobjects.Directions;
+import model.gameobjects.cell.Cell;
+import model.gameobjects.cell.CellStore;
+import model.gameobjects.cell.CellTypes;
+import model.gameobjects.cell.Location;
+import model.gameobjects.cell.Treasure;
+import random.MockRandomGenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for the cell store. Testing that the views of a copied grid match the cells they were
+ * copied from, and that the maps of a view follow the store.
+ */
+public class CellStoreTest {
+  
+  /**
+   * Test that every view of a copied grid has the entrances, type and neighbors of its cell.
+   */
+  @Test
+  public void testCopyMatchesGrid() {
+    DungeonBuilderKruskal builder = new DungeonBuilderKruskal(6, 8, 3, true,
+            new MockRandomGenerator(7), 20, 0);
+    builder.buildDungeon();
+    Location[][] grid = builder.getGrid();
+    Cell[][] copy = CellStore.copyOf(grid).getGrid();
+    for (int i = 0; i < grid.length; i++) {
+      for (int j = 0; j < grid[0].length; j++) {
+        Cell cell = grid[i][j];
+        Cell view = copy[i][j];
+        assertEquals(cell.getID(), view.getID());
+        assertEquals(cell.getLocation(), view.getLocation());
+        assertEquals(cell.getEntrances(), view.getEntrances());
+        assertEquals(cell.getType(), view.getType());
+        assertEquals(cell.getNeighbors().keySet(), view.getNeighbors().keySet());
+        for (Directions direction : cell.getNeighbors().keySet()) {
+          assertEquals(cell.getNeighbors().get(direction).getID(),
+                  view.getNeighbors().get(direction).getID());
+        }
+      }
+    }
+  }
+  
+  /**
+   * Test that the treasure map of a view follows the cell, and that taking a treasure keeps it in
+   * the map with 0, the same way as for a location.
+   */
+  @Test
+  public void testTreasureMapFollowsCell() {
+    CellStore store = new CellStore(2, 2);
+    Cell cell = store.getCell(3);
+    Map<Treasure, Integer> treasures = cell.getTreasures();
+    assertTrue(treasures.isEmpty());
+    
+    cell.setTreasure(Map.of(Treasure.RUBIES, 2));
+    assertEquals(Map.of(Treasure.RUBIES, 2), treasures);
+    
+    assertEquals(2, cell.takeTreasure(Treasure.RUBIES));
+    assertEquals(Map.of(Treasure.RUBIES, 0), treasures);
+    assertEquals(0, cell.takeTreasure(Treasure.DIAMONDS));
+    cell.setTreasure(Map.of(Treasure.DIAMONDS, 1));
+    assertEquals(Map.of(Treasure.DIAMONDS, 1), treasures);
+    assertNull(treasures.get(Treasure.RUBIES));
+  }
+  
+  /**
+   * Test that the treasure map of a view cannot be changed.
+   */
+  @Test(expected = UnsupportedOperationException.class)
+  public void testTreasureMapIsReadOnly() {
+    new CellStore(2, 2).getCell(0).getTreasures().put(Treasure.RUBIES, 1);
+  }
+  
+  /**
+   * Test that the neighbors of a view wrap around the grid and can be removed.
+   */
+  @Test
+  public void testNeighbors() {
+    CellStore store = new CellStore(3, 3);
+    Cell corner = store.getCell(0);
+    corner.setNeighbors(Directions.NORTH, store.getCell(6), "add");
+    corner.setNeighbors(Directions.WEST, store.getCell(2), "add");
+    assertEquals(List.of(Directions.NORTH, Directions.WEST),
+            List.copyOf(corner.getNeighbors().keySet()));
+    assertSame(store.getCell(6), corner.getNeighbors().get(Directions.NORTH));
+    
+    corner.setNeighbors(Directions.NORTH, null, "remove");
+    assertFalse(corner.getNeighbors().containsKey(Directions.NORTH));
+    assertEquals(1, corner.getNeighbors().size());
+  }
+  
+  /**
+   * Test that a cell that is not next to a view cannot be its neighbor.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testNeighborMustBeAdjacent() {
+    CellStore store = new CellStore(3, 3);
+    store.getCell(0).setNeighbors(Directions.EAST, store.getCell(4), "add");
+  }
+  
+  /**
+   * Test that the type of a view follows its entrances.
+   */
+  @Test
+  public void testTypeFollowsEntrances() {
+    CellStore store = new CellStore(2, 2);
+    Cell cell = store.getCell(0);
+    assertNull(cell.getType());
+    cell.setN(1);
+    assertEquals(CellTypes.CAVE, cell.getType());
+    cell.setS(1);
+    assertEquals(CellTypes.TUNNEL, cell.getType());
+    cell.setE(1);
+    assertEquals(CellTypes.CAVE, cell.getType());
+  }
+}
@@ -0,0 +1,210 @@
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import model.BoardSnapshot;
+import model.CellSnapshot;
+import model.CommandLog;
+import model.Game;
+import model.GameReplayer;
+import model.gameobjects.Directions;
+import model.gameobjects.actors.Player;
+import model.gameobjects.cell.Cell;
+import model.gameobjects.cell.CellTypes;
+import model.gameobjects.cell.Treasure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for the command log and the replayer. Testing that playing the log of a game again gives a
+ * game in the same state, and that a log read back from its bytes is the same log.
+ */
+public class CommandLogTest {
+  
+  /**
+   * Test that a replay of a recorded session ends in the same state as the session.
+   */
+  @Test
+  public void testReplayMatchesSession() {
+    for (int seed = 1; seed <= 5; seed++) {
+      Game game = playSession(seed, 400);
+      CommandLog log = game.getCommandLog();
+      assertTrue(log.getCommandCount() > 0);
+      assertSameState(game, new GameReplayer(log).replay());
+    }
+  }
+  
+  /**
+   * Test that a game built from a seed keeps no log unless it is recorded.
+   */
+  @Test
+  public void testRecordingIsOptIn() {
+    Game game = new Game(10, 10, 6, true, 60, 20, new Player(1), 3);
+    game.movePlayer(game.getDirectionToGoal());
+    assertNull(game.getCommandLog());
+  }
+  
+  /**
+   * Test that replaying part of a log plays exactly that many commands, and that the log of the
+   * partial replay replays to the same state.
+   */
+  @Test
+  public void testReplayToTurn() {
+    Game game = playSession(5, 200);
+    CommandLog log = game.getCommandLog();
+    GameReplayer replayer = new GameReplayer(log);
+    int half = log.getCommandCount() / 2;
+    Game partial = replayer.replayTo(half);
+    assertEquals(half, partial.getCommandLog().getCommandCount());
+    assertTrue(partial.getCommandLog().getLength() < log.getLength());
+    assertSameState(partial, new GameReplayer(partial.getCommandLog()).replay());
+    assertSameState(game, replayer.replayTo(log.getCommandCount()));
+    assertEquals(0, replayer.replayTo(0).getCommandLog().getCommandCount());
+  }
+  
+  /**
+   * Test that seeking from keyframes gives the same state as replaying from the start, in any
+   * order of turns.
+   */
+  @Test
+  public void testSeekFromKeyframes() {
+    Game game = playSession(1, 600);
+    CommandLog log = game.getCommandLog();
+    assertTrue(log.getCommandCount() > 64);
+    GameReplayer keyframed = new GameReplayer(log, 16);
+    GameReplayer plain = new GameReplayer(log, Integer.MAX_VALUE);
+    int count = log.getCommandCount();
+    int[] turns = {count / 2, count, 17, 16, count - 1, 0, count / 3};
+    for (int turn : turns) {
+      Game seeked = keyframed.replayTo(turn);
+      assertSameState(plain.replayTo(turn), seeked);
+      assertEquals(turn, seeked.getCommandLog().getCommandCount());
+    }
+    assertEquals(count / 16 + 1, keyframed.getKeyframeCount());
+    assertEquals(1, plain.getKeyframeCount());
+    
+    //A game restored from a keyframe records the rest of the session like the original game.
+    Game restored = keyframed.replayTo(count);
+    assertEquals(log.getLength(), restored.getCommandLog().getLength());
+  }
+  
+  /**
+   * Test that a log written to bytes and read back replays to the same state.
+   * @throws IOException if the log cannot be written or read.
+   */
+  @Test
+  public void testWriteAndRead() throws IOException {
+    Game game = playSession(6, 300);
+    CommandLog log = game.getCommandLog();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    log.writeTo(bytes);
+    CommandLog read = CommandLog.readFrom(new ByteArrayInputStream(bytes.toByteArray()));
+    assertEquals(log.getCommandCount(), read.getCommandCount());
+    assertEquals(log.getLength(), read.getLength());
+    assertEquals(log.getSeed(), read.getSeed());
+    assertSameState(game, new GameReplayer(read).replay());
+  }
+  
+  /**
+   * Test that a recorded game keeps a keyframe in its log at every interval, that the keyframes
+   * are written and read back with the log, and that a new replayer starts from them.
+   * @throws IOException if the log cannot be written or read.
+   */
+  @Test
+  public void testKeyframesKeptWithLog() throws IOException {
+    Game game = playSession(5, 4000);
+    CommandLog log = game.getCommandLog();
+    int count = log.getCommandCount();
+    assertTrue(count > 2048);
+    assertEquals(count / 1024, log.getKeyframeCount());
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    log.writeTo(bytes);
+    CommandLog read = CommandLog.readFrom(new ByteArrayInputStream(bytes.toByteArray()));
+    assertEquals(log.getKeyframeCount(), read.getKeyframeCount());
+    GameReplayer replayer = new GameReplayer(read);
+    assertEquals(count / 1024 + 1, replayer.getKeyframeCount());
+    assertSameState(game, replayer.replayTo(count));
+    assertSameState(new GameReplayer(log, Integer.MAX_VALUE).replayTo(count - 1),
+            replayer.replayTo(count - 1));
+    assertEquals(count / 1024 + 1, replayer.getKeyframeCount());
+  }
+  
+  /**
+   * Test that a stream that does not hold a log is not read.
+   * @throws IOException if the stream does not hold a log.
+   */
+  @Test(expected = IOException.class)
+  public void testReadInvalidStream() throws IOException {
+    CommandLog.readFrom(new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5, 6, 7, 8}));
+  }
+  
+  //Play a seeded game with random commands, until the game is over or the turns run out. The
+  // player keeps away from monsters, pits and the destination, so the session lasts.
+  private Game playSession(int seed, int turns) {
+    Game game = new Game(10, 10, 6, true, 60, 20, new Player(1), seed, true);
+    Random choices = new Random(seed);
+    for (int turn = 0; turn < turns && ! game.isGameOver(); turn++) {
+      Cell location = game.getPlayer().getLocation();
+      int choice = choices.nextInt(10);
+      try {
+        if (choice < 6) {
+          List<Directions> exits = new ArrayList<>();
+          for (Map.Entry<Directions, Cell> entry : location.getNeighbors().entrySet()) {
+            Cell next = entry.getValue();
+            if (next.getMonster() == null && next.getType() != CellTypes.PIT
+                    && next != game.getDestination()) {
+              exits.add(entry.getKey());
+            }
+          }
+          if (exits.isEmpty()) {
+            exits.addAll(location.getNeighbors().keySet());
+          }
+          game.movePlayer(exits.get(choices.nextInt(exits.size())));
+        } else if (choice < 8) {
+          game.pickTreasure(Treasure.values()[choices.nextInt(Treasure.values().length)]);
+        } else if (choice < 9) {
+          game.pickArrows();
+        } else {
+          game.shootArrow(Directions.values()[choices.nextInt(4)], 1 + choices.nextInt(3));
+        }
+      } catch (IllegalArgumentException e) {
+        //The command was not allowed, so it was not recorded.
+      }
+    }
+    return game;
+  }
+  
+  //Assert that two games have the same player and the same cells.
+  private void assertSameState(Game expected, Game actual) {
+    assertEquals(expected.getPlayer().getLocation().getID(),
+            actual.getPlayer().getLocation().getID());
+    assertEquals(expected.getPlayer().getStatus(), actual.getPlayer().getStatus());
+    assertEquals(expected.getPlayer().getArrowCount(), actual.getPlayer().getArrowCount());
+    assertEquals(expected.getPlayer().getTreasureCollected(),
+            actual.getPlayer().getTreasureCollected());
+    assertEquals(expected.getTreasureStolen(), actual.getTreasureStolen());
+    assertEquals(expected.isGameOver(), actual.isGameOver());
+    BoardSnapshot before = expected.getSnapshot();
+    BoardSnapshot after = actual.getSnapshot();
+    for (int row = 0; row < before.getRows(); row++) {
+      for (int col = 0; col < before.getColumns(); col++) {
+        CellSnapshot cell = before.getCell(row, col);
+        CellSnapshot other = after.getCell(row, col);
+        assertEquals(cell.getTreasures(), other.getTreasures());
+        assertEquals(cell.getArrows(), other.getArrows());
+        assertEquals(cell.getMonsterStatus(), other.getMonsterStatus());
+        assertEquals(cell.hasThief(), other.hasThief());
+        assertEquals(cell.isVisited(), other.isVisited());
+        assertEquals(cell.getSmellUnits(), other.getSmellUnits());
+      }
+    }
+  }
+}
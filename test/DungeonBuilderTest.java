@@ -0,0 +1,268 @@
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import model.DungeonBuilderEller;
+import model.DungeonBuilderKruskal;
+import model.DungeonBuilderParallel;
+import model.EdgeOrdering;
+import model.FileTopologySink;
+import model.GridTopologySink;
+import model.ModifiedKruskal;
+import model.gameobjects.cell.Cell;
+import model.gameobjects.cell.Location;
+import random.MockRandomGenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class tests the Dungeon builders. The tests check that a built Dungeon is connected, has the
+ * expected number of paths for its interconnectivity, and that seeded builds are deterministic.
+ */
+public class DungeonBuilderTest {
+  
+  /**
+   * Test that the shuffle-once order builds the same Dungeon layout as when the checksums were
+   * recorded, for a seeded random generator.
+   */
+  @Test
+  public void testShuffleOnceGoldenChecksum() {
+    ModifiedKruskal builder =
+            new DungeonBuilderKruskal(12, 12, 5, false, new MockRandomGenerator(42), 20, 10,
+                    EdgeOrdering.SHUFFLE_ONCE);
+    builder.buildDungeon();
+    assertEquals(2670065622498705737L, checksum(builder.getGrid()));
+    
+    builder = new DungeonBuilderKruskal(10, 8, 3, true, new MockRandomGenerator(7), 20, 10,
+            EdgeOrdering.SHUFFLE_ONCE);
+    builder.buildDungeon();
+    assertEquals(8502252923101234364L, checksum(builder.getGrid()));
+  }
+  
+  /**
+   * Test that each order of picking paths gives the same layout every time for the same seed.
+   */
+  @Test
+  public void testSeededBuildsAreDeterministic() {
+    for (EdgeOrdering ordering : EdgeOrdering.values()) {
+      ModifiedKruskal first =
+              new DungeonBuilderKruskal(15, 20, 10, true, new MockRandomGenerator(3), 20, 10,
+                      ordering);
+      ModifiedKruskal second =
+              new DungeonBuilderKruskal(15, 20, 10, true, new MockRandomGenerator(3), 20, 10,
+                      ordering);
+      first.buildDungeon();
+      second.buildDungeon();
+      assertEquals(checksum(first.getGrid()), checksum(second.getGrid()));
+    }
+  }
+  
+  /**
+   * Test that a built Dungeon is a single connected network of caves and tunnels, with one path
+   * more than a spanning tree for each degree of interconnectivity.
+   */
+  @Test
+  public void testDungeonIsConnected() {
+    for (EdgeOrdering ordering : EdgeOrdering.values()) {
+      for (int seed = 0; seed < 10; seed++) {
+        ModifiedKruskal builder =
+                new DungeonBuilderKruskal(9, 11, 4, seed % 2 == 0, new MockRandomGenerator(seed),
+                        20, 10, ordering);
+        builder.buildDungeon();
+        assertConnected(builder.getGrid(), 4);
+        assertEquals(1, builder.getSelectedPaths().size());
+        assertEquals(9 * 11 - 1 + 4, builder.getFinalPaths().size());
+        assertEquals(0, builder.getPotentialPaths().size());
+      }
+    }
+  }
+  
+  /**
+   * Test that the interconnectivity cannot be higher than the number of paths left after building
+   * a spanning tree.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testNotEnoughDiscardedPaths() {
+    //A 6x6 wrapping Dungeon has 72 paths, of which 35 are needed for the spanning tree.
+    ModifiedKruskal builder =
+            new DungeonBuilderKruskal(6, 6, 40, true, new MockRandomGenerator(1), 20, 10,
+                    EdgeOrdering.SHUFFLE_ONCE);
+    builder.buildDungeon();
+  }
+  
+  /**
+   * Test that the row by row builder builds a single connected network of caves and tunnels, with
+   * the expected number of paths, for wrapping and non-wrapping Dungeons.
+   */
+  @Test
+  public void testEllerDungeonIsConnected() {
+    for (int seed = 0; seed < 10; seed++) {
+      ModifiedKruskal builder =
+              new DungeonBuilderEller(9, 11, 4, seed % 2 == 0, new MockRandomGenerator(seed), 20,
+                      10);
+      builder.buildDungeon();
+      assertConnected(builder.getGrid(), 4);
+      assertEquals(9 * 11 - 1 + 4, builder.getFinalPaths().size());
+      assertEquals(1, builder.getSelectedPaths().size());
+    }
+    //A single column only has paths going down.
+    ModifiedKruskal builder =
+            new DungeonBuilderEller(7, 1, 1, true, new MockRandomGenerator(5), 20, 10);
+    builder.buildDungeon();
+    assertConnected(builder.getGrid(), 1);
+  }
+  
+  /**
+   * Test that the row by row builder uses every left over path when the interconnectivity asks for
+   * all of them, and fails when it asks for more.
+   */
+  @Test
+  public void testEllerInterconnectivityLimit() {
+    //A 6x6 wrapping Dungeon has 72 paths, of which 35 are needed for the spanning tree.
+    ModifiedKruskal builder =
+            new DungeonBuilderEller(6, 6, 37, true, new MockRandomGenerator(1), 20, 10);
+    builder.buildDungeon();
+    assertEquals(72, builder.getFinalPaths().size());
+    assertEquals(0, builder.getDiscardedPaths().size());
+  }
+  
+  /**
+   * Test that the row by row builder fails when there are not enough paths left to meet the
+   * interconnectivity.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testEllerNotEnoughDiscardedPaths() {
+    new DungeonBuilderEller(6, 6, 38, true, new MockRandomGenerator(1), 20, 10).buildDungeon();
+  }
+  
+  /**
+   * Test that a Dungeon streamed to a file has the same layout as the same Dungeon built in
+   * memory.
+   */
+  @Test
+  public void testEllerFileSinkMatchesGrid() {
+    int rows = 13;
+    int cols = 7;
+    GridTopologySink grid = new GridTopologySink();
+    new DungeonBuilderEller(rows, cols, 6, true, new MockRandomGenerator(11), 20, 10)
+            .generate(grid);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    new DungeonBuilderEller(rows, cols, 6, true, new MockRandomGenerator(11), 20, 10)
+            .generate(new FileTopologySink(bytes));
+    
+    ByteBuffer file = ByteBuffer.wrap(bytes.toByteArray());
+    assertEquals(FileTopologySink.MAGIC, file.getInt());
+    assertEquals(FileTopologySink.VERSION, file.get());
+    assertEquals(rows, file.getInt());
+    assertEquals(cols, file.getInt());
+    assertEquals(1, file.get());
+    assertEquals((rows * cols + 3) / 4, file.remaining());
+    byte[] packed = new byte[file.remaining()];
+    file.get(packed);
+    for (int id = 0; id < rows * cols; id++) {
+      int bits = packed[id / 4] >> (2 * (id % 4)) & 3;
+      Location cell = grid.getGrid()[id / cols][id % cols];
+      assertEquals(cell.getE(), bits & 1);
+      assertEquals(cell.getS(), bits >> 1);
+    }
+  }
+  
+  /**
+   * Test that the parallel builder joins its tiles into a single connected network of caves and
+   * tunnels, for tiles that do and do not divide the grid evenly.
+   */
+  @Test
+  public void testParallelDungeonIsConnected() {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (int tileSize = 1; tileSize <= 12; tileSize++) {
+        ModifiedKruskal builder =
+                new DungeonBuilderParallel(9, 11, 4, tileSize % 2 == 0,
+                        new MockRandomGenerator(tileSize), 20, 10, tileSize, pool);
+        builder.buildDungeon();
+        assertConnected(builder.getGrid(), 4);
+        assertEquals(1, builder.getSelectedPaths().size());
+        assertEquals(9 * 11 - 1 + 4, builder.getFinalPaths().size());
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+  
+  /**
+   * Test that the parallel builder builds the same Dungeon for the same seed, no matter how many
+   * threads build the tiles.
+   */
+  @Test
+  public void testParallelBuildIgnoresThreadCount() {
+    ForkJoinPool single = new ForkJoinPool(1);
+    ForkJoinPool several = new ForkJoinPool(4);
+    try {
+      ModifiedKruskal first =
+              new DungeonBuilderParallel(40, 50, 10, true, new MockRandomGenerator(9), 20, 10, 8,
+                      single);
+      ModifiedKruskal second =
+              new DungeonBuilderParallel(40, 50, 10, true, new MockRandomGenerator(9), 20, 10, 8,
+                      several);
+      first.buildDungeon();
+      second.buildDungeon();
+      assertEquals(checksum(first.getGrid()), checksum(second.getGrid()));
+    } finally {
+      single.shutdown();
+      several.shutdown();
+    }
+  }
+  
+  /**
+   * Test that the parallel builder fails when there are not enough paths left to meet the
+   * interconnectivity.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testParallelNotEnoughDiscardedPaths() {
+    new DungeonBuilderParallel(6, 6, 38, true, new MockRandomGenerator(1), 20, 10).buildDungeon();
+  }
+  
+  //Helper method to get a checksum of the entrances of every cell in the grid.
+  private long checksum(Location[][] grid) {
+    long hash = 17;
+    for (Location[] row : grid) {
+      for (Location cell : row) {
+        hash = 31 * hash + (cell.getN() | cell.getS() << 1 | cell.getE() << 2 | cell.getW() << 3);
+      }
+    }
+    return hash;
+  }
+  
+  //Helper method to check that every cell can be reached, and count the paths in the grid.
+  private void assertConnected(Location[][] grid, int interconnectivity) {
+    int rows = grid.length;
+    int cols = grid[0].length;
+    int paths = 0;
+    for (Location[] row : grid) {
+      for (Location cell : row) {
+        paths += cell.getE() + cell.getS();
+      }
+    }
+    assertEquals(rows * cols - 1 + interconnectivity, paths);
+    
+    Set<Cell> visited = new HashSet<>();
+    Deque<Cell> queue = new ArrayDeque<>();
+    queue.add(grid[0][0]);
+    visited.add(grid[0][0]);
+    while (! queue.isEmpty()) {
+      for (Cell neighbor : queue.poll().getNeighbors().values()) {
+        if (visited.add(neighbor)) {
+          queue.add(neighbor);
+        }
+      }
+    }
+    assertTrue(visited.size() == rows * cols);
+  }
+}
@@ -0,0 +1,189 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import model.BoardSnapshot;
+import model.CellSnapshot;
+import model.CommandLog;
+import model.Game;
+import model.GameFile;
+import model.GameReplayer;
+import model.gameobjects.Directions;
+import model.gameobjects.actors.Player;
+import model.gameobjects.cell.Cell;
+import model.gameobjects.cell.CellTypes;
+import model.gameobjects.cell.Treasure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for saving a game to a file and loading it back. Testing that a loaded game has the same
+ * Dungeon and the same state as the saved game, and plays on the same way.
+ */
+public class GameFileTest {
+  
+  /**
+   * Test that a game saved part way through loads with the same Dungeon and state.
+   * @throws IOException if the file cannot be written or read.
+   */
+  @Test
+  public void testSaveAndLoad() throws IOException {
+    for (boolean isWrapped : new boolean[] {true, false}) {
+      Game game = new Game(12, 9, 6, isWrapped, 60, 20, new Player(1), 1, true);
+      play(game, new Random(1), 300);
+      Game loaded = saveAndLoad(game);
+      assertSameState(game, loaded);
+      assertEquals(game.getStart().getID(), loaded.getStart().getID());
+      assertEquals(game.getDestination().getID(), loaded.getDestination().getID());
+      assertEquals(game.getInterconnectivity(), loaded.getInterconnectivity());
+      assertEquals(game.isWrapped(), loaded.isWrapped());
+      assertEquals(game.getCommandLog().getLength(), loaded.getCommandLog().getLength());
+    }
+  }
+  
+  /**
+   * Test that a loaded game plays on the same way as the game it was saved from.
+   * @throws IOException if the file cannot be written or read.
+   */
+  @Test
+  public void testLoadedGamePlaysOn() throws IOException {
+    Game game = new Game(10, 10, 6, true, 60, 20, new Player(1), 5, true);
+    play(game, new Random(5), 150);
+    Game loaded = saveAndLoad(game);
+    play(game, new Random(7), 150);
+    play(loaded, new Random(7), 150);
+    assertSameState(game, loaded);
+    assertEquals(game.getCommandLog().getLength(), loaded.getCommandLog().getLength());
+  }
+  
+  /**
+   * Test that a loaded game keeps the keyframes of its log, and records keyframes that replay to
+   * the same state as it goes on.
+   * @throws IOException if the file cannot be written or read.
+   */
+  @Test
+  public void testLoadedGameKeepsKeyframes() throws IOException {
+    Game game = new Game(10, 10, 6, true, 60, 20, new Player(1), 5, true);
+    play(game, new Random(5), 1800);
+    assertTrue(game.getCommandLog().getKeyframeCount() > 0);
+    Game loaded = saveAndLoad(game);
+    assertEquals(game.getCommandLog().getKeyframeCount(),
+            loaded.getCommandLog().getKeyframeCount());
+    play(loaded, new Random(6), 1800);
+    CommandLog log = loaded.getCommandLog();
+    assertTrue(log.getKeyframeCount() > game.getCommandLog().getKeyframeCount());
+    assertEquals(log.getCommandCount() / 1024, log.getKeyframeCount());
+    assertSameState(loaded, new GameReplayer(log).replay());
+  }
+  
+  /**
+   * Test that a game that does not keep a command log is saved and loaded without one.
+   * @throws IOException if the file cannot be written or read.
+   */
+  @Test
+  public void testSaveGameWithoutLog() throws IOException {
+    Game game = new Game(8, 8, 2, false, 40, 10, new Player(1));
+    Game loaded = saveAndLoad(game);
+    assertSameState(game, loaded);
+    assertNull(loaded.getCommandLog());
+  }
+  
+  /**
+   * Test that a file that does not hold a saved game is not loaded.
+   * @throws IOException if the file does not hold a saved game.
+   */
+  @Test(expected = IOException.class)
+  public void testLoadInvalidFile() throws IOException {
+    Path path = Files.createTempFile("dungeon", ".save");
+    try {
+      Files.write(path, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9});
+      GameFile.load(path);
+    } finally {
+      Files.delete(path);
+    }
+  }
+  
+  //Save a game to a temporary file and load it back.
+  private Game saveAndLoad(Game game) throws IOException {
+    Path path = Files.createTempFile("dungeon", ".save");
+    try {
+      GameFile.save(game, path);
+      return GameFile.load(path);
+    } finally {
+      Files.delete(path);
+    }
+  }
+  
+  //Play random commands, keeping away from monsters, pits and the destination.
+  private void play(Game game, Random choices, int turns) {
+    for (int turn = 0; turn < turns && ! game.isGameOver(); turn++) {
+      Cell location = game.getPlayer().getLocation();
+      int choice = choices.nextInt(10);
+      try {
+        if (choice < 6) {
+          List<Directions> exits = new ArrayList<>();
+          for (Map.Entry<Directions, Cell> entry : location.getNeighbors().entrySet()) {
+            Cell next = entry.getValue();
+            if (next.getMonster() == null && next.getType() != CellTypes.PIT
+                    && next != game.getDestination()) {
+              exits.add(entry.getKey());
+            }
+          }
+          if (exits.isEmpty()) {
+            exits.addAll(location.getNeighbors().keySet());
+          }
+          game.movePlayer(exits.get(choices.nextInt(exits.size())));
+        } else if (choice < 8) {
+          game.pickTreasure(Treasure.values()[choices.nextInt(Treasure.values().length)]);
+        } else if (choice < 9) {
+          game.pickArrows();
+        } else {
+          game.shootArrow(Directions.values()[choices.nextInt(4)], 1 + choices.nextInt(3));
+        }
+      } catch (IllegalArgumentException e) {
+        //The command was not allowed.
+      }
+    }
+  }
+  
+  //Assert that two games have the same player and the same cells.
+  private void assertSameState(Game expected, Game actual) {
+    assertEquals(expected.getPlayer().getLocation().getID(),
+            actual.getPlayer().getLocation().getID());
+    assertEquals(expected.getPlayer().getStatus(), actual.getPlayer().getStatus());
+    assertEquals(expected.getPlayer().getArrowCount(), actual.getPlayer().getArrowCount());
+    assertEquals(expected.getPlayer().getTreasureCollected(),
+            actual.getPlayer().getTreasureCollected());
+    assertEquals(expected.getTreasureStolen(), actual.getTreasureStolen());
+    assertEquals(expected.isGameOver(), actual.isGameOver());
+    BoardSnapshot before = expected.getSnapshot();
+    BoardSnapshot after = actual.getSnapshot();
+    assertEquals(before.getRows(), after.getRows());
+    assertEquals(before.getColumns(), after.getColumns());
+    for (int row = 0; row < before.getRows(); row++) {
+      for (int col = 0; col < before.getColumns(); col++) {
+        CellSnapshot cell = before.getCell(row, col);
+        CellSnapshot other = after.getCell(row, col);
+        assertEquals(cell.getType(), other.getType());
+        assertEquals(cell.getNeighbors(), other.getNeighbors());
+        assertEquals(cell.getTreasures(), other.getTreasures());
+        assertEquals(cell.getArrows(), other.getArrows());
+        assertEquals(cell.getMonsterStatus(), other.getMonsterStatus());
+        assertEquals(cell.hasThief(), other.hasThief());
+        assertEquals(cell.hasPlayer(), other.hasPlayer());
+        assertEquals(cell.isVisited(), other.isVisited());
+        assertEquals(cell.isNextToPit(), other.isNextToPit());
+        assertEquals(cell.getSmellLevel(), other.getSmellLevel());
+        assertEquals(cell.getSmellUnits(), other.getSmellUnits());
+      }
+    }
+  }
+}
@@ -2,12 +2,18 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.stream.Collectors;
 
 import model.AdventureGame;
+import model.BoardSnapshot;
 import model.DungeonBuilderKruskal;
 import model.Game;
 import model.ModifiedKruskal;
@@ -25,7 +31,9 @@ import static model.gameobjects.cell.Treasure.DIAMONDS;
 import static model.gameobjects.cell.Treasure.RUBIES;
 import static model.gameobjects.cell.Treasure.SAPPHIRES;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * This class represents the test class for the whole Dungeon adventure game program. The tests
@@ -308,9 +316,28 @@ public class GameTest {
     Cell start = game.getStart();
     Cell end = game.getDestination();
     
-    int dist = (Math.abs(start.getX() - end.getX()) + Math.abs(end.getY() - start.getY()));
-    //assertEquals(0, dist);
+    //The distance is counted in moves through the paths of the Dungeon.
+    int dist = pathDistance(start, end);
     assertTrue(dist >= 5);
+    assertTrue(((Game) game).isDestinationValid(start, end));
+    assertEquals(CellTypes.CAVE, end.getType());
+  }
+  
+  /**
+   * Test that the destination is picked by the distance through the paths, for many seeded
+   * games, including small wrapping Dungeons where the grid distance is much shorter.
+   */
+  @Test
+  public void testDestinationValidByPathDistance() {
+    for (int seed = 0; seed < 30; seed++) {
+      Game testGame = new Game(6, 6, seed % 3, true, 20, 10, new Player(1), seed);
+      Cell start = testGame.getStart();
+      Cell end = testGame.getDestination();
+      assertTrue(pathDistance(start, end) >= 5);
+      
+      //The start is never a valid destination from itself.
+      assertFalse(testGame.isDestinationValid(start, start));
+    }
   }
   
   @Test
@@ -513,10 +540,198 @@ public class GameTest {
     
   }
   
+  //Helper method to count the fewest moves between two cells through the paths of the Dungeon.
+  private int pathDistance(Cell from, Cell to) {
+    Map<Integer, Integer> distances = new HashMap<>();
+    Deque<Cell> queue = new ArrayDeque<>();
+    distances.put(from.getID(), 0);
+    queue.add(from);
+    while (! queue.isEmpty()) {
+      Cell cell = queue.poll();
+      if (cell.getID() == to.getID()) {
+        return distances.get(cell.getID());
+      }
+      for (Cell neighbor : cell.getNeighbors().values()) {
+        if (! distances.containsKey(neighbor.getID())) {
+          distances.put(neighbor.getID(), distances.get(cell.getID()) + 1);
+          queue.add(neighbor);
+        }
+      }
+    }
+    return - 1;
+  }
+  
   private boolean reachedDestination(int playerX, int playerY, int destX, int destY) {
     return playerX == destX && playerY == destY;
   }
   
+  /**
+   * Test that an arrow lands in the cave the given number of caves away, going on through tunnels
+   * by their other entrance and straight through caves, including shots further than the arrow
+   * table holds and shots at a wall.
+   */
+  @Test
+  public void testArrowFollowsTunnels() {
+    player = new Player(1);
+    game = new Game(10, 10, 20, true, 100, 40, player, 3);
+    Cell start = player.getLocation();
+    Deque<Cell> queue = new ArrayDeque<>(List.of(start));
+    Map<Cell, Status> statuses = new HashMap<>();
+    while (! queue.isEmpty()) {
+      Cell cell = queue.poll();
+      if (! statuses.containsKey(cell)) {
+        statuses.put(cell, cell.getMonster() == null ? null : cell.getMonster().getStatus());
+        queue.addAll(cell.getNeighbors().values());
+      }
+    }
+    for (Directions direction : Directions.values()) {
+      for (int distance = 1; distance <= 8; distance++) {
+        Cell target = findArrowTarget(start, direction, distance);
+        player.getInventory().setArrows(5);
+        game.shootArrow(direction, distance);
+        for (Map.Entry<Cell, Status> entry : statuses.entrySet()) {
+          Cell cell = entry.getKey();
+          Status now = cell.getMonster() == null ? null : cell.getMonster().getStatus();
+          if (cell == target && entry.getValue() != null && entry.getValue() != Status.DEAD) {
+            assertTrue(now != entry.getValue());
+          } else {
+            assertEquals(entry.getValue(), now);
+          }
+          entry.setValue(now);
+        }
+      }
+    }
+  }
+  
+  /**
+   * Test that following the direction toward the goal reaches the destination, with one step
+   * fewer left after every move.
+   */
+  @Test
+  public void testDirectionToGoal() {
+    player = new Player(1);
+    game = new Game(8, 8, 2, false, 0, 0, player, 4);
+    int steps = game.getStepsToGoal();
+    assertTrue(steps >= 5);
+    while (steps > 0) {
+      game.movePlayer(game.getDirectionToGoal());
+      assertEquals(steps - 1, game.getStepsToGoal());
+      steps -= 1;
+    }
+    assertEquals(game.getDestination(), player.getLocation());
+    assertEquals(null, game.getDirectionToGoal());
+  }
+  
+  /**
+   * Test that travelling to a visited cell makes every move of the route in one call, and that
+   * neither the cell of the player nor a cell that is neither visited nor next to the player can
+   * be travelled to.
+   */
+  @Test
+  public void testTravelToVisitedCell() {
+    player = new Player(1);
+    game = new Game(8, 8, 2, false, 0, 0, player, 4);
+    Cell start = player.getLocation();
+    game.movePlayer(game.getDirectionToGoal());
+    game.movePlayer(game.getDirectionToGoal());
+    assertEquals(2, game.travelTo(start.getID() % 8, start.getID() / 8));
+    assertEquals(start, player.getLocation());
+    
+    try {
+      game.travelTo(start.getID() % 8, start.getID() / 8);
+      fail("Travelling to the cell of the player should not be allowed.");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Illegal Move", e.getMessage());
+    }
+    assertEquals(start, player.getLocation());
+    
+    Cell goal = game.getDestination();
+    try {
+      game.travelTo(goal.getID() % 8, goal.getID() / 8);
+      fail("Travelling to a cell that is not visited should not be allowed.");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Illegal Move", e.getMessage());
+    }
+  }
+  
+  /**
+   * Test that travelling through a Dungeon with monsters and pits only passes through visited
+   * cells, and never walks the player into a monster or a pit.
+   */
+  @Test
+  public void testTravelToAvoidsHazards() {
+    Random choices = new Random(3);
+    int longTrips = 0;
+    for (int seed = 1; seed <= 200; seed++) {
+      player = new Player(1);
+      game = new Game(8, 8, 4, false, 30, 30, player, seed);
+      for (int turn = 0; turn < 30 && ! game.isGameOver(); turn++) {
+        List<Cell> safe = player.getLocation().getNeighbors().values().stream()
+                .filter(next -> next.getType() != CellTypes.PIT && next.getMonster() == null
+                        && next != game.getDestination())
+                .collect(Collectors.toList());
+        if (safe.isEmpty()) {
+          break;
+        }
+        game.movePlayerTo(safe.get(choices.nextInt(safe.size())));
+      }
+      if (game.isGameOver()) {
+        continue;
+      }
+      Cell location = player.getLocation();
+      List<Integer> visited = visitedCells(game.getSnapshot());
+      int target = visited.get(choices.nextInt(visited.size()));
+      if (target == location.getID() || location.getNeighbors().values().stream()
+              .anyMatch(next -> next.getID() == target)) {
+        continue;
+      }
+      int moves = game.travelTo(target % 8, target / 8);
+      longTrips += moves > 1 ? 1 : 0;
+      assertEquals(Status.ALIVE, player.getStatus());
+      assertEquals(visited, visitedCells(game.getSnapshot()));
+    }
+    assertTrue(longTrips > 20);
+  }
+  
+  //Helper method to get the IDs of the visited cells of a board.
+  private List<Integer> visitedCells(BoardSnapshot board) {
+    List<Integer> visited = new ArrayList<>();
+    for (int row = 0; row < board.getRows(); row++) {
+      for (int col = 0; col < board.getColumns(); col++) {
+        if (board.getCell(row, col).isVisited()) {
+          visited.add(row * board.getColumns() + col);
+        }
+      }
+    }
+    return visited;
+  }
+  
+  //Helper method to walk an arrow through the grid one cell at a time.
+  private Cell findArrowTarget(Cell start, Directions direction, int distance) {
+    Cell cell = start;
+    int caves = 0;
+    while (true) {
+      Cell next = cell.getNeighbors().get(direction);
+      if (next == null) {
+        return null;
+      }
+      if (next.getNeighbors().size() == 2) {
+        for (Directions exit : next.getNeighbors().keySet()) {
+          if (exit != direction.getReverse()) {
+            direction = exit;
+            break;
+          }
+        }
+      } else {
+        caves += 1;
+        if (caves == distance) {
+          return next;
+        }
+      }
+      cell = next;
+    }
+  }
+  
   //Helper method to check dungeon elements.
   private void showFullDungeonGrid(AdventureGame game) {
     Cell[][] grid = game.getGridCopy();
@@ -0,0 +1,73 @@
+import org.junit.Test;
+
+import java.util.Map;
+
+import model.gameobjects.cell.Inventory;
+import model.gameobjects.cell.Treasure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for the inventory of treasure and arrows. Testing the listed treasures, the transfers
+ * between inventories and the map view.
+ */
+public class InventoryTest {
+  
+  /**
+   * Test that a treasure stays listed with 0 once it has been added.
+   */
+  @Test
+  public void testListedTreasures() {
+    Inventory inventory = new Inventory();
+    assertTrue(inventory.getTreasureView().isEmpty());
+    inventory.addTreasure(Treasure.RUBIES, 3);
+    assertEquals(3, inventory.takeTreasure(Treasure.RUBIES));
+    assertEquals(Map.of(Treasure.RUBIES, 0), inventory.getTreasureView());
+    assertEquals(0, inventory.takeTreasure(Treasure.DIAMONDS));
+    assertEquals(1, inventory.getTreasureView().size());
+  }
+  
+  /**
+   * Test that stealing moves all the treasure and merging copies it.
+   */
+  @Test
+  public void testStealAndMerge() {
+    Inventory player = new Inventory(Treasure.values());
+    Inventory thief = new Inventory(Treasure.values());
+    Inventory total = new Inventory(Treasure.values());
+    player.addTreasure(Treasure.DIAMONDS, 2);
+    player.addTreasure(Treasure.SAPPHIRES, 5);
+    player.setArrows(3);
+    
+    total.merge(player);
+    thief.stealAll(player);
+    assertEquals(Map.of(Treasure.DIAMONDS, 2, Treasure.RUBIES, 0, Treasure.SAPPHIRES, 5),
+            thief.getTreasureView());
+    assertEquals(thief.getTreasureView(), total.getTreasureView());
+    assertEquals(Map.of(Treasure.DIAMONDS, 0, Treasure.RUBIES, 0, Treasure.SAPPHIRES, 0),
+            player.getTreasureView());
+    assertEquals(3, player.getArrows());
+    assertEquals(0, thief.getArrows());
+  }
+  
+  /**
+   * Test that setting the treasure from a map replaces the listed treasures.
+   */
+  @Test
+  public void testSetTreasure() {
+    Inventory inventory = new Inventory(Treasure.values());
+    inventory.setTreasure(Map.of(Treasure.RUBIES, 4));
+    assertEquals(Map.of(Treasure.RUBIES, 4), inventory.getTreasureView());
+    inventory.setTreasure(inventory.getTreasureView());
+    assertEquals(Map.of(Treasure.RUBIES, 4), inventory.getTreasureView());
+  }
+  
+  /**
+   * Test that the map view cannot be changed.
+   */
+  @Test(expected = UnsupportedOperationException.class)
+  public void testViewIsReadOnly() {
+    new Inventory(Treasure.values()).getTreasureView().put(Treasure.RUBIES, 1);
+  }
+}
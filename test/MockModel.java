@@ -2,6 +2,8 @@ import java.util.List;
 import java.util.Map;
 
 import model.AdventureGame;
+import model.BoardSnapshot;
+import model.CommandLog;
 import model.gameobjects.Directions;
 import model.gameobjects.actors.Players;
 import model.gameobjects.actors.Status;
@@ -63,6 +65,21 @@ public class MockModel implements AdventureGame {
     }
   }
   
+  /**
+   * Move the player along a shortest route to a visited cell by x and y coordinate.
+   * @param x and y coordinate of the cell to travel to.
+   * @return the number of moves made.
+   */
+  @Override
+  public int travelTo(int x, int y) {
+    try {
+      out.append("travelTo() x and y ");
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+    return 0;
+  }
+  
   /**
    * Shoot an arrow at the Monster, if present towards the given direction and at the exact
    * distance.
@@ -122,6 +139,45 @@ public class MockModel implements AdventureGame {
     return null;
   }
   
+  /**
+   * Pick up a treasure in the current location of the player.
+   * @param treasure the treasure to pick up.
+   */
+  @Override
+  public void pickTreasure(Treasure treasure) {
+    try {
+      out.append("pickTreasure() ");
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+  }
+  
+  /**
+   * Pick up the arrows in the current location of the player.
+   */
+  @Override
+  public void pickArrows() {
+    try {
+      out.append("pickArrows() ");
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+  }
+  
+  /**
+   * Get the log of the commands played in this game.
+   * @return the command log.
+   */
+  @Override
+  public CommandLog getCommandLog() {
+    try {
+      out.append("getCommandLog() ");
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+    return null;
+  }
+  
   /**
    * Get the randomly selected start position in this game.
    * @return Map of Integers for x and y position.
@@ -318,6 +374,20 @@ public class MockModel implements AdventureGame {
     return null;
   }
   
+  /**
+   * Get a snapshot of the Dungeon grid.
+   * @return the snapshot of the Dungeon grid.
+   */
+  @Override
+  public BoardSnapshot getSnapshot() {
+    try {
+      out.append("getSnapshot() ");
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+    return null;
+  }
+  
   /**
    * Get the current location of the player.
    * @return the current location of the player.
@@ -332,6 +402,36 @@ public class MockModel implements AdventureGame {
     return null;
   }
   
+  /**
+   * Get the first move on a shortest route from the current location of the player to the
+   * destination.
+   * @return the direction to move in, or null if the player is at the destination.
+   */
+  @Override
+  public Directions getDirectionToGoal() {
+    try {
+      out.append("getDirectionToGoal() ");
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+    return null;
+  }
+  
+  /**
+   * Get the number of moves on a shortest route from the current location of the player to the
+   * destination.
+   * @return the number of moves left to the destination.
+   */
+  @Override
+  public int getStepsToGoal() {
+    try {
+      out.append("getStepsToGoal() ");
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+    return 0;
+  }
+  
   /**
    * Get a description of the current location of player.
    * @return Map with descriptions of Type of cell, location, treasures, & available moves.
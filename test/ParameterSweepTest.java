@@ -0,0 +1,202 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import simulation.GoalSeekingBot;
+import simulation.ParameterSweep;
+import simulation.SimulationConfig;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test for the parameter sweep. Testing that every point gets one line of results, that a small
+ * point is not held back by a large one, and that a stopped sweep goes on from the points it
+ * finished.
+ */
+public class ParameterSweepTest {
+  
+  /**
+   * Test that every point of a grid gets one line with its settings.
+   * @throws IOException if the results file cannot be written or read.
+   */
+  @Test
+  public void testLinePerPoint() throws IOException {
+    Path path = Files.createTempFile("sweep", ".csv");
+    try {
+      ParameterSweep sweep = makeSweep(ForkJoinPool.commonPool());
+      assertEquals(4, sweep.run(path));
+      List<String> lines = Files.readAllLines(path);
+      assertEquals(ParameterSweep.HEADER, lines.get(0));
+      assertEquals(5, lines.size());
+      List<String> points = new ArrayList<>();
+      for (String line : lines.subList(1, lines.size())) {
+        String[] columns = line.split(",");
+        assertEquals(ParameterSweep.HEADER.split(",").length, columns.length);
+        assertEquals("40", columns[7]);
+        assertEquals("1", columns[8]);
+        assertEquals("200", columns[9]);
+        double winRate = Double.parseDouble(columns[15]);
+        assertTrue(winRate >= 0 && winRate <= 1);
+        points.add(columns[0]);
+      }
+      Collections.sort(points);
+      assertEquals(List.of("0", "1", "2", "3"), points);
+      
+      //A finished sweep has nothing left to play.
+      assertEquals(0, sweep.run(path));
+      assertEquals(5, Files.readAllLines(path).size());
+    } finally {
+      Files.delete(path);
+    }
+  }
+  
+  /**
+   * Test that a small point finishes before a large point that comes before it.
+   * @throws IOException if the results file cannot be written or read.
+   */
+  @Test
+  public void testSmallPointNotHeldBack() throws IOException {
+    Path path = Files.createTempFile("sweep", ".csv");
+    ForkJoinPool pool = new ForkJoinPool(1);
+    try {
+      List<SimulationConfig> points = List.of(
+              new SimulationConfig(40, 40, 10, true, 20, 10, 12, 1, 200),
+              new SimulationConfig(6, 6, 2, false, 20, 10, 12, 1, 200));
+      new ParameterSweep(points, new GoalSeekingBot(), pool).run(path);
+      List<String> lines = Files.readAllLines(path);
+      assertTrue(lines.get(1).startsWith("1,"));
+      assertTrue(lines.get(2).startsWith("0,"));
+    } finally {
+      pool.shutdown();
+      Files.delete(path);
+    }
+  }
+  
+  /**
+   * Test that a sweep that was stopped part way through a line goes on from the points it
+   * finished, and gives the same results as a sweep that was never stopped.
+   * @throws IOException if the results file cannot be written or read.
+   */
+  @Test
+  public void testResume() throws IOException {
+    Path path = Files.createTempFile("sweep", ".csv");
+    ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      makeSweep(pool).run(path);
+      List<String> full = Files.readAllLines(path);
+      
+      //Keep the header and two points, and half of the line of a third point.
+      String third = full.get(3);
+      String cut = String.join("\n", full.subList(0, 3)) + "\n"
+              + third.substring(0, third.length() / 2);
+      Files.write(path, cut.getBytes(StandardCharsets.UTF_8));
+      assertEquals(2, makeSweep(pool).run(path));
+      List<String> resumed = Files.readAllLines(path);
+      assertEquals(full.size(), resumed.size());
+      assertEquals(full.subList(0, 3), resumed.subList(0, 3));
+      Collections.sort(full);
+      Collections.sort(resumed);
+      assertEquals(full, resumed);
+    } finally {
+      pool.shutdown();
+      Files.delete(path);
+    }
+  }
+  
+  /**
+   * Test that the results of a different sweep are not resumed.
+   * @throws IOException if the results file is from a different sweep.
+   */
+  @Test(expected = IOException.class)
+  public void testDifferentSweep() throws IOException {
+    Path path = Files.createTempFile("sweep", ".csv");
+    try {
+      makeSweep(ForkJoinPool.commonPool()).run(path);
+      List<SimulationConfig> other = ParameterSweep.makeGrid(new int[] {7}, new int[] {7},
+              new boolean[] {true}, new int[] {0}, new int[] {20}, new int[] {10, 30}, 40, 1, 200);
+      new ParameterSweep(other, new GoalSeekingBot()).run(path);
+    } finally {
+      Files.delete(path);
+    }
+  }
+  
+  /**
+   * Test that the results of the same settings played with a different seed or turn limit are
+   * not resumed.
+   * @throws IOException if the results file cannot be written or read.
+   */
+  @Test
+  public void testDifferentSeedOrTurns() throws IOException {
+    Path path = Files.createTempFile("sweep", ".csv");
+    try {
+      makeSweep(ForkJoinPool.commonPool()).run(path);
+      for (int[] seedAndTurns : new int[][] {{2, 200}, {1, 300}}) {
+        List<SimulationConfig> points = ParameterSweep.makeGrid(new int[] {6}, new int[] {6, 8},
+                new boolean[] {false}, new int[] {2}, new int[] {20}, new int[] {10, 30}, 40,
+                seedAndTurns[0], seedAndTurns[1]);
+        try {
+          new ParameterSweep(points, new GoalSeekingBot()).run(path);
+          fail("A sweep with a different seed or max turns should not be resumed.");
+        } catch (IOException e) {
+          assertEquals("The results file is from a different sweep.", e.getMessage());
+        }
+      }
+    } finally {
+      Files.delete(path);
+    }
+  }
+  
+  /**
+   * Test that a point with settings that are not valid for a game fails the sweep, only after
+   * every worker has stopped, and leaves only whole lines in the results file.
+   * @throws IOException if the results file cannot be written or read.
+   */
+  @Test
+  public void testInvalidPointStopsSweep() throws IOException {
+    Path path = Files.createTempFile("sweep", ".csv");
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      List<SimulationConfig> points = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        points.add(new SimulationConfig(20, 20, 4, false, 20, 10, 200, 1, 200));
+      }
+      points.add(new SimulationConfig(6, 6, -1, false, 20, 10, 200, 1, 200));
+      try {
+        new ParameterSweep(points, new GoalSeekingBot(), pool).run(path);
+        fail("A point that is not valid for a game should fail the sweep.");
+      } catch (IllegalArgumentException e) {
+        assertEquals("Interconnectivity cannot be negative.", e.getMessage());
+      }
+      //No worker writes to the file after the sweep has failed.
+      long length = Files.size(path);
+      pool.awaitQuiescence(5, TimeUnit.SECONDS);
+      assertEquals(length, Files.size(path));
+      byte[] bytes = Files.readAllBytes(path);
+      assertEquals('\n', bytes[bytes.length - 1]);
+      List<String> lines = Files.readAllLines(path);
+      for (String line : lines.subList(1, lines.size())) {
+        assertEquals(ParameterSweep.HEADER.split(",").length, line.split(",").length);
+      }
+    } finally {
+      pool.shutdown();
+      Files.delete(path);
+    }
+  }
+  
+  //Make a sweep of 4 points of small Dungeons.
+  private ParameterSweep makeSweep(ForkJoinPool pool) {
+    List<SimulationConfig> points = ParameterSweep.makeGrid(new int[] {6}, new int[] {6, 8},
+            new boolean[] {false}, new int[] {2}, new int[] {20}, new int[] {10, 30}, 40, 1, 200);
+    return new ParameterSweep(points, new GoalSeekingBot(), pool);
+  }
+}
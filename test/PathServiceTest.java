@@ -0,0 +1,134 @@
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+import model.DungeonBuilderKruskal;
+import model.PathService;
+import model.gameobjects.Directions;
+import model.gameobjects.cell.Cell;
+import model.gameobjects.cell.Location;
+import random.MockRandomGenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for the path service. Testing that the routes it finds are as short as the routes found
+ * by a breadth-first search, and that every route is made of moves through the built paths.
+ */
+public class PathServiceTest {
+  
+  /**
+   * Test that the distances match a breadth-first search in wrapping and non-wrapping Dungeons.
+   */
+  @Test
+  public void testShortestDistances() {
+    for (boolean wrapping : new boolean[] {false, true}) {
+      Location[][] grid = buildGrid(9, 13, 6, wrapping, 5);
+      PathService service = new PathService(grid, wrapping, 16);
+      for (Location[] row : grid) {
+        for (Location from : row) {
+          int[] distances = findDistances(grid, from);
+          for (Location[] other : grid) {
+            for (Location to : other) {
+              assertEquals(distances[to.getID()], service.getDistance(from, to));
+            }
+          }
+        }
+      }
+    }
+  }
+  
+  /**
+   * Test that a route starts and ends at the given cells, and that the moves follow the route.
+   */
+  @Test
+  public void testPathAndMoves() {
+    Location[][] grid = buildGrid(8, 8, 3, true, 11);
+    PathService service = new PathService(grid, true, 4);
+    Cell from = grid[0][0];
+    Cell to = grid[5][6];
+    List<Cell> path = service.getPath(from, to);
+    List<Directions> moves = service.getMoves(from, to);
+    assertEquals(from, path.get(0));
+    assertEquals(to, path.get(path.size() - 1));
+    assertEquals(path.size() - 1, moves.size());
+    assertEquals(moves.size(), service.getDistance(from, to));
+    Cell cell = from;
+    for (int i = 0; i < moves.size(); i++) {
+      cell = cell.getNeighbors().get(moves.get(i));
+      assertEquals(path.get(i + 1), cell);
+    }
+    
+    //A cell is no moves away from itself.
+    assertEquals(0, service.getDistance(to, to));
+    assertTrue(service.getMoves(to, to).isEmpty());
+  }
+  
+  /**
+   * Test that every route is a shortest chain of moves through the built paths, in Dungeons with
+   * long chains of tunnels and in a Dungeon that is one loop of tunnels with no cave.
+   */
+  @Test
+  public void testRoutesThroughTunnels() {
+    List<Location[][]> grids = List.of(buildGrid(7, 10, 0, false, 3), buildGrid(7, 10, 0, true, 8),
+            buildGrid(6, 9, 4, true, 2), buildGrid(1, 8, 1, true, 1));
+    for (Location[][] grid : grids) {
+      PathService service = new PathService(grid, true, 0);
+      for (Location[] row : grid) {
+        for (Location from : row) {
+          int[] distances = findDistances(grid, from);
+          for (Location[] other : grid) {
+            for (Location to : other) {
+              List<Cell> path = service.getPath(from, to);
+              assertEquals(distances[to.getID()], path.size() - 1);
+              assertEquals(from, path.get(0));
+              assertEquals(to, path.get(path.size() - 1));
+              for (int i = 1; i < path.size(); i++) {
+                assertTrue(path.get(i - 1).getNeighbors().containsValue(path.get(i)));
+              }
+            }
+          }
+        }
+      }
+    }
+  }
+  
+  /**
+   * Test that an invalid cache size is not allowed.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidCacheSize() {
+    new PathService(buildGrid(4, 4, 0, false, 1), false, -1);
+  }
+  
+  //Find the distances from a cell to every cell with a breadth-first search.
+  private int[] findDistances(Location[][] grid, Cell from) {
+    int[] distances = new int[grid.length * grid[0].length];
+    Arrays.fill(distances, -1);
+    distances[from.getID()] = 0;
+    Deque<Cell> queue = new ArrayDeque<>(List.of(from));
+    while (! queue.isEmpty()) {
+      Cell cell = queue.poll();
+      for (Cell neighbor : cell.getNeighbors().values()) {
+        if (distances[neighbor.getID()] == -1) {
+          distances[neighbor.getID()] = distances[cell.getID()] + 1;
+          queue.add(neighbor);
+        }
+      }
+    }
+    return distances;
+  }
+  
+  //Build a Dungeon grid with a seeded random instance.
+  private Location[][] buildGrid(int rows, int cols, int interconnectivity, boolean wrapping,
+                                 int seed) {
+    DungeonBuilderKruskal builder = new DungeonBuilderKruskal(rows, cols, interconnectivity,
+            wrapping, new MockRandomGenerator(seed), 20, 0);
+    builder.buildDungeon();
+    return builder.getGrid();
+  }
+}
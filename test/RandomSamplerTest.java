@@ -0,0 +1,86 @@
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import random.MockRandomGenerator;
+import random.RandomSampler;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for the random sampler. Testing that the drawn indices are distinct and in range, that the
+ * excluded indices are never drawn, and that the same seed gives the same indices.
+ */
+public class RandomSamplerTest {
+  
+  /**
+   * Test that drawing every index of a range gives each of them exactly once.
+   */
+  @Test
+  public void testDrawsEveryIndexOnce() {
+    RandomSampler sampler = new RandomSampler(100);
+    int[] drawn = sampler.sample(50, 50, new MockRandomGenerator(1));
+    Set<Integer> seen = new HashSet<>();
+    for (int index : drawn) {
+      assertTrue(0 <= index && index < 50);
+      assertTrue(seen.add(index));
+    }
+    assertEquals(50, seen.size());
+    assertEquals(0, sampler.getRemaining());
+  }
+  
+  /**
+   * Test that asking for more indices than the range has draws all of them.
+   */
+  @Test
+  public void testSampleIsClampedToRange() {
+    RandomSampler sampler = new RandomSampler(10);
+    assertEquals(10, sampler.sample(10, 25, new MockRandomGenerator(2)).length);
+  }
+  
+  /**
+   * Test that excluded indices are never drawn, and are not counted as available.
+   */
+  @Test
+  public void testExcludedIndicesAreNotDrawn() {
+    RandomSampler sampler = new RandomSampler(20);
+    MockRandomGenerator random = new MockRandomGenerator(3);
+    for (int round = 0; round < 20; round++) {
+      assertEquals(17, sampler.start(20, 19, 0, 7, 42));
+      Set<Integer> seen = new HashSet<>();
+      while (sampler.getRemaining() > 0) {
+        seen.add(sampler.draw(random));
+      }
+      assertEquals(17, seen.size());
+      assertFalse(seen.contains(0));
+      assertFalse(seen.contains(7));
+      assertFalse(seen.contains(19));
+    }
+  }
+  
+  /**
+   * Test that the same seed gives the same indices, even when the sampler was used before.
+   */
+  @Test
+  public void testSeededSamplesAreDeterministic() {
+    RandomSampler used = new RandomSampler(1000);
+    used.sample(1000, 300, new MockRandomGenerator(5));
+    int[] first = used.sample(1000, 30, new MockRandomGenerator(4));
+    int[] second = new RandomSampler(1000).sample(1000, 30, new MockRandomGenerator(4));
+    assertArrayEquals(first, second);
+  }
+  
+  /**
+   * Test that drawing from an empty range fails.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testDrawFromEmptyRange() {
+    RandomSampler sampler = new RandomSampler(5);
+    sampler.start(1, 0);
+    sampler.draw(new MockRandomGenerator(6));
+  }
+}
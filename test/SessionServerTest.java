@@ -0,0 +1,126 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import model.Game;
+import model.gameobjects.actors.Player;
+import server.SessionServer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for the session server. Testing that players over loopback sockets each play a game of
+ * their own, and that idle sessions are closed.
+ */
+public class SessionServerTest {
+  private static final String PROMPT = "(M-P-S)? ";
+  private SessionServer server;
+  
+  /**
+   * Start a server of small games with a short idle timeout.
+   * @throws IOException if the server cannot listen.
+   */
+  @Before
+  public void setUp() throws IOException {
+    server = new SessionServer(0, () -> new Game(6, 6, 0, false, 0, 0, new Player(1), 1), 500);
+    server.start();
+  }
+  
+  /**
+   * Close the server.
+   * @throws IOException if the server cannot be closed.
+   */
+  @After
+  public void tearDown() throws IOException {
+    server.close();
+  }
+  
+  /**
+   * Test that a player is shown the game, can quit, and the session is then removed.
+   * @throws Exception if the socket fails or the wait is interrupted.
+   */
+  @Test
+  public void testPlayAndQuit() throws Exception {
+    try (Socket socket = connect()) {
+      assertTrue(readUntil(socket.getInputStream(), PROMPT).contains("You are in"));
+      socket.getOutputStream().write("q\n".getBytes(StandardCharsets.UTF_8));
+      assertTrue(readUntil(socket.getInputStream(), null).contains("Quitting the game."));
+    }
+    waitForSessions(0);
+  }
+  
+  /**
+   * Test that many players are served at the same time.
+   * @throws Exception if a socket fails or the wait is interrupted.
+   */
+  @Test
+  public void testConcurrentSessions() throws Exception {
+    List<Socket> sockets = new ArrayList<>();
+    try {
+      for (int i = 0; i < 50; i++) {
+        sockets.add(connect());
+      }
+      for (Socket socket : sockets) {
+        assertTrue(readUntil(socket.getInputStream(), PROMPT).endsWith(PROMPT));
+      }
+      assertEquals(50, server.getSessionCount());
+    } finally {
+      for (Socket socket : sockets) {
+        socket.close();
+      }
+    }
+    waitForSessions(0);
+  }
+  
+  /**
+   * Test that a session whose player sends nothing is closed after the idle timeout.
+   * @throws Exception if the socket fails or the wait is interrupted.
+   */
+  @Test
+  public void testIdleSessionClosed() throws Exception {
+    try (Socket socket = connect()) {
+      readUntil(socket.getInputStream(), PROMPT);
+      waitForSessions(1);
+      waitForSessions(0);
+      assertEquals(-1, socket.getInputStream().read());
+    }
+  }
+  
+  //Connect a player to the server.
+  private Socket connect() throws IOException {
+    Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+    socket.setSoTimeout(5000);
+    return socket;
+  }
+  
+  //Read from a player socket until the text ends with the marker, or until the end of the stream.
+  private String readUntil(InputStream in, String marker) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    int next;
+    while ((next = in.read()) != -1) {
+      bytes.write(next);
+      if (marker != null && bytes.toString(StandardCharsets.UTF_8).endsWith(marker)) {
+        break;
+      }
+    }
+    return bytes.toString(StandardCharsets.UTF_8);
+  }
+  
+  //Wait a few seconds at most for the server to hold a number of sessions.
+  private void waitForSessions(int count) throws InterruptedException {
+    for (int i = 0; i < 500 && server.getSessionCount() != count; i++) {
+      Thread.sleep(10);
+    }
+    assertEquals(count, server.getSessionCount());
+  }
+}
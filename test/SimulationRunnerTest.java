@@ -0,0 +1,95 @@
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import simulation.GoalSeekingBot;
+import simulation.Outcome;
+import simulation.RandomWalkBot;
+import simulation.SimulationConfig;
+import simulation.SimulationRunner;
+import simulation.SimulationStats;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for the simulation runner. Testing that every game is counted once, and that a batch gives
+ * the same stats no matter how the games are split between threads.
+ */
+public class SimulationRunnerTest {
+  
+  /**
+   * Test that every game of a batch ends in exactly one outcome.
+   */
+  @Test
+  public void testEveryGameCounted() {
+    SimulationConfig config = new SimulationConfig(6, 6, 2, false, 20, 20, 500, 1, 100);
+    SimulationStats stats = new SimulationRunner(config, new GoalSeekingBot()).run();
+    assertEquals(500, stats.getGames());
+    long total = 0;
+    for (Outcome outcome : Outcome.values()) {
+      total += stats.getCount(outcome);
+    }
+    assertEquals(500, total);
+    assertTrue(stats.getCount(Outcome.WON) > 0);
+    assertTrue(stats.getTotalMoves() <= stats.getTotalTurns());
+    assertTrue(stats.getTotalArrowsUsed() > 0);
+  }
+  
+  /**
+   * Test that a batch gives the same stats on one thread and on many, and in parts.
+   */
+  @Test
+  public void testSameStatsOnAnyPool() {
+    SimulationConfig config = new SimulationConfig(8, 8, 4, true, 30, 10, 300, 7, 200);
+    ForkJoinPool single = new ForkJoinPool(1);
+    ForkJoinPool many = new ForkJoinPool(4);
+    try {
+      SimulationStats first = new SimulationRunner(config, new RandomWalkBot(), single).run();
+      SimulationRunner runner = new SimulationRunner(config, new RandomWalkBot(), many);
+      SimulationStats second = runner.run();
+      assertEquals(first.toString(), second.toString());
+      assertEquals(first.getTotalTurns(), second.getTotalTurns());
+      
+      SimulationStats head = runner.run(0, 120);
+      SimulationStats tail = runner.run(120, 300);
+      for (Outcome outcome : Outcome.values()) {
+        assertEquals(first.getCount(outcome), head.getCount(outcome) + tail.getCount(outcome));
+      }
+      assertEquals(first.getRobbedCount(), head.getRobbedCount() + tail.getRobbedCount());
+      assertEquals(first.getTotalTreasureLost(),
+              head.getTotalTreasureLost() + tail.getTotalTreasureLost());
+    } finally {
+      single.shutdown();
+      many.shutdown();
+    }
+  }
+  
+  /**
+   * Test that a game is played for no more than the turn limit.
+   */
+  @Test
+  public void testTurnLimit() {
+    SimulationConfig config = new SimulationConfig(10, 10, 0, true, 0, 0, 50, 3, 1);
+    SimulationStats stats = new SimulationRunner(config, new RandomWalkBot()).run();
+    assertEquals(50, stats.getTotalTurns());
+    assertEquals(50, stats.getCount(Outcome.TIMED_OUT));
+  }
+  
+  /**
+   * Test that a batch with settings that are not valid for a game is not played.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidGameSettings() {
+    SimulationConfig config = new SimulationConfig(6, 6, - 1, false, 20, 20, 10, 1, 100);
+    new SimulationRunner(config, new RandomWalkBot()).run();
+  }
+  
+  /**
+   * Test that a batch cannot have a turn limit below 1.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidTurnLimit() {
+    new SimulationConfig(6, 6, 2, false, 20, 20, 10, 1, 0);
+  }
+}